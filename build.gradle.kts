@@ -2,16 +2,33 @@ plugins {
     application
     id("org.openjfx.javafxplugin") version "0.0.8"
     id("com.github.johnrengelman.shadow") version "6.0.0"
+    id("me.champeau.gradle.jmh") version "0.5.0"
 }
 
 repositories {
     jcenter()
 }
 
+sourceSets {
+    create("latencyTest") {
+        compileClasspath += sourceSets.main.get().output
+        runtimeClasspath += sourceSets.main.get().output
+    }
+}
+
+val latencyTestImplementation: Configuration by configurations.getting {
+    extendsFrom(configurations.implementation.get(), configurations.testImplementation.get())
+}
+
+val latencyTestRuntimeOnly: Configuration by configurations.getting {
+    extendsFrom(configurations.runtimeOnly.get(), configurations.testRuntimeOnly.get())
+}
+
 dependencies {
     compileOnly("org.jetbrains:annotations:19.0.0")
     testImplementation("org.junit.jupiter:junit-jupiter-api:5.6.2")
     testRuntimeOnly("org.junit.jupiter:junit-jupiter-engine:5.6.2")
+    latencyTestImplementation("org.testfx:openjfx-monocle:jdk-12.0.1+2")
 }
 
 java {
@@ -23,10 +40,32 @@ tasks.test {
     useJUnitPlatform()
 }
 
+val latencyTest = task<Test>("latencyTest") {
+    description = "Measures latency of user actions on a headless JavaFX platform."
+    group = "verification"
+    testClassesDirs = sourceSets["latencyTest"].output.classesDirs
+    classpath = sourceSets["latencyTest"].runtimeClasspath
+    useJUnitPlatform()
+    systemProperty("glass.platform", "Monocle")
+    systemProperty("monocle.platform", "Headless")
+    systemProperty("prism.order", "sw")
+    systemProperty("java.awt.headless", "true")
+    systemProperty("ive.latency.report", file("$buildDir/reports/latency/latency.csv"))
+    findProperty("latencyBudgetMillis")?.let { systemProperty("ive.latency.budget.millis", it) }
+    outputs.upToDateWhen { false }
+}
+
 application {
     mainClassName = "Main"
 }
 
+jmh {
+    jmhVersion = "1.25"
+    resultFormat = "JSON"
+    resultsFile = file("$buildDir/reports/jmh/results.json")
+    jvmArgsAppend = listOf("-Djava.awt.headless=true")
+}
+
 javafx {
     version = "14"
     modules = listOf("javafx.controls")
@@ -0,0 +1,99 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.cursor;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import pl.pitcer.ive.image.cursor.array.ArrayCursor;
+import pl.pitcer.ive.image.cursor.cyclic.CyclicCursor;
+
+/**
+ * Measures construction of {@link CyclicCursor} and a full lap of it in both directions, with
+ * {@link ArrayCursor} as the baseline
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CursorBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    private List<Integer> values;
+    private CyclicCursor<Integer> cyclicCursor;
+    private ArrayCursor<Integer> arrayCursor;
+
+    @Setup(Level.Trial)
+    public void createCursors() {
+        this.values = IntStream.range(0, this.size)
+            .boxed()
+            .collect(Collectors.toUnmodifiableList());
+        this.cyclicCursor = new CyclicCursor<>(this.values);
+        this.arrayCursor = new ArrayCursor<>(this.values);
+    }
+
+    @Benchmark
+    public CyclicCursor<Integer> constructCyclicCursor() {
+        return new CyclicCursor<>(this.values);
+    }
+
+    @Benchmark
+    public ArrayCursor<Integer> constructArrayCursor() {
+        return new ArrayCursor<>(this.values);
+    }
+
+    @Benchmark
+    public void traverseCyclicCursor(final Blackhole blackhole) {
+        traverse(this.cyclicCursor, blackhole);
+    }
+
+    @Benchmark
+    public void traverseArrayCursor(final Blackhole blackhole) {
+        traverse(this.arrayCursor, blackhole);
+    }
+
+    private void traverse(final MutableCursor<Integer> cursor, final Blackhole blackhole) {
+        for (int step = 0; step < this.size; step++) {
+            cursor.moveNext();
+            blackhole.consume(cursor.getCurrentValue());
+        }
+        for (int step = 0; step < this.size; step++) {
+            cursor.movePrevious();
+            blackhole.consume(cursor.getCurrentValue());
+        }
+    }
+}
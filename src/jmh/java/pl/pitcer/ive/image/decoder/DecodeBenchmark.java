@@ -0,0 +1,91 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.decoder;
+
+import com.sun.javafx.iio.ImageFrame;
+import com.sun.javafx.iio.ImageStorage;
+import com.sun.javafx.iio.ImageStorageException;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures decoding of images of representative sizes by the loader behind
+ * {@link javafx.scene.image.Image}, which runs without a display
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DecodeBenchmark {
+
+    @Param({"jpg", "png"})
+    public String format;
+
+    @Param({"640x480", "1920x1080", "4000x3000"})
+    public String size;
+
+    private Path image;
+
+    @Setup(Level.Trial)
+    public void createImage() throws IOException {
+        var dimensions = this.size.split("x");
+        var width = Integer.parseInt(dimensions[0]);
+        var height = Integer.parseInt(dimensions[1]);
+        var bufferedImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                bufferedImage.setRGB(x, y, (x * 7) << 16 | (y * 5) << 8 | (x ^ y) & 0xFF);
+            }
+        }
+        this.image = Files.createTempFile("ive-decode", "." + this.format);
+        ImageIO.write(bufferedImage, this.format, this.image.toFile());
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteImage() throws IOException {
+        Files.delete(this.image);
+    }
+
+    @Benchmark
+    public ImageFrame[] decode() throws IOException, ImageStorageException {
+        try (var imageInputStream = new BufferedInputStream(Files.newInputStream(this.image))) {
+            return ImageStorage.loadAll(imageInputStream, null, 0, 0, true, 1.0f, true);
+        }
+    }
+}
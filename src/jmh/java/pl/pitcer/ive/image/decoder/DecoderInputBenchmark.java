@@ -0,0 +1,144 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.decoder;
+
+import com.sun.javafx.iio.ImageFrame;
+import com.sun.javafx.iio.ImageStorage;
+import com.sun.javafx.iio.ImageStorageException;
+import java.awt.image.BufferedImage;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Compares decoding an image read through a file stream with decoding it from a memory-mapped file. Read
+ * calls issued to the file stream, each of them a system call, are counted along with decodings of every
+ * iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DecoderInputBenchmark {
+
+    @Param({"jpg", "png"})
+    public String format;
+
+    @Param({"4000"})
+    public int width;
+
+    @Param({"3000"})
+    public int height;
+
+    private Path image;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class ReadCalls {
+
+        public long readCalls;
+        public long decodings;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            this.readCalls = 0;
+            this.decodings = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void createImage() throws IOException {
+        var bufferedImage = new BufferedImage(this.width, this.height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < this.height; y++) {
+            for (int x = 0; x < this.width; x++) {
+                bufferedImage.setRGB(x, y, (x * 7) << 16 | (y * 5) << 8 | (x ^ y) & 0xFF);
+            }
+        }
+        this.image = Files.createTempFile("ive-decoder-input", "." + this.format);
+        ImageIO.write(bufferedImage, this.format, this.image.toFile());
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteImage() throws IOException {
+        Files.delete(this.image);
+    }
+
+    @Benchmark
+    public ImageFrame[] stream(final ReadCalls readCalls) throws IOException, ImageStorageException {
+        readCalls.decodings++;
+        try (var imageInputStream = new CountingInputStream(Files.newInputStream(this.image), readCalls)) {
+            return ImageStorage.loadAll(imageInputStream, null, 0, 0, true, 1.0f, true);
+        }
+    }
+
+    @Benchmark
+    public ImageFrame[] mapped() throws IOException, ImageStorageException {
+        try (var imageInputStream = ImageDecoder.openMappedInputStream(this.image)) {
+            return ImageStorage.loadAll(imageInputStream, null, 0, 0, true, 1.0f, true);
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private final ReadCalls readCalls;
+
+        private CountingInputStream(final InputStream inputStream, final ReadCalls readCalls) {
+            super(inputStream);
+            this.readCalls = readCalls;
+        }
+
+        @Override
+        public int read() throws IOException {
+            this.readCalls.readCalls++;
+            return super.read();
+        }
+
+        @Override
+        public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+            this.readCalls.readCalls++;
+            return super.read(bytes, offset, length);
+        }
+
+        @Override
+        public long skip(final long count) throws IOException {
+            this.readCalls.readCalls++;
+            return super.skip(count);
+        }
+    }
+}
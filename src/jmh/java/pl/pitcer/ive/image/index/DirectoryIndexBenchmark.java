@@ -0,0 +1,91 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.index;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import pl.pitcer.ive.image.loader.FileEntry;
+import pl.pitcer.ive.image.loader.ImageFormat;
+import pl.pitcer.ive.image.probe.ImageDimensions;
+
+/**
+ * Measures reading and writing {@link DirectoryIndex} files of directories with probed images, the cost
+ * of opening an unchanged directory again
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DirectoryIndexBenchmark {
+
+    @Param({"10000", "200000"})
+    public int imageCount;
+
+    private Path directory;
+    private Path file;
+    private DirectoryIndex index;
+
+    @Setup(Level.Trial)
+    public void writeIndex() throws IOException {
+        this.directory = Path.of("images").toAbsolutePath();
+        List<FileEntry> images = new ArrayList<>(this.imageCount);
+        var metadata = new ImageMetadata[this.imageCount];
+        for (int position = 0; position < this.imageCount; position++) {
+            images.add(new FileEntry(this.directory.resolve("IMG_" + position + ".jpg"), position, position));
+            metadata[position] = new ImageMetadata(ImageFormat.JPEG, new ImageDimensions(4000, 3000), null);
+        }
+        this.index = new DirectoryIndex(this.directory, 0, 0, images, metadata);
+        this.file = Files.createTempFile("ive-directory-index", ".index");
+        this.index.write(this.file);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteIndex() throws IOException {
+        Files.delete(this.file);
+    }
+
+    @Benchmark
+    public DirectoryIndex read() throws IOException {
+        return DirectoryIndex.read(this.file, this.directory);
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+        this.index.write(this.file);
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.loader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures listing and filtering of synthetic trees by {@link ImageLoader}. Entries are spread over
+ * subdirectories of the scanned directory, and one in five of them is not an image.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ImageListingBenchmark {
+
+    private static final int ENTRIES_PER_DIRECTORY = 1000;
+
+    @Param({"10000", "100000", "1000000"})
+    public int entryCount;
+
+    private Path root;
+    private ImageLoader imageLoader;
+
+    @Setup(Level.Trial)
+    public void createTree() throws IOException {
+        this.root = Files.createTempDirectory("ive-image-listing");
+        for (int index = 0; index < this.entryCount; index++) {
+            var directory = this.root.resolve("directory-" + index / ENTRIES_PER_DIRECTORY);
+            if (index % ENTRIES_PER_DIRECTORY == 0) {
+                Files.createDirectory(directory);
+            }
+            var extension = index % 5 == 0 ? ".txt" : ".png";
+            Files.createFile(directory.resolve("file-" + index + extension));
+        }
+        this.imageLoader = new ImageLoader(this.root, SortOrder.NAME_ASCENDING, 1, true);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteTree() throws IOException {
+        try (var paths = Files.walk(this.root)) {
+            for (final Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<FileEntry> scanImages() {
+        List<FileEntry> images = new ArrayList<>();
+        this.imageLoader.scanImages(images::addAll);
+        return images;
+    }
+
+    @Benchmark
+    public List<FileEntry> loadImages() {
+        return this.imageLoader.loadImages();
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.loader;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the first natural sort of freshly listed images, including building their sort keys. Sorting
+ * the same entries again reuses the keys, which is covered by {@link SortOrderBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class NaturalSortBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int imageCount;
+
+    private ImageLoader imageLoader;
+    private List<String> names;
+    private List<FileEntry> images;
+
+    @Setup(Level.Trial)
+    public void createNames() {
+        var random = new Random(42);
+        this.names = new ArrayList<>(this.imageCount);
+        for (int index = 0; index < this.imageCount; index++) {
+            this.names.add("IMG_" + random.nextInt(this.imageCount * 10) + ".jpg");
+        }
+        this.imageLoader = new ImageLoader(Path.of("images"), SortOrder.NATURAL_ASCENDING);
+    }
+
+    @Setup(Level.Invocation)
+    public void createImages() {
+        var directory = this.imageLoader.getDirectory();
+        this.images = new ArrayList<>(this.imageCount);
+        for (final String name : this.names) {
+            this.images.add(new FileEntry(directory.resolve(name), 0, 0));
+        }
+    }
+
+    @Benchmark
+    public List<FileEntry> sortImages() {
+        return this.imageLoader.sortImages(this.images);
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.loader;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures sorting of shuffled images by {@link ImageLoader} in every {@link SortOrder}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SortOrderBenchmark {
+
+    private static final long MAXIMUM_SIZE = 32 * 1024 * 1024;
+    private static final long MAXIMUM_LAST_MODIFIED = 1_600_000_000_000L;
+
+    @Param
+    public SortOrder sortOrder;
+
+    @Param({"10000", "100000", "1000000"})
+    public int imageCount;
+
+    private ImageLoader imageLoader;
+    private List<FileEntry> images;
+
+    @Setup(Level.Trial)
+    public void createImages() {
+        var random = new Random(42);
+        var directory = Path.of("images");
+        this.images = new ArrayList<>(this.imageCount);
+        for (int index = 0; index < this.imageCount; index++) {
+            var name = "IMG_" + random.nextInt(this.imageCount * 10) + ".jpg";
+            var lastModified = (long) (random.nextDouble() * MAXIMUM_LAST_MODIFIED);
+            var size = (long) (random.nextDouble() * MAXIMUM_SIZE);
+            this.images.add(new FileEntry(directory.resolve(name), lastModified, size));
+        }
+        this.imageLoader = new ImageLoader(directory, this.sortOrder);
+    }
+
+    @Benchmark
+    public List<FileEntry> sortImages() {
+        return this.imageLoader.sortImages(this.images);
+    }
+}
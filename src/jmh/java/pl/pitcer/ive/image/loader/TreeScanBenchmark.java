@@ -0,0 +1,120 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.loader;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Compares recursive scanning of {@link ImageLoader} with a single-threaded {@link Files#walk}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TreeScanBenchmark {
+
+    private static final ImageFilter IMAGE_FILTER = new ImageFilter();
+
+    @Param({"20"})
+    public int directoriesPerLevel;
+
+    @Param({"25"})
+    public int filesPerDirectory;
+
+    private Path root;
+
+    @Setup(Level.Trial)
+    public void createTree() throws IOException {
+        this.root = Files.createTempDirectory("ive-tree-scan");
+        for (int first = 0; first < this.directoriesPerLevel; first++) {
+            var firstDirectory = this.root.resolve("directory-" + first);
+            createFiles(firstDirectory);
+            for (int second = 0; second < this.directoriesPerLevel; second++) {
+                createFiles(firstDirectory.resolve("directory-" + second));
+            }
+        }
+    }
+
+    private void createFiles(final Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (int index = 0; index < this.filesPerDirectory; index++) {
+            var extension = index % 5 == 0 ? ".txt" : ".png";
+            Files.write(directory.resolve("file-" + index + extension), new byte[0]);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteTree() throws IOException {
+        try (var paths = Files.walk(this.root)) {
+            for (final Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<FileEntry> parallelScan() {
+        List<FileEntry> images = new ArrayList<>();
+        var imageLoader = new ImageLoader(this.root, SortOrder.NAME_ASCENDING, Integer.MAX_VALUE, true);
+        imageLoader.scanImages(images::addAll);
+        return images;
+    }
+
+    @Benchmark
+    public List<FileEntry> sequentialWalk() throws IOException {
+        try (var paths = Files.walk(this.root)) {
+            return paths.map(TreeScanBenchmark::loadImage)
+                .filter(image -> image != null)
+                .collect(Collectors.toList());
+        }
+    }
+
+    private static FileEntry loadImage(final Path path) {
+        try {
+            var attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return IMAGE_FILTER.test(path, attributes) ? FileEntry.of(path, attributes) : null;
+        } catch (final IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.probe;
+
+import com.sun.javafx.iio.ImageFrame;
+import com.sun.javafx.iio.ImageStorage;
+import com.sun.javafx.iio.ImageStorageException;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.imageio.ImageIO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Compares reading dimensions of large images with {@link DimensionProbe} with decoding them by the
+ * loader behind {@link javafx.scene.image.Image}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DimensionProbeBenchmark {
+
+    @Param({"jpg", "png"})
+    public String format;
+
+    @Param({"4000"})
+    public int width;
+
+    @Param({"3000"})
+    public int height;
+
+    @Param({"4"})
+    public int imageCount;
+
+    private Path directory;
+    private List<Path> images;
+    private int nextImage;
+
+    @Setup(Level.Trial)
+    public void createImages() throws IOException {
+        this.directory = Files.createTempDirectory("ive-dimension-probe");
+        this.images = new ArrayList<>();
+        for (int index = 0; index < this.imageCount; index++) {
+            var image = new BufferedImage(this.width, this.height, BufferedImage.TYPE_INT_RGB);
+            for (int y = 0; y < this.height; y++) {
+                for (int x = 0; x < this.width; x++) {
+                    image.setRGB(x, y, (x * 7 + index) << 16 | (y * 5) << 8 | (x ^ y) & 0xFF);
+                }
+            }
+            var file = this.directory.resolve("image-" + index + "." + this.format);
+            ImageIO.write(image, this.format, file.toFile());
+            this.images.add(file);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteImages() throws IOException {
+        try (var paths = Files.walk(this.directory)) {
+            for (final Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private Path nextImage() {
+        var image = this.images.get(this.nextImage);
+        this.nextImage = (this.nextImage + 1) % this.images.size();
+        return image;
+    }
+
+    @Benchmark
+    public ImageDimensions probe() throws IOException {
+        return DimensionProbe.probe(nextImage());
+    }
+
+    @Benchmark
+    public ImageFrame[] decode() throws IOException, ImageStorageException {
+        try (var imageInputStream = Files.newInputStream(nextImage())) {
+            return ImageStorage.loadAll(imageInputStream, null, 0, 0, true, 1.0f, true);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.window;
+
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.MouseButton;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class IveWindowLatencyTest {
+
+    private static final int IMAGE_COUNT = 24;
+    private static final int IMAGE_WIDTH = 1920;
+    private static final int IMAGE_HEIGHT = 1080;
+    private static final int REPETITIONS = 20;
+    private static final double DRAG_STEP = 8;
+    private static final int MODIFIED_IMAGE_WIDTH = 640;
+    private static final int MODIFIED_IMAGE_HEIGHT = 480;
+
+    @TempDir
+    static Path directory;
+
+    private static LatencyHarness harness;
+
+    @BeforeAll
+    public static void startWindow() throws Exception {
+        var imageDirectory = directory.resolve("images");
+        Files.createDirectories(imageDirectory);
+        System.setProperty("ive.cache.directory", directory.resolve("cache").toString());
+        LatencyHarness.createImages(imageDirectory, IMAGE_COUNT, IMAGE_WIDTH, IMAGE_HEIGHT);
+        harness = new LatencyHarness();
+        harness.start(imageDirectory);
+    }
+
+    @AfterAll
+    public static void stopWindow() throws Exception {
+        var report = System.getProperty("ive.latency.report", "build/reports/latency/latency.csv");
+        harness.writeReport(Path.of(report));
+        harness.stop();
+    }
+
+    @Test
+    public void testNavigationLatency() throws Exception {
+        measureKey("next", KeyCode.RIGHT);
+        measureKey("previous", KeyCode.LEFT);
+    }
+
+    private static void measureKey(final String name, final KeyCode keyCode) throws Exception {
+        var imageView = harness.getImageView();
+        var robot = harness.getRobot();
+        harness.measure(name, REPETITIONS, () -> {
+            var image = imageView.getImage();
+            robot.keyPress(keyCode);
+            robot.keyRelease(keyCode);
+            return () -> imageView.getImage() != image;
+        });
+        assertWithinBudget(name);
+    }
+
+    @Test
+    public void testReloadShowsModifiedImage() throws Exception {
+        var imageView = harness.getImageView();
+        var file = harness.callOnPlatform(() -> imageView.getImages().get(imageView.getCurrentImageIndex()).getPath());
+        var modifiedImage = new BufferedImage(MODIFIED_IMAGE_WIDTH, MODIFIED_IMAGE_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        var format = file.getFileName().toString().endsWith(".png") ? "png" : "jpg";
+        ImageIO.write(modifiedImage, format, file.toFile());
+        var lastModified = Files.getLastModifiedTime(file).toMillis();
+        Files.setLastModifiedTime(file, FileTime.fromMillis(lastModified + 60_000));
+        harness.callOnPlatform(() -> {
+            harness.getRobot().keyPress(KeyCode.F5);
+            harness.getRobot().keyRelease(KeyCode.F5);
+            return null;
+        });
+        harness.awaitCondition(() -> {
+            var image = imageView.getImage();
+            return image.getWidth() == MODIFIED_IMAGE_WIDTH && image.getHeight() == MODIFIED_IMAGE_HEIGHT;
+        });
+    }
+
+    @Test
+    public void testZoomLatency() throws Exception {
+        moveMouseToCenter();
+        measureScroll("zoom in", 1);
+        measureScroll("zoom out", -1);
+    }
+
+    private static void measureScroll(final String name, final int wheelAmount) throws Exception {
+        var imageView = harness.getImageView();
+        var robot = harness.getRobot();
+        harness.measure(name, REPETITIONS, () -> {
+            var viewport = imageView.getViewport();
+            robot.mouseWheel(wheelAmount);
+            return () -> imageView.getViewport() != viewport;
+        });
+        assertWithinBudget(name);
+    }
+
+    @Test
+    public void testDragLatency() throws Exception {
+        var imageView = harness.getImageView();
+        var robot = harness.getRobot();
+        moveMouseToCenter();
+        harness.callOnPlatform(() -> {
+            robot.mousePress(MouseButton.PRIMARY);
+            return null;
+        });
+        harness.measure("drag", REPETITIONS, () -> {
+            var viewport = imageView.getViewport();
+            var mousePosition = robot.getMousePosition();
+            robot.mouseMove(mousePosition.getX() + DRAG_STEP, mousePosition.getY() + DRAG_STEP);
+            return () -> imageView.getViewport() != viewport;
+        });
+        harness.callOnPlatform(() -> {
+            robot.mouseRelease(MouseButton.PRIMARY);
+            return null;
+        });
+        assertWithinBudget("drag");
+    }
+
+    private static void moveMouseToCenter() throws Exception {
+        harness.callOnPlatform(() -> {
+            harness.getRobot().mouseMove(harness.getCenterX(), harness.getCenterY());
+            return null;
+        });
+    }
+
+    /**
+     * Fails when the 99th percentile of the action exceeds the budget given by a system property, if any
+     */
+    private static void assertWithinBudget(final String name) {
+        var budget = System.getProperty("ive.latency.budget.millis");
+        if (budget == null) {
+            return;
+        }
+        var p99 = harness.getHistograms().get(name).getQuantileMillis(0.99);
+        Assertions.assertTrue(p99 <= Double.parseDouble(budget), () -> name + " took " + p99 + " ms at the 99th percentile");
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.window;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+import javafx.application.Platform;
+import javafx.scene.robot.Robot;
+import javafx.stage.Stage;
+import javax.imageio.ImageIO;
+import pl.pitcer.ive.Configuration;
+import pl.pitcer.ive.image.IveImageView;
+import pl.pitcer.ive.metrics.LatencyHistogram;
+
+/**
+ * Harness booting {@link IveWindow} on the JavaFX platform against a generated image directory, and
+ * measuring how long user actions take to show up on screen. Input is injected through the glass robot,
+ * so it goes all the way through the event dispatching of the scene. An action is complete on the first
+ * pulse on which its effect is laid out, just before that pulse is rendered.
+ */
+final class LatencyHarness {
+
+    private static final long TIMEOUT_SECONDS = 10;
+    private static final String REPORT_HEADER = "action,count,meanMillis,p50Millis,p90Millis,p99Millis,maxMillis";
+
+    private final Map<String, LatencyHistogram> histograms;
+    private Stage stage;
+    private IveImageView imageView;
+    private Robot robot;
+    private BooleanSupplier pendingCompletion;
+    private CompletableFuture<Long> pendingAction;
+
+    LatencyHarness() {
+        this.histograms = new LinkedHashMap<>();
+    }
+
+    /**
+     * Writes images with distinct content to the directory, named so that they are sorted by their index
+     */
+    static void createImages(final Path directory, final int count, final int width, final int height) throws IOException {
+        for (int index = 0; index < count; index++) {
+            var image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    image.setRGB(x, y, (x * (index + 1)) << 16 | (y * 3) << 8 | (x ^ y ^ index) & 0xFF);
+                }
+            }
+            var format = index % 4 == 3 ? "png" : "jpg";
+            var file = directory.resolve(String.format("image-%03d.%s", index, format));
+            ImageIO.write(image, format, file.toFile());
+        }
+    }
+
+    /**
+     * Starts the JavaFX platform and shows the window, waiting until the first image is on screen
+     */
+    void start(final Path directory) throws Exception {
+        var started = new CompletableFuture<Void>();
+        Platform.setImplicitExit(false);
+        Platform.startup(() -> started.complete(null));
+        started.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        callOnPlatform(() -> {
+            this.stage = new Stage();
+            var window = new IveWindow(this.stage, Configuration.fromSystemProperties(), directory);
+            window.initialize();
+            window.show();
+            this.stage.requestFocus();
+            var root = this.stage.getScene().getRoot();
+            this.imageView = (IveImageView) root.getChildrenUnmodifiable().get(0);
+            this.robot = new Robot();
+            this.stage.getScene().addPostLayoutPulseListener(this::checkPendingAction);
+            return null;
+        });
+        awaitCondition(() -> this.imageView.getImage() != null);
+    }
+
+    void stop() throws Exception {
+        callOnPlatform(() -> {
+            this.stage.close();
+            return null;
+        });
+        Platform.exit();
+    }
+
+    IveImageView getImageView() {
+        return this.imageView;
+    }
+
+    Robot getRobot() {
+        return this.robot;
+    }
+
+    double getCenterX() {
+        return this.stage.getX() + this.stage.getWidth() / 2;
+    }
+
+    double getCenterY() {
+        return this.stage.getY() + this.stage.getHeight() / 2;
+    }
+
+    /**
+     * Performs the action on the JavaFX application thread the given number of times, one after another,
+     * recording the time from injecting its input until the pulse on which it is complete
+     *
+     * @param action injects input with the robot and returns the condition of its completion, checked
+     * on every pulse
+     */
+    void measure(final String name, final int repetitions, final Supplier<BooleanSupplier> action) throws Exception {
+        var histogram = this.histograms.computeIfAbsent(name, histogramName -> new LatencyHistogram());
+        for (int repetition = 0; repetition < repetitions; repetition++) {
+            var completion = callOnPlatform(() -> {
+                var pendingAction = new CompletableFuture<Long>();
+                var startTime = System.nanoTime();
+                this.pendingAction = pendingAction;
+                this.pendingCompletion = action.get();
+                return pendingAction.thenApply(endTime -> endTime - startTime);
+            });
+            histogram.record(completion.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        }
+    }
+
+    private void checkPendingAction() {
+        if (this.pendingAction != null && this.pendingCompletion.getAsBoolean()) {
+            var pendingAction = this.pendingAction;
+            this.pendingAction = null;
+            this.pendingCompletion = null;
+            pendingAction.complete(System.nanoTime());
+        }
+    }
+
+    /**
+     * Runs the task on the JavaFX application thread and waits for its result
+     */
+    <T> T callOnPlatform(final Supplier<T> task) throws Exception {
+        var result = new CompletableFuture<T>();
+        Platform.runLater(() -> {
+            try {
+                result.complete(task.get());
+            } catch (final RuntimeException exception) {
+                result.completeExceptionally(exception);
+            }
+        });
+        try {
+            return result.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (final ExecutionException exception) {
+            throw (Exception) exception.getCause();
+        }
+    }
+
+    /**
+     * Waits until the condition, checked on the JavaFX application thread, is met
+     */
+    void awaitCondition(final BooleanSupplier condition) throws Exception {
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (!callOnPlatform(condition::getAsBoolean)) {
+            if (System.nanoTime() > deadline) {
+                throw new TimeoutException("Condition not met in " + TIMEOUT_SECONDS + " seconds");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    Map<String, LatencyHistogram> getHistograms() {
+        return this.histograms;
+    }
+
+    /**
+     * Writes latency distributions of all actions as CSV, one line per action
+     */
+    void writeReport(final Path file) {
+        var report = new StringBuilder(REPORT_HEADER).append('\n');
+        this.histograms.forEach((name, histogram) -> report.append(name)
+            .append(',').append(histogram.getCount())
+            .append(',').append(histogram.getMeanMillis())
+            .append(',').append(histogram.getQuantileMillis(0.5))
+            .append(',').append(histogram.getQuantileMillis(0.9))
+            .append(',').append(histogram.getQuantileMillis(0.99))
+            .append(',').append(histogram.getMaximumMillis())
+            .append('\n'));
+        System.out.print(report);
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Files.writeString(file, report);
+        } catch (final IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+}
@@ -23,6 +23,7 @@
  */
 
 import javafx.application.Application;
+import pl.pitcer.ive.IveApplication;
 
 /**
  * Main class
@@ -30,6 +31,9 @@ import javafx.application.Application;
 public final class Main {
 
     public static void main(final String[] args) {
+        if (IveApplication.forwardToRunningInstance(args)) {
+            return;
+        }
         Application.launch(Ive.class, args);
     }
 }
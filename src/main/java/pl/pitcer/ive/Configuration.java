@@ -0,0 +1,298 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive;
+
+import java.nio.file.Path;
+import java.util.Locale;
+import pl.pitcer.ive.image.slideshow.SlideshowPolicy;
+
+/**
+ * Application settings, read from {@code ive.*} system properties
+ */
+public final class Configuration {
+
+    private static final String PROPERTY_PREFIX = "ive.";
+
+    private static final long BYTES_PER_MEGABYTE = 1024 * 1024;
+
+    private final int prefetchAhead;
+    private final int prefetchBehind;
+    private final long imageCacheBytes;
+    private final long tileCacheBytes;
+    private final boolean downsampling;
+    private final boolean mappingFiles;
+    private final boolean watching;
+    private final int watchQuietPeriodMillis;
+    private final int scanDepth;
+    private final boolean scanningHidden;
+    private final boolean sniffing;
+    private final boolean indexing;
+    private final int thumbnailSize;
+    private final int thumbnailCapacity;
+    private final Path cacheDirectory;
+    private final boolean slideshowPlaying;
+    private final int slideshowIntervalMillis;
+    private final SlideshowPolicy slideshowPolicy;
+    private final boolean exportingMetrics;
+    private final int metricsLogPeriodSeconds;
+    private final boolean singleInstance;
+
+    private Configuration(final int prefetchAhead, final int prefetchBehind, final long imageCacheBytes, final long tileCacheBytes, final boolean downsampling, final boolean mappingFiles, final boolean watching, final int watchQuietPeriodMillis, final int scanDepth, final boolean scanningHidden, final boolean sniffing, final boolean indexing, final int thumbnailSize, final int thumbnailCapacity, final Path cacheDirectory, final boolean slideshowPlaying, final int slideshowIntervalMillis, final SlideshowPolicy slideshowPolicy, final boolean exportingMetrics, final int metricsLogPeriodSeconds, final boolean singleInstance) {
+        this.prefetchAhead = prefetchAhead;
+        this.prefetchBehind = prefetchBehind;
+        this.imageCacheBytes = imageCacheBytes;
+        this.tileCacheBytes = tileCacheBytes;
+        this.downsampling = downsampling;
+        this.mappingFiles = mappingFiles;
+        this.watching = watching;
+        this.watchQuietPeriodMillis = watchQuietPeriodMillis;
+        this.scanDepth = scanDepth;
+        this.scanningHidden = scanningHidden;
+        this.sniffing = sniffing;
+        this.indexing = indexing;
+        this.thumbnailSize = thumbnailSize;
+        this.thumbnailCapacity = thumbnailCapacity;
+        this.cacheDirectory = cacheDirectory;
+        this.slideshowPlaying = slideshowPlaying;
+        this.slideshowIntervalMillis = slideshowIntervalMillis;
+        this.slideshowPolicy = slideshowPolicy;
+        this.exportingMetrics = exportingMetrics;
+        this.metricsLogPeriodSeconds = metricsLogPeriodSeconds;
+        this.singleInstance = singleInstance;
+    }
+
+    public static Configuration fromSystemProperties() {
+        var prefetchAhead = Math.max(1, getNonNegativeInteger("prefetch.ahead", 2));
+        var prefetchBehind = getNonNegativeInteger("prefetch.behind", 1);
+        var imageCacheBytes = getNonNegativeInteger("cache.megabytes", 256) * BYTES_PER_MEGABYTE;
+        var tileCacheBytes = getNonNegativeInteger("tiles.megabytes", 256) * BYTES_PER_MEGABYTE;
+        var downsampling = getBoolean("decode.downsample", false);
+        var mappingFiles = getBoolean("decode.mapped", false);
+        var watching = getBoolean("live", false);
+        var watchQuietPeriodMillis = getNonNegativeInteger("live.quiet.period", 250);
+        var scanDepth = getNonNegativeInteger("scan.depth", 0);
+        var scanningHidden = getBoolean("scan.hidden", true);
+        var sniffing = getBoolean("scan.sniff", false);
+        var indexing = getBoolean("scan.index", false);
+        var thumbnailSize = Math.max(1, getNonNegativeInteger("thumbnail.size", 128));
+        var thumbnailCapacity = Math.max(1, getNonNegativeInteger("thumbnail.capacity", 8192));
+        var cacheDirectory = getCacheDirectoryProperty();
+        var slideshowPlaying = getBoolean("slideshow", false);
+        var slideshowIntervalMillis = Math.max(1, getNonNegativeInteger("slideshow.interval", 5000));
+        var slideshowPolicy = getSlideshowPolicyProperty();
+        var exportingMetrics = getBoolean("metrics", false);
+        var metricsLogPeriodSeconds = getNonNegativeInteger("metrics.log.period", 0);
+        var singleInstance = getBoolean("single.instance", false);
+        return new Configuration(prefetchAhead, prefetchBehind, imageCacheBytes, tileCacheBytes, downsampling, mappingFiles, watching, watchQuietPeriodMillis, scanDepth, scanningHidden, sniffing, indexing, thumbnailSize, thumbnailCapacity, cacheDirectory, slideshowPlaying, slideshowIntervalMillis, slideshowPolicy, exportingMetrics, metricsLogPeriodSeconds, singleInstance);
+    }
+
+    private static SlideshowPolicy getSlideshowPolicyProperty() {
+        var policy = System.getProperty(PROPERTY_PREFIX + "slideshow.policy");
+        if (policy == null) {
+            return SlideshowPolicy.HOLD;
+        }
+        try {
+            return SlideshowPolicy.valueOf(policy.toUpperCase(Locale.ROOT));
+        } catch (final IllegalArgumentException exception) {
+            exception.printStackTrace();
+            return SlideshowPolicy.HOLD;
+        }
+    }
+
+    private static Path getCacheDirectoryProperty() {
+        var cacheDirectory = System.getProperty(PROPERTY_PREFIX + "cache.directory");
+        if (cacheDirectory != null) {
+            return Path.of(cacheDirectory);
+        }
+        var xdgCacheHome = System.getenv("XDG_CACHE_HOME");
+        if (xdgCacheHome != null && !xdgCacheHome.isEmpty()) {
+            return Path.of(xdgCacheHome, "ive");
+        }
+        return Path.of(System.getProperty("user.home"), ".cache", "ive");
+    }
+
+    private static int getNonNegativeInteger(final String name, final int defaultValue) {
+        var value = Integer.getInteger(PROPERTY_PREFIX + name, defaultValue);
+        return Math.max(0, value);
+    }
+
+    private static boolean getBoolean(final String name, final boolean defaultValue) {
+        var value = System.getProperty(PROPERTY_PREFIX + name);
+        return value == null ? defaultValue : Boolean.parseBoolean(value);
+    }
+
+    /**
+     * Number of images decoded in advance in the direction the user is moving. It is at least one, as
+     * a slideshow shows only images decoded in advance.
+     */
+    public int getPrefetchAhead() {
+        return this.prefetchAhead;
+    }
+
+    /**
+     * Number of images kept decoded in the direction opposite to the one the user is moving
+     */
+    public int getPrefetchBehind() {
+        return this.prefetchBehind;
+    }
+
+    /**
+     * Maximum estimated memory used by pixels of cached decoded images
+     */
+    public long getImageCacheBytes() {
+        return this.imageCacheBytes;
+    }
+
+    /**
+     * Maximum estimated memory used by pixels of cached tiles of images too large to be decoded whole
+     */
+    public long getTileCacheBytes() {
+        return this.tileCacheBytes;
+    }
+
+    /**
+     * Whether images are first decoded at the size they are displayed with, and at full resolution
+     * only after zooming in past it
+     */
+    public boolean isDownsampling() {
+        return this.downsampling;
+    }
+
+    /**
+     * Whether image files are memory-mapped for decoding instead of read through a stream
+     */
+    public boolean isMappingFiles() {
+        return this.mappingFiles;
+    }
+
+    /**
+     * Whether the directory is watched and its changes are applied without reloading. Only the top
+     * directory is watched, so the window disables live mode when subdirectories are scanned.
+     */
+    public boolean isWatching() {
+        return this.watching;
+    }
+
+    /**
+     * Time without directory events after which a batch of changes is applied
+     */
+    public int getWatchQuietPeriodMillis() {
+        return this.watchQuietPeriodMillis;
+    }
+
+    /**
+     * How many levels of subdirectories are scanned for images, zero meaning only the directory itself
+     */
+    public int getScanDepth() {
+        return this.scanDepth;
+    }
+
+    /**
+     * Whether hidden files and directories are scanned for images
+     */
+    public boolean isScanningHidden() {
+        return this.scanningHidden;
+    }
+
+    /**
+     * Whether files with image names are listed only when their first bytes show they are images
+     */
+    public boolean isSniffing() {
+        return this.sniffing;
+    }
+
+    /**
+     * Whether listings and image metadata of scanned directories are kept in persistent indexes, so an
+     * unchanged directory is not listed again. Indexes are used only when subdirectories are not scanned.
+     * As only the modification time of the directory is checked, a file rewritten in place keeps its
+     * indexed size, modification time and metadata until the directory changes, so indexing is opt-in.
+     */
+    public boolean isIndexing() {
+        return this.indexing;
+    }
+
+    /**
+     * Maximum width and height of generated thumbnails
+     */
+    public int getThumbnailSize() {
+        return this.thumbnailSize;
+    }
+
+    /**
+     * Maximum number of thumbnails kept in the persistent thumbnail store
+     */
+    public int getThumbnailCapacity() {
+        return this.thumbnailCapacity;
+    }
+
+    /**
+     * Directory of persistent caches, such as the thumbnail store
+     */
+    public Path getCacheDirectory() {
+        return this.cacheDirectory;
+    }
+
+    /**
+     * Whether the slideshow is playing from the start
+     */
+    public boolean isSlideshowPlaying() {
+        return this.slideshowPlaying;
+    }
+
+    /**
+     * Time each image is shown for in the slideshow
+     */
+    public int getSlideshowIntervalMillis() {
+        return this.slideshowIntervalMillis;
+    }
+
+    /**
+     * What the slideshow does when the next image is not decoded yet at its deadline
+     */
+    public SlideshowPolicy getSlideshowPolicy() {
+        return this.slideshowPolicy;
+    }
+
+    /**
+     * Whether metrics are exposed through JMX
+     */
+    public boolean isExportingMetrics() {
+        return this.exportingMetrics;
+    }
+
+    /**
+     * Period of printing all metrics to the standard output, zero meaning they are never printed
+     */
+    public int getMetricsLogPeriodSeconds() {
+        return this.metricsLogPeriodSeconds;
+    }
+
+    /**
+     * Whether later launches hand their path over to the running instance instead of opening a window
+     */
+    public boolean isSingleInstance() {
+        return this.singleInstance;
+    }
+}
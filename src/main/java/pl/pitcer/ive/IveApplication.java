@@ -24,19 +24,93 @@
 
 package pl.pitcer.ive;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.stage.Stage;
+import org.jetbrains.annotations.Nullable;
+import pl.pitcer.ive.concurrent.DaemonThreadFactory;
+import pl.pitcer.ive.instance.InstanceClient;
+import pl.pitcer.ive.instance.InstanceServer;
 import pl.pitcer.ive.window.IveWindow;
 
 /**
- * Implementation of {@link Application} class
+ * Implementation of {@link Application} class. The first argument, if any, is the image to show or the
+ * directory to browse, and the working directory is browsed otherwise.
+ *
+ * <p>In single-instance mode, later launches hand their path over to the running instance, which shows
+ * it in its window.
  */
 public class IveApplication extends Application {
 
+    private static final String INSTANCE_FILE_NAME = "instance";
+
+    @Nullable
+    private InstanceServer instanceServer;
+
+    /**
+     * Hands the path given in the arguments over to the running instance, if single-instance mode is
+     * enabled and one is running
+     *
+     * @return whether the running instance received the path, so this launch should exit
+     */
+    public static boolean forwardToRunningInstance(final String[] arguments) {
+        var configuration = Configuration.fromSystemProperties();
+        if (!configuration.isSingleInstance()) {
+            return false;
+        }
+        var instanceFile = configuration.getCacheDirectory().resolve(INSTANCE_FILE_NAME);
+        var openedPath = getOpenedPath(List.of(arguments));
+        return InstanceClient.forward(instanceFile, List.of(openedPath));
+    }
+
     @Override
     public void start(final Stage primaryStage) {
-        var stage = new IveWindow(primaryStage);
+        var configuration = Configuration.fromSystemProperties();
+        var openedPath = getOpenedPath(getParameters().getUnnamed());
+        IveWindow stage;
+        if (Files.isDirectory(openedPath)) {
+            stage = new IveWindow(primaryStage, configuration, openedPath);
+        } else {
+            stage = new IveWindow(primaryStage, configuration, openedPath.getParent(), openedPath);
+        }
         stage.initialize();
         stage.show();
+        if (configuration.isSingleInstance()) {
+            startInstanceServer(configuration, stage);
+        }
+    }
+
+    /**
+     * Returns the absolute path given as the first argument, or the working directory when there is none
+     */
+    private static Path getOpenedPath(final List<String> arguments) {
+        var path = arguments.isEmpty() ? Path.of(System.getProperty("user.dir")) : Path.of(arguments.get(0));
+        return path.toAbsolutePath().normalize();
+    }
+
+    private void startInstanceServer(final Configuration configuration, final IveWindow stage) {
+        var instanceFile = configuration.getCacheDirectory().resolve(INSTANCE_FILE_NAME);
+        var threadFactory = new DaemonThreadFactory("ive-instance-server");
+        try {
+            this.instanceServer = InstanceServer.start(instanceFile, threadFactory, paths -> Platform.runLater(() -> paths.forEach(stage::open)));
+        } catch (final IOException exception) {
+            exception.printStackTrace();
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (this.instanceServer == null) {
+            return;
+        }
+        try {
+            this.instanceServer.close();
+        } catch (final IOException exception) {
+            exception.printStackTrace();
+        }
     }
 }
@@ -0,0 +1,85 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.cache;
+
+/**
+ * Snapshot of {@link LruCache} counters
+ */
+public final class CacheStatistics {
+
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final int size;
+    private final long weight;
+    private final long maximumWeight;
+
+    public CacheStatistics(final long hitCount, final long missCount, final long evictionCount, final int size, final long weight, final long maximumWeight) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.size = size;
+        this.weight = weight;
+        this.maximumWeight = maximumWeight;
+    }
+
+    public long getHitCount() {
+        return this.hitCount;
+    }
+
+    public long getMissCount() {
+        return this.missCount;
+    }
+
+    public long getEvictionCount() {
+        return this.evictionCount;
+    }
+
+    public double getHitRate() {
+        var requestCount = this.hitCount + this.missCount;
+        return requestCount == 0 ? 0 : (double) this.hitCount / requestCount;
+    }
+
+    public int getSize() {
+        return this.size;
+    }
+
+    public long getWeight() {
+        return this.weight;
+    }
+
+    public long getMaximumWeight() {
+        return this.maximumWeight;
+    }
+
+    @Override
+    public String toString() {
+        return "hits=" + this.hitCount
+            + ", misses=" + this.missCount
+            + ", evictions=" + this.evictionCount
+            + ", size=" + this.size
+            + ", weight=" + this.weight + '/' + this.maximumWeight;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.cache;
+
+import java.util.LinkedHashMap;
+import java.util.function.ToLongFunction;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Thread-safe cache bounded by the total weight of its values, evicting the least recently used ones first
+ *
+ * @param <K> type of keys
+ * @param <V> type of cached values
+ */
+public final class LruCache<K, V> {
+
+    private final long maximumWeight;
+    private final ToLongFunction<? super V> weigher;
+    private final LinkedHashMap<K, V> entries;
+    private long weight;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    public LruCache(final long maximumWeight, final ToLongFunction<? super V> weigher) {
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    @Nullable
+    public synchronized V get(final K key) {
+        var value = this.entries.get(key);
+        if (value == null) {
+            this.missCount++;
+        } else {
+            this.hitCount++;
+        }
+        return value;
+    }
+
+    /**
+     * Stores the value and evicts the least recently used values until the cache fits in its maximum
+     * weight. Values heavier than the maximum weight are not stored at all.
+     */
+    public synchronized void put(final K key, final V value) {
+        var valueWeight = this.weigher.applyAsLong(value);
+        if (valueWeight > this.maximumWeight) {
+            return;
+        }
+        var previousValue = this.entries.put(key, value);
+        if (previousValue != null) {
+            this.weight -= this.weigher.applyAsLong(previousValue);
+        }
+        this.weight += valueWeight;
+        evictToMaximumWeight();
+    }
+
+    public synchronized void invalidate(final K key) {
+        var value = this.entries.remove(key);
+        if (value != null) {
+            this.weight -= this.weigher.applyAsLong(value);
+        }
+    }
+
+    public synchronized void clear() {
+        this.entries.clear();
+        this.weight = 0;
+    }
+
+    public synchronized CacheStatistics getStatistics() {
+        var size = this.entries.size();
+        return new CacheStatistics(this.hitCount, this.missCount, this.evictionCount, size, this.weight, this.maximumWeight);
+    }
+
+    private void evictToMaximumWeight() {
+        var iterator = this.entries.values().iterator();
+        while (this.weight > this.maximumWeight && iterator.hasNext()) {
+            var value = iterator.next();
+            iterator.remove();
+            this.weight -= this.weigher.applyAsLong(value);
+            this.evictionCount++;
+        }
+    }
+}
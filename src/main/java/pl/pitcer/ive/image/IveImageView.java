@@ -24,78 +24,652 @@
 
 package pl.pitcer.ive.image;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javafx.application.Platform;
 import javafx.geometry.Rectangle2D;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
-import pl.pitcer.ive.image.cursor.Cursor;
-import pl.pitcer.ive.image.cursor.cyclic.CyclicCursor;
+import javafx.stage.Screen;
+import org.jetbrains.annotations.Nullable;
+import pl.pitcer.ive.image.cursor.RandomAccessCursor;
+import pl.pitcer.ive.image.cursor.array.ArrayCursor;
+import pl.pitcer.ive.image.decoder.DecodedImage;
+import pl.pitcer.ive.image.index.DirectoryIndexer;
+import pl.pitcer.ive.image.loader.DirectoryChanges;
+import pl.pitcer.ive.image.loader.FileEntry;
 import pl.pitcer.ive.image.loader.ImageLoader;
 import pl.pitcer.ive.image.loader.Reloadable;
+import pl.pitcer.ive.image.loader.SortOrder;
+import pl.pitcer.ive.image.loader.SortOrderable;
+import pl.pitcer.ive.image.prefetch.ImagePrefetcher;
+import pl.pitcer.ive.image.slideshow.SlideshowDisplay;
+import pl.pitcer.ive.image.tile.TileLayer;
+import pl.pitcer.ive.image.tile.TilePyramid;
+import pl.pitcer.ive.metrics.LatencyHistogram;
+import pl.pitcer.ive.metrics.MetricsRegistry;
 import pl.pitcer.ive.window.Resizable;
 import pl.pitcer.ive.window.Titled;
 
 /**
  * Decorator for {@link ImageView} class
  */
-public final class IveImageView extends ImageView implements ImageDisplay, Reloadable, Viewportable {
+public final class IveImageView extends ImageView implements SlideshowDisplay, BrowsableImages, Reloadable, SortOrderable, Viewportable {
+
+    private static final double MAGNIFICATION_TOLERANCE = 1.01;
+    private static final int NOT_FOUND_INDEX = -1;
 
     private final ImageLoader imageLoader;
+    @Nullable
+    private final DirectoryIndexer directoryIndexer;
+    private final ImagePrefetcher imagePrefetcher;
+    private final TileLayer tileLayer;
     private final Titled titledWindow;
     private final Resizable resizableWindow;
-    private Cursor<File> imagesCursor;
+    private final boolean downsampling;
+    private final LatencyHistogram nextImageLatency;
+    private final LatencyHistogram previousImageLatency;
+    private final LatencyHistogram scanDuration;
+    private volatile int scannedImageCount;
+    private RandomAccessCursor<FileEntry> imagesCursor;
+    @Nullable
+    private ThreadFactory scannerThreadFactory;
+    private int scanGeneration;
+    private boolean scanning;
+    @Nullable
+    private CompletableFuture<DecodedImage> pendingImage;
+    @Nullable
+    private CompletableFuture<Image> pendingPreview;
+    @Nullable
+    private FileEntry shownFile;
+    @Nullable
+    private CompletableFuture<DecodedImage> pendingFullResolutionImage;
+    @Nullable
+    private Runnable onImagesChanged;
+    @Nullable
+    private LatencyHistogram navigationLatency;
+    private long navigationStartTime;
 
-    public IveImageView(final ImageLoader imageLoader, final Titled titledWindow, final Resizable resizableWindow) {
+    /**
+     * @param directoryIndexer indexer scans go through, or null when directories are always listed
+     * @param downsampling whether images should be decoded at most at the size they are displayed with,
+     * and at full resolution only after zooming in past it
+     * @param metrics registry navigation latencies and scan durations are recorded in
+     */
+    public IveImageView(final ImageLoader imageLoader, @Nullable final DirectoryIndexer directoryIndexer, final ImagePrefetcher imagePrefetcher, final TileLayer tileLayer, final Titled titledWindow, final Resizable resizableWindow, final boolean downsampling, final MetricsRegistry metrics) {
         this.imageLoader = imageLoader;
+        this.directoryIndexer = directoryIndexer;
+        this.imagePrefetcher = imagePrefetcher;
+        this.tileLayer = tileLayer;
         this.titledWindow = titledWindow;
         this.resizableWindow = resizableWindow;
+        this.downsampling = downsampling;
+        this.nextImageLatency = metrics.histogram("navigation.next");
+        this.previousImageLatency = metrics.histogram("navigation.previous");
+        this.scanDuration = metrics.histogram("scan");
+        metrics.gauge("scan.files", () -> this.scannedImageCount);
+        this.imagesCursor = new ArrayCursor<>(List.of());
         setPreserveRatio(true);
         setSmooth(true);
+        viewportProperty().addListener(observable -> tileLayer.setViewport(getViewport()));
+        if (downsampling) {
+            viewportProperty().addListener(observable -> fetchFullResolutionIfNeeded());
+            fitWidthProperty().addListener(observable -> fetchFullResolutionIfNeeded());
+            fitHeightProperty().addListener(observable -> fetchFullResolutionIfNeeded());
+        }
+    }
+
+    /**
+     * Lists the directory on a background thread. Images are merged into the sorted images in batches as
+     * they are found, the first one is shown as soon as it is found, and the scan progress is shown in the
+     * window title. An up-to-date index of the directory is used instead of listing it.
+     */
+    public void scanImages(final ThreadFactory threadFactory) {
+        this.scannerThreadFactory = threadFactory;
+        startScan(false);
+    }
+
+    /**
+     * @param replacing whether images that were loaded before and are not found by the scan are removed
+     * once it finishes
+     */
+    private void startScan(final boolean replacing) {
+        var scanGeneration = ++this.scanGeneration;
+        this.scanning = true;
+        updateTitle();
+        var scanner = this.scannerThreadFactory.newThread(() -> {
+            var startTime = System.nanoTime();
+            var imageCount = new AtomicInteger();
+            Set<Path> foundPaths = new HashSet<>();
+            var completed = false;
+            try {
+                Consumer<List<FileEntry>> batchConsumer = images -> {
+                    imageCount.addAndGet(images.size());
+                    if (replacing) {
+                        images.forEach(image -> foundPaths.add(image.getPath()));
+                    }
+                    Platform.runLater(() -> applyScannedImages(scanGeneration, images));
+                };
+                if (this.directoryIndexer == null) {
+                    this.imageLoader.scanImages(batchConsumer);
+                } else {
+                    this.directoryIndexer.scanImages(this.imageLoader, batchConsumer);
+                }
+                completed = true;
+            } catch (final UncheckedIOException exception) {
+                exception.printStackTrace();
+            } finally {
+                this.scanDuration.record(System.nanoTime() - startTime);
+                this.scannedImageCount = imageCount.get();
+                var keptPaths = replacing && completed ? foundPaths : null;
+                Platform.runLater(() -> finishScan(scanGeneration, keptPaths));
+            }
+        });
+        scanner.start();
+    }
+
+    /**
+     * Shows the file right away, without waiting for the directory to be scanned. Images found by the scan
+     * are merged around it, so the cursor stays on it once they are sorted.
+     */
+    public void showFile(final Path file) {
+        var image = this.imageLoader.loadImage(file);
+        if (image == null) {
+            return;
+        }
+        replaceImages(List.of(image));
+        this.imagesCursor.moveTo(0);
+        showCurrentImage();
+    }
+
+    /**
+     * Shows the file, or the first image found when it is null, switching to the directory and scanning
+     * it when it is not the one already shown. Decoded images stay cached across directories.
+     */
+    public void openDirectory(final Path directory, @Nullable final Path file, final ThreadFactory threadFactory) {
+        if (directory.equals(this.imageLoader.getDirectory())) {
+            if (file != null) {
+                showFileOfDirectory(file);
+            }
+            return;
+        }
+        this.imageLoader.setDirectory(directory);
+        this.imagePrefetcher.clear();
+        replaceImages(List.of());
+        this.pendingImage = null;
+        cancelFullResolutionImage();
+        this.tileLayer.hide();
+        this.shownFile = null;
+        setImage(null);
+        if (file != null) {
+            showFile(file);
+        }
+        scanImages(threadFactory);
+    }
+
+    /**
+     * Shows the file of the current directory, merging it into the images if it was not found yet
+     */
+    private void showFileOfDirectory(final Path file) {
+        var images = this.imagesCursor.toList();
+        var index = indexOf(images, file);
+        if (index == NOT_FOUND_INDEX) {
+            var image = this.imageLoader.loadImage(file);
+            if (image == null) {
+                return;
+            }
+            images = this.imageLoader.mergeImages(images, List.of(image));
+            replaceImages(images);
+            index = indexOf(images, file);
+        }
+        showImageAt(index);
     }
 
-    public void loadImages() {
-        var images = this.imageLoader.loadImages();
-        this.imagesCursor = new CyclicCursor<>(images);
+    private static int indexOf(final List<FileEntry> images, final Path path) {
+        return IntStream.range(0, images.size())
+            .filter(imageIndex -> images.get(imageIndex).getPath().equals(path))
+            .findFirst()
+            .orElse(NOT_FOUND_INDEX);
+    }
+
+    private void applyScannedImages(final int scanGeneration, final List<FileEntry> images) {
+        if (scanGeneration != this.scanGeneration) {
+            return;
+        }
+        var paths = images.stream()
+            .map(FileEntry::getPath)
+            .collect(Collectors.toUnmodifiableList());
+        var changes = DirectoryChanges.of(paths, images);
+        applyChanges(changes);
+        updateTitle();
+    }
+
+    /**
+     * @param foundPaths paths of all images found by the scan, when images not found by it are removed
+     */
+    private void finishScan(final int scanGeneration, @Nullable final Set<Path> foundPaths) {
+        if (scanGeneration != this.scanGeneration) {
+            return;
+        }
+        this.scanning = false;
+        if (foundPaths != null) {
+            var images = this.imagesCursor.toList();
+            var foundImages = images.stream()
+                .filter(image -> foundPaths.contains(image.getPath()))
+                .collect(Collectors.toUnmodifiableList());
+            if (foundImages.size() != images.size()) {
+                replaceImages(foundImages);
+            }
+        }
+        updateTitle();
     }
 
     @Override
     public void showNextImage() {
+        startNavigation(this.nextImageLatency);
         this.imagesCursor.moveNext();
-        var file = this.imagesCursor.getCurrentValue();
-        setImage(file);
+        showCurrentImage();
     }
 
     @Override
     public void showPreviousImage() {
+        startNavigation(this.previousImageLatency);
         this.imagesCursor.movePrevious();
-        var file = this.imagesCursor.getCurrentValue();
-        setImage(file);
+        showCurrentImage();
+    }
+
+    /**
+     * Starts measuring the time until the image navigated to is shown. A navigation overtaken by a newer
+     * one is measured from the newer one.
+     */
+    private void startNavigation(final LatencyHistogram navigationLatency) {
+        this.navigationLatency = navigationLatency;
+        this.navigationStartTime = System.nanoTime();
     }
 
+    private void finishNavigation() {
+        if (this.navigationLatency != null) {
+            this.navigationLatency.record(System.nanoTime() - this.navigationStartTime);
+            this.navigationLatency = null;
+        }
+    }
+
+    /**
+     * Whether the image after the current one can be shown without waiting for its decoding, that is
+     * whether the prefetcher holds its finished decoding
+     */
+    @Override
+    public boolean isNextImageReady() {
+        var size = this.imagesCursor.getSize();
+        if (size == 0) {
+            return false;
+        }
+        var nextIndex = (this.imagesCursor.getIndex() + 1) % size;
+        var nextFile = this.imagesCursor.getValue(nextIndex);
+        return this.imagePrefetcher.isDecoded(nextFile);
+    }
+
+    /**
+     * Moves the cursor past the next image, keeping the current one on screen, and prefetches the images
+     * around the new position
+     */
+    @Override
+    public void skipNextImage() {
+        if (this.imagesCursor.getSize() == 0) {
+            return;
+        }
+        this.imagesCursor.moveNext();
+        this.pendingImage = null;
+        fetchCurrentImage();
+    }
+
+    @Override
+    public List<FileEntry> getImages() {
+        return this.imagesCursor.toList();
+    }
+
+    @Override
+    public int getCurrentImageIndex() {
+        return this.imagesCursor.getIndex();
+    }
+
+    @Override
+    public void showImageAt(final int index) {
+        this.imagesCursor.moveTo(index);
+        showCurrentImage();
+    }
+
+    @Override
+    public void setOnImagesChanged(@Nullable final Runnable onImagesChanged) {
+        this.onImagesChanged = onImagesChanged;
+    }
+
+    /**
+     * Scans the directory again on a background thread, keeping the cursor at the current image. Found
+     * images are merged in batches like during the first scan, so changed ones replace their previous
+     * versions, and images that are gone are removed once the scan finishes.
+     */
     @Override
     public void reload() {
-        loadImages();
+        if (this.scannerThreadFactory != null) {
+            startScan(true);
+        }
     }
 
-    private void setImage(final File file) {
-        try (var imageInputStream = new FileInputStream(file)) {
-            var image = new Image(imageInputStream);
-            setImage(image);
-            var imageName = file.getName();
-            this.titledWindow.setTitleSuffix(" - " + imageName);
-            resizeWindow(image);
-            var viewport = toRectangle(image);
-            setViewport(viewport);
-        } catch (final IOException exception) {
-            exception.printStackTrace();
+    /**
+     * Applies changes of the directory incrementally: changed images are removed and their current versions
+     * are merged into the sorted images, keeping the cursor at the current image
+     */
+    public void applyChanges(final DirectoryChanges changes) {
+        if (changes.isRescanRequired()) {
+            reload();
+            return;
+        }
+        var changedPaths = changes.getChangedPaths();
+        var keptImages = this.imagesCursor.toList().stream()
+            .filter(image -> !changedPaths.contains(image.getPath()))
+            .collect(Collectors.toUnmodifiableList());
+        var images = this.imageLoader.mergeImages(keptImages, changes.getUpdatedImages());
+        replaceImages(images);
+        if (getImage() == null && this.pendingImage == null) {
+            showFirstImage();
         }
     }
 
-    private void resizeWindow(final Image image) {
-        double width = image.getWidth();
-        double height = image.getHeight();
+    /**
+     * Shows the image under the cursor, or the first one when the cursor was not moved yet. It is not
+     * measured as a navigation, as the user did not ask for it.
+     */
+    private void showFirstImage() {
+        if (this.imagesCursor.getSize() == 0) {
+            return;
+        }
+        if (this.imagesCursor.getIndex() < 0) {
+            this.imagesCursor.moveTo(0);
+        }
+        showCurrentImage();
+    }
+
+    @Override
+    public SortOrder getSortOrder() {
+        return this.imageLoader.getSortOrder();
+    }
+
+    /**
+     * Re-sorts the already loaded images, keeping the cursor at the current image
+     */
+    @Override
+    public void setSortOrder(final SortOrder sortOrder) {
+        this.imageLoader.setSortOrder(sortOrder);
+        var images = this.imageLoader.sortImages(this.imagesCursor.toList());
+        this.imagePrefetcher.clear();
+        replaceImages(images);
+    }
+
+    /**
+     * Replaces the loaded images, keeping the cursor at the current image. When the current image is gone,
+     * the cursor stays at its index and the image found there is shown. When it was modified, it is shown
+     * again.
+     */
+    private void replaceImages(final List<FileEntry> images) {
+        var index = this.imagesCursor.getIndex();
+        var currentImage = index >= 0 ? this.imagesCursor.getCurrentValue() : null;
+        this.imagesCursor = new ArrayCursor<>(images);
+        if (this.onImagesChanged != null) {
+            this.onImagesChanged.run();
+        }
+        if (currentImage == null || images.isEmpty()) {
+            return;
+        }
+        var newIndex = indexOf(images, currentImage.getPath());
+        if (newIndex == NOT_FOUND_INDEX) {
+            this.imagesCursor.moveTo(Math.min(index, images.size() - 1));
+            showCurrentImage();
+        } else {
+            this.imagesCursor.moveTo(newIndex);
+            if (!images.get(newIndex).equals(currentImage)) {
+                showCurrentImage();
+            }
+        }
+    }
+
+    /**
+     * Shows the image under the cursor once it is decoded in the background. The currently shown image
+     * stays on screen until then, and a decoding overtaken by a newer one is never shown. Decodings that
+     * fell out of the prefetch window are cancelled by the prefetcher.
+     *
+     * <p>When the directory index already knows dimensions of the image, the window is resized before
+     * the decoding finishes. The preview embedded in the image, if it has one, is decoded in the background
+     * as well, and shown when it is ready before the image. An image that is already decoded is shown
+     * right away.
+     */
+    private void showCurrentImage() {
+        if (this.imagesCursor.getSize() == 0) {
+            return;
+        }
+        var file = this.imagesCursor.getCurrentValue();
+        cancelPreview();
+        var pendingImage = fetchCurrentImage();
+        if (pendingImage.isDone() && !pendingImage.isCompletedExceptionally()) {
+            this.pendingImage = null;
+            showImage(file, pendingImage.join());
+            return;
+        }
+        this.pendingImage = pendingImage;
+        if (!pendingImage.isDone()) {
+            resizeWindowAhead(file);
+            fetchPreview(file, pendingImage);
+        }
+        pendingImage.whenCompleteAsync((decodedImage, exception) -> {
+            if (this.pendingImage != pendingImage) {
+                return;
+            }
+            this.pendingImage = null;
+            if (exception == null) {
+                showImage(file, decodedImage);
+            } else {
+                printFailure(exception);
+            }
+        }, Platform::runLater);
+    }
+
+    /**
+     * Fetches the image under the cursor, downsampled to the size it is displayed at once the window is
+     * resized to fit it. The decoder leaves images already fitting in that size at full resolution.
+     */
+    private CompletableFuture<DecodedImage> fetchCurrentImage() {
+        if (!this.downsampling) {
+            return this.imagePrefetcher.fetch(this.imagesCursor);
+        }
+        return this.imagePrefetcher.fetch(this.imagesCursor, getRequestedWidth(), getRequestedHeight());
+    }
+
+    private double getRequestedWidth() {
+        return Math.max(getDisplayedWidth(), this.resizableWindow.getMaximumWidth());
+    }
+
+    private double getRequestedHeight() {
+        return Math.max(getDisplayedHeight(), this.resizableWindow.getMaximumHeight());
+    }
+
+    /**
+     * Resizes the window to the size the image will be shown at, using its dimensions from the directory
+     * index. Nothing is read from the file, and images shown as a tile pyramid overview are left alone.
+     */
+    private void resizeWindowAhead(final FileEntry file) {
+        var metadata = this.directoryIndexer == null ? null : this.directoryIndexer.getMetadata(file);
+        var dimensions = metadata == null ? null : metadata.getDimensions();
+        if (dimensions == null || TilePyramid.isTilingRequired(dimensions)) {
+            return;
+        }
+        double width = dimensions.getWidth();
+        double height = dimensions.getHeight();
+        var scale = this.downsampling ? Math.min(1, Math.min(getRequestedWidth() / width, getRequestedHeight() / height)) : 1;
+        resizeWindow(width * scale, height * scale);
+    }
+
+    /**
+     * Shows the preview embedded in the file once it is decoded, unless decoding of the image finished
+     * first or was overtaken by a newer one
+     */
+    private void fetchPreview(final FileEntry file, final CompletableFuture<DecodedImage> pendingImage) {
+        var pendingPreview = this.imagePrefetcher.fetchPreview(file);
+        this.pendingPreview = pendingPreview;
+        pendingPreview.whenCompleteAsync((preview, exception) -> {
+            if (this.pendingPreview != pendingPreview) {
+                return;
+            }
+            this.pendingPreview = null;
+            if (exception != null) {
+                printFailure(exception);
+            } else if (preview != null && this.pendingImage == pendingImage && !pendingImage.isDone()) {
+                showPreview(file, preview);
+            }
+        }, Platform::runLater);
+    }
+
+    private void cancelPreview() {
+        if (this.pendingPreview != null) {
+            this.pendingPreview.cancel(false);
+            this.pendingPreview = null;
+        }
+    }
+
+    private void showPreview(final FileEntry file, final Image preview) {
+        cancelFullResolutionImage();
+        this.tileLayer.hide();
+        this.shownFile = file;
+        setImage(preview);
+        updateTitle();
+        setViewport(toRectangle(preview));
+    }
+
+    private double getDisplayedWidth() {
+        var fitWidth = getFitWidth();
+        return fitWidth > 0 ? fitWidth : getScreenBounds().getWidth();
+    }
+
+    private double getDisplayedHeight() {
+        var fitHeight = getFitHeight();
+        return fitHeight > 0 ? fitHeight : getScreenBounds().getHeight();
+    }
+
+    private static Rectangle2D getScreenBounds() {
+        var screen = Screen.getPrimary();
+        return screen.getVisualBounds();
+    }
+
+    private static void printFailure(final Throwable exception) {
+        if (!(exception instanceof CancellationException)) {
+            var cause = exception instanceof CompletionException ? exception.getCause() : exception;
+            cause.printStackTrace();
+        }
+    }
+
+    /**
+     * Shows the decoded image, and sharp tiles over it when it is only the overview of an image too large
+     * to be decoded whole
+     */
+    private void showImage(final FileEntry file, final DecodedImage decodedImage) {
+        var image = decodedImage.getImage();
+        var dimensions = decodedImage.getDimensions();
+        cancelPreview();
+        cancelFullResolutionImage();
+        this.shownFile = file;
+        setImage(image);
+        if (dimensions == null) {
+            this.tileLayer.hide();
+        } else {
+            this.tileLayer.show(file, dimensions, image);
+        }
+        updateTitle();
+        resizeWindow(image.getWidth(), image.getHeight());
+        var viewport = toRectangle(image);
+        setViewport(viewport);
+        finishNavigation();
+    }
+
+    private void cancelFullResolutionImage() {
+        if (this.pendingFullResolutionImage != null) {
+            this.pendingFullResolutionImage.cancel(false);
+            this.pendingFullResolutionImage = null;
+        }
+    }
+
+    private void updateTitle() {
+        var titleSuffix = new StringBuilder();
+        if (this.shownFile != null) {
+            titleSuffix.append(" - ").append(this.shownFile.getName());
+        }
+        if (this.scanning) {
+            var imagesCount = this.imagesCursor.getSize();
+            titleSuffix.append(" (scanning, ").append(imagesCount).append(" images found)");
+        }
+        this.titledWindow.setTitleSuffix(titleSuffix.toString());
+    }
+
+    /**
+     * Starts decoding of the shown image at full resolution when it is downsampled and the viewport
+     * is zoomed in so far that its pixels would be magnified
+     */
+    private void fetchFullResolutionIfNeeded() {
+        var image = getImage();
+        var viewport = getViewport();
+        if (image == null || viewport == null || !isDownsampled(image) || this.pendingFullResolutionImage != null) {
+            return;
+        }
+        var scale = Math.min(getFitWidth() / viewport.getWidth(), getFitHeight() / viewport.getHeight());
+        if (!(scale > MAGNIFICATION_TOLERANCE)) {
+            return;
+        }
+        var downsampledImage = image;
+        var pendingFullResolutionImage = this.imagePrefetcher.fetchFullResolution(this.shownFile);
+        this.pendingFullResolutionImage = pendingFullResolutionImage;
+        pendingFullResolutionImage.whenCompleteAsync((fullResolutionImage, exception) -> {
+            if (this.pendingFullResolutionImage != pendingFullResolutionImage) {
+                return;
+            }
+            this.pendingFullResolutionImage = null;
+            if (exception == null) {
+                swapImage(downsampledImage, fullResolutionImage.getImage());
+            } else {
+                printFailure(exception);
+            }
+        }, Platform::runLater);
+    }
+
+    private static boolean isDownsampled(final Image image) {
+        return image.getRequestedWidth() > 0 || image.getRequestedHeight() > 0;
+    }
+
+    /**
+     * Replaces the shown image with the same one at a different resolution, scaling the viewport so that
+     * the same part of the image stays visible
+     */
+    private void swapImage(final Image previousImage, final Image image) {
+        var widthScalar = image.getWidth() / previousImage.getWidth();
+        var heightScalar = image.getHeight() / previousImage.getHeight();
+        var previousViewport = getViewport();
+        setImage(image);
+        var x = previousViewport.getMinX() * widthScalar;
+        var y = previousViewport.getMinY() * heightScalar;
+        var width = previousViewport.getWidth() * widthScalar;
+        var height = previousViewport.getHeight() * heightScalar;
+        setViewport(new Rectangle2D(x, y, width, height));
+    }
+
+    private void resizeWindow(final double width, final double height) {
         this.resizableWindow.setMinimumWidth(width);
         this.resizableWindow.setMinimumHeight(height);
         this.resizableWindow.center();
@@ -0,0 +1,70 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.cache;
+
+import javafx.scene.image.Image;
+import org.jetbrains.annotations.Nullable;
+import pl.pitcer.ive.cache.CacheStatistics;
+import pl.pitcer.ive.cache.LruCache;
+import pl.pitcer.ive.image.decoder.DecodedImage;
+import pl.pitcer.ive.image.loader.FileEntry;
+
+/**
+ * Cache of decoded images bounded by the estimated memory used by their pixels. Images are keyed by
+ * {@link FileEntry}, so a changed file never hits a stale image.
+ */
+public final class ImageCache {
+
+    private static final int BYTES_PER_PIXEL = 4;
+
+    private final LruCache<FileEntry, DecodedImage> cache;
+
+    public ImageCache(final long maximumBytes) {
+        this.cache = new LruCache<>(maximumBytes, decodedImage -> estimateBytes(decodedImage.getImage()));
+    }
+
+    public static long estimateBytes(final Image image) {
+        var width = (long) image.getWidth();
+        var height = (long) image.getHeight();
+        return width * height * BYTES_PER_PIXEL;
+    }
+
+    @Nullable
+    public DecodedImage get(final FileEntry key) {
+        return this.cache.get(key);
+    }
+
+    public void put(final FileEntry key, final DecodedImage image) {
+        this.cache.put(key, image);
+    }
+
+    public void clear() {
+        this.cache.clear();
+    }
+
+    public CacheStatistics getStatistics() {
+        return this.cache.getStatistics();
+    }
+}
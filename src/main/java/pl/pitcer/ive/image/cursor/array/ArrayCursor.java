@@ -0,0 +1,163 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.cursor.array;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import pl.pitcer.ive.image.cursor.MutableCursor;
+import pl.pitcer.ive.image.cursor.RandomAccessCursor;
+
+/**
+ * Implementation of {@link MutableCursor} that allows cyclic movement over a tape stored in an array
+ *
+ * @param <T> type of values stored in a cursor tape
+ */
+public final class ArrayCursor<T> implements MutableCursor<T>, RandomAccessCursor<T> {
+
+    private static final int RESET_INDEX = -1;
+
+    private final Object[] values;
+    private int currentIndex;
+    private int size;
+
+    public ArrayCursor(final Collection<? extends T> values) {
+        this(values, RESET_INDEX);
+    }
+
+    public ArrayCursor(final Collection<? extends T> values, final int startingIndex) {
+        this.values = values.toArray();
+        this.size = this.values.length;
+        if (startingIndex != RESET_INDEX) {
+            Objects.checkIndex(startingIndex, this.size);
+        }
+        this.currentIndex = startingIndex;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return this.currentIndex < this.size - 1;
+    }
+
+    @Override
+    public void moveNext() {
+        if (this.size != 0) {
+            this.currentIndex = (this.currentIndex + 1) % this.size;
+        }
+    }
+
+    @Override
+    public boolean hasPrevious() {
+        return isReset() ? this.size != 0 : this.currentIndex > 0;
+    }
+
+    @Override
+    public void movePrevious() {
+        if (this.size != 0) {
+            this.currentIndex = isReset() ? this.size - 1 : Math.floorMod(this.currentIndex - 1, this.size);
+        }
+    }
+
+    @Override
+    public T getCurrentValue() {
+        if (isReset()) {
+            throw new NoSuchElementException("Cursor at the reset point has no value");
+        }
+        return elementAt(this.currentIndex);
+    }
+
+    @Override
+    public T getValue(final int index) {
+        Objects.checkIndex(index, this.size);
+        return elementAt(index);
+    }
+
+    @Override
+    public void moveTo(final int index) {
+        Objects.checkIndex(index, this.size);
+        this.currentIndex = index;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<T> toList() {
+        var values = (T[]) Arrays.copyOf(this.values, this.size);
+        return Collections.unmodifiableList(Arrays.asList(values));
+    }
+
+    @Override
+    public int getIndex() {
+        return this.currentIndex;
+    }
+
+    @Override
+    public int getSize() {
+        return this.size;
+    }
+
+    @Override
+    public void reset() {
+        this.currentIndex = RESET_INDEX;
+    }
+
+    @Override
+    public void set(final T value) {
+        if (!isReset()) {
+            this.values[this.currentIndex] = value;
+        }
+    }
+
+    /**
+     * Removes the current value. The cursor then points at the value that followed it, or at the first
+     * value if the last one was removed, or at the reset point if no values are left.
+     */
+    @Override
+    public void remove() {
+        if (isReset()) {
+            return;
+        }
+        var movedCount = this.size - this.currentIndex - 1;
+        System.arraycopy(this.values, this.currentIndex + 1, this.values, this.currentIndex, movedCount);
+        this.size--;
+        this.values[this.size] = null;
+        if (this.size == 0) {
+            this.currentIndex = RESET_INDEX;
+        } else if (this.currentIndex == this.size) {
+            this.currentIndex = 0;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T elementAt(final int index) {
+        return (T) this.values[index];
+    }
+
+    private boolean isReset() {
+        return this.currentIndex == RESET_INDEX;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.decoder;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Input stream reading the remaining bytes of a buffer, without copying them up front
+ */
+public final class ByteBufferInputStream extends InputStream {
+
+    private final ByteBuffer buffer;
+    private int mark;
+
+    public ByteBufferInputStream(final ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.mark = buffer.position();
+    }
+
+    @Override
+    public int read() {
+        return this.buffer.hasRemaining() ? this.buffer.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(final byte[] bytes, final int offset, final int length) {
+        if (length == 0) {
+            return 0;
+        }
+        if (!this.buffer.hasRemaining()) {
+            return -1;
+        }
+        var readCount = Math.min(length, this.buffer.remaining());
+        this.buffer.get(bytes, offset, readCount);
+        return readCount;
+    }
+
+    @Override
+    public long skip(final long count) {
+        var skippedCount = (int) Math.max(0, Math.min(count, this.buffer.remaining()));
+        this.buffer.position(this.buffer.position() + skippedCount);
+        return skippedCount;
+    }
+
+    @Override
+    public int available() {
+        return this.buffer.remaining();
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    @Override
+    public synchronized void mark(final int readLimit) {
+        this.mark = this.buffer.position();
+    }
+
+    @Override
+    public synchronized void reset() {
+        this.buffer.position(this.mark);
+    }
+}
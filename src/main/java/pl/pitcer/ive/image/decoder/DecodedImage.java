@@ -0,0 +1,57 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.decoder;
+
+import javafx.scene.image.Image;
+import org.jetbrains.annotations.Nullable;
+import pl.pitcer.ive.image.probe.ImageDimensions;
+
+/**
+ * Decoded image along with the full resolution dimensions of its file, which are larger than those of
+ * the image when it was downsampled or is the overview of an image too large to be decoded whole
+ */
+public final class DecodedImage {
+
+    private final Image image;
+    @Nullable
+    private final ImageDimensions dimensions;
+
+    public DecodedImage(final Image image, @Nullable final ImageDimensions dimensions) {
+        this.image = image;
+        this.dimensions = dimensions;
+    }
+
+    public Image getImage() {
+        return this.image;
+    }
+
+    /**
+     * Returns full resolution dimensions of the image, or null when they could not be read from its header
+     */
+    @Nullable
+    public ImageDimensions getDimensions() {
+        return this.dimensions;
+    }
+}
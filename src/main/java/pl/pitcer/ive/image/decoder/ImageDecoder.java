@@ -0,0 +1,218 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.decoder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.image.Image;
+import org.jetbrains.annotations.Nullable;
+import pl.pitcer.ive.image.probe.DimensionProbe;
+import pl.pitcer.ive.image.probe.ExifThumbnailExtractor;
+import pl.pitcer.ive.image.probe.ImageDimensions;
+import pl.pitcer.ive.image.tile.TileDecoder;
+import pl.pitcer.ive.image.tile.TilePyramid;
+import pl.pitcer.ive.metrics.MetricsRegistry;
+
+/**
+ * Class responsible for decoding image files outside of the JavaFX application thread
+ */
+public final class ImageDecoder {
+
+    private static final long MEDIUM_PIXELS = 1_000_000;
+    private static final long LARGE_PIXELS = 4_000_000;
+    private static final long HUGE_PIXELS = 16_000_000;
+
+    private final Executor executor;
+    private final Executor previewExecutor;
+    private final boolean mapping;
+    private final MetricsRegistry metrics;
+
+    public ImageDecoder(final Executor executor) {
+        this(executor, executor, false, new MetricsRegistry());
+    }
+
+    /**
+     * @param previewExecutor executor of decodings of embedded previews, separate from the one of images,
+     * so previews are not queued behind the images they stand in for
+     * @param mapping whether files are memory-mapped and decoded from the mapped bytes, instead of read
+     * through a stream
+     * @param metrics registry decoding latencies are recorded in, by format and size of the image
+     */
+    public ImageDecoder(final Executor executor, final Executor previewExecutor, final boolean mapping, final MetricsRegistry metrics) {
+        this.executor = executor;
+        this.previewExecutor = previewExecutor;
+        this.mapping = mapping;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Schedules decoding of the given file. Cancelling the returned future before a worker picks it up
+     * prevents the decoding from ever starting.
+     */
+    public CompletableFuture<DecodedImage> decode(final Path file) {
+        return decode(file, 0, 0);
+    }
+
+    /**
+     * Schedules decoding of the given file scaled down to fit in the requested bounding box, preserving
+     * its ratio. Non-positive requested sizes mean the full resolution. Images fitting in the box, or of
+     * unknown dimensions, are decoded at full resolution rather than scaled up. Images too large to be
+     * decoded whole are decoded at the resolution of their tile pyramid overview instead. Dimensions of
+     * the file are read from its header on the worker, and returned along with the image.
+     */
+    public CompletableFuture<DecodedImage> decode(final Path file, final double requestedWidth, final double requestedHeight) {
+        return CompletableFuture.supplyAsync(() -> decodeNow(file, requestedWidth, requestedHeight), this.executor);
+    }
+
+    /**
+     * Schedules decoding of the preview embedded in the EXIF metadata of the given file. The returned
+     * future completes with null when the file has no preview, or it could not be decoded.
+     */
+    public CompletableFuture<Image> decodePreview(final Path file) {
+        return CompletableFuture.supplyAsync(() -> decodePreviewNow(file), this.previewExecutor);
+    }
+
+    @Nullable
+    private static Image decodePreviewNow(final Path file) {
+        try {
+            var previewBytes = ExifThumbnailExtractor.extract(file);
+            if (previewBytes == null) {
+                return null;
+            }
+            var preview = new Image(new ByteArrayInputStream(previewBytes));
+            return preview.isError() ? null : preview;
+        } catch (final IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private DecodedImage decodeNow(final Path file, final double requestedWidth, final double requestedHeight) {
+        var startTime = System.nanoTime();
+        var dimensions = probeDimensions(file);
+        var image = decodeNow(file, dimensions, requestedWidth, requestedHeight);
+        var pixels = dimensions == null ? (long) image.getWidth() * (long) image.getHeight() : (long) dimensions.getWidth() * dimensions.getHeight();
+        var histogramName = "decode." + getFormatName(file) + '.' + getSizeBucketName(pixels);
+        this.metrics.histogram(histogramName).record(System.nanoTime() - startTime);
+        return new DecodedImage(image, dimensions);
+    }
+
+    private Image decodeNow(final Path file, @Nullable final ImageDimensions dimensions, final double requestedWidth, final double requestedHeight) {
+        if (dimensions != null && TilePyramid.isTilingRequired(dimensions)) {
+            return decodeOverview(file, dimensions);
+        }
+        var downsampling = isDownsamplingRequired(dimensions, requestedWidth, requestedHeight);
+        try (var imageInputStream = openInputStream(file)) {
+            var image = downsampling
+                ? new Image(imageInputStream, requestedWidth, requestedHeight, true, true)
+                : new Image(imageInputStream);
+            if (image.isError()) {
+                throw new CompletionException(image.getException());
+            }
+            return image;
+        } catch (final IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Returns whether an image of the given dimensions has to be scaled down to fit in the requested
+     * bounding box. A non-positive requested size leaves the respective dimension unbounded.
+     */
+    static boolean isDownsamplingRequired(@Nullable final ImageDimensions dimensions, final double requestedWidth, final double requestedHeight) {
+        if (dimensions == null) {
+            return false;
+        }
+        return requestedWidth > 0 && dimensions.getWidth() > requestedWidth || requestedHeight > 0 && dimensions.getHeight() > requestedHeight;
+    }
+
+    private static String getFormatName(final Path file) {
+        var name = file.getFileName().toString();
+        var extensionIndex = name.lastIndexOf('.');
+        var extension = extensionIndex == -1 ? "unknown" : name.substring(extensionIndex + 1);
+        return extension.toLowerCase(Locale.ROOT);
+    }
+
+    private static String getSizeBucketName(final long pixels) {
+        if (pixels < MEDIUM_PIXELS) {
+            return "small";
+        }
+        if (pixels < LARGE_PIXELS) {
+            return "medium";
+        }
+        return pixels < HUGE_PIXELS ? "large" : "huge";
+    }
+
+    @Nullable
+    private static ImageDimensions probeDimensions(final Path file) {
+        try {
+            return DimensionProbe.probe(file);
+        } catch (final IOException exception) {
+            return null;
+        }
+    }
+
+    private static Image decodeOverview(final Path file, final ImageDimensions dimensions) {
+        var overviewLevel = TilePyramid.getOverviewLevel(dimensions, TilePyramid.OVERVIEW_SIZE);
+        var region = new Rectangle2D(0, 0, dimensions.getWidth(), dimensions.getHeight());
+        try {
+            return TileDecoder.decodeRegion(file, region, TilePyramid.getSubsampling(overviewLevel));
+        } catch (final IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Opens the file for decoding. A mapped file is read without any read calls, straight from the page
+     * cache, and its mapping is released once the stream is no longer referenced. Files too large for
+     * a single mapping are read through a stream.
+     */
+    private InputStream openInputStream(final Path file) throws IOException {
+        if (!this.mapping) {
+            return Files.newInputStream(file);
+        }
+        return openMappedInputStream(file);
+    }
+
+    static InputStream openMappedInputStream(final Path file) throws IOException {
+        try (var channel = FileChannel.open(file)) {
+            var size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                return Files.newInputStream(file);
+            }
+            var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return new ByteBufferInputStream(buffer);
+        }
+    }
+}
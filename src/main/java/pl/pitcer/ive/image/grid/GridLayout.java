@@ -0,0 +1,120 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.grid;
+
+/**
+ * Geometry of a grid of square cells filled row by row, scrolled vertically
+ */
+final class GridLayout {
+
+    private static final int NO_INDEX = -1;
+
+    private final int cellCount;
+    private final double cellSize;
+    private final int columnCount;
+
+    GridLayout(final int cellCount, final double width, final double cellSize) {
+        this.cellCount = cellCount;
+        this.cellSize = cellSize;
+        this.columnCount = Math.max(1, (int) (width / cellSize));
+    }
+
+    int getColumnCount() {
+        return this.columnCount;
+    }
+
+    int getRowCount() {
+        return (this.cellCount + this.columnCount - 1) / this.columnCount;
+    }
+
+    double getContentHeight() {
+        return getRowCount() * this.cellSize;
+    }
+
+    /**
+     * Returns the index of the first cell of the topmost row that is at least partially visible
+     */
+    int getFirstVisibleIndex(final double scrollOffset) {
+        var row = Math.max(0, (int) (scrollOffset / this.cellSize));
+        return Math.min(row * this.columnCount, this.cellCount);
+    }
+
+    /**
+     * Returns the maximum number of cells that are at least partially visible at any scroll offset
+     */
+    int getVisibleCellCount(final double height) {
+        var rowCount = (int) Math.ceil(height / this.cellSize) + 1;
+        return rowCount * this.columnCount;
+    }
+
+    double getCellX(final int index) {
+        return index % this.columnCount * this.cellSize;
+    }
+
+    double getCellY(final int index) {
+        return index / this.columnCount * this.cellSize;
+    }
+
+    /**
+     * Returns the index of the cell at the given point of the content, or a negative number when there is none
+     */
+    int getIndexAt(final double x, final double y) {
+        if (x < 0 || y < 0) {
+            return NO_INDEX;
+        }
+        var column = (int) (x / this.cellSize);
+        var row = (int) (y / this.cellSize);
+        if (column >= this.columnCount) {
+            return NO_INDEX;
+        }
+        var index = row * this.columnCount + column;
+        return index < this.cellCount ? index : NO_INDEX;
+    }
+
+    /**
+     * Returns the scroll offset closest to the given one at which the whole cell is visible
+     */
+    double getScrollOffsetRevealing(final int index, final double scrollOffset, final double height) {
+        var cellY = getCellY(index);
+        if (cellY < scrollOffset) {
+            return cellY;
+        }
+        if (cellY + this.cellSize > scrollOffset + height) {
+            return Math.max(0, cellY + this.cellSize - height);
+        }
+        return scrollOffset;
+    }
+
+    /**
+     * Returns the index of the cell the given number of rows and columns away, staying within the grid
+     */
+    int move(final int index, final int rows, final int columns) {
+        if (this.cellCount == 0) {
+            return NO_INDEX;
+        }
+        var movedIndex = index + rows * this.columnCount + columns;
+        return Math.max(0, Math.min(movedIndex, this.cellCount - 1));
+    }
+}
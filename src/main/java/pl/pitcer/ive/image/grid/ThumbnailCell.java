@@ -0,0 +1,125 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.grid;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import javafx.application.Platform;
+import javafx.css.PseudoClass;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.StackPane;
+import org.jetbrains.annotations.Nullable;
+import pl.pitcer.ive.cache.LruCache;
+import pl.pitcer.ive.image.loader.FileEntry;
+import pl.pitcer.ive.image.thumbnail.Thumbnail;
+import pl.pitcer.ive.image.thumbnail.ThumbnailGenerator;
+
+/**
+ * Recyclable cell of {@link ThumbnailGrid} showing the thumbnail of one image
+ */
+final class ThumbnailCell extends StackPane {
+
+    private static final String STYLE_CLASS = "thumbnail-cell";
+    private static final PseudoClass SELECTED_PSEUDO_CLASS = PseudoClass.getPseudoClass("selected");
+    static final double PADDING = 4;
+
+    private final ThumbnailGenerator thumbnailGenerator;
+    private final LruCache<FileEntry, Image> thumbnailCache;
+    private final ImageView imageView;
+    @Nullable
+    private FileEntry file;
+    @Nullable
+    private CompletableFuture<Thumbnail> pendingThumbnail;
+
+    ThumbnailCell(final ThumbnailGenerator thumbnailGenerator, final LruCache<FileEntry, Image> thumbnailCache, final double thumbnailSize) {
+        this.thumbnailGenerator = thumbnailGenerator;
+        this.thumbnailCache = thumbnailCache;
+        this.imageView = new ImageView();
+        this.imageView.setPreserveRatio(true);
+        this.imageView.setFitWidth(thumbnailSize);
+        this.imageView.setFitHeight(thumbnailSize);
+        getStyleClass().add(STYLE_CLASS);
+        getChildren().add(this.imageView);
+        var size = thumbnailSize + 2 * PADDING;
+        resize(size, size);
+    }
+
+    /**
+     * Shows the thumbnail of the given file, loading it in the background when it is not cached. Nothing
+     * is reloaded when the cell already shows the file.
+     */
+    void setFile(final FileEntry file) {
+        if (file.equals(this.file)) {
+            return;
+        }
+        clear();
+        this.file = file;
+        var cachedThumbnail = this.thumbnailCache.get(file);
+        if (cachedThumbnail != null) {
+            this.imageView.setImage(cachedThumbnail);
+            return;
+        }
+        var pendingThumbnail = this.thumbnailGenerator.getThumbnail(file);
+        this.pendingThumbnail = pendingThumbnail;
+        pendingThumbnail.whenCompleteAsync((thumbnail, exception) -> {
+            if (this.pendingThumbnail != pendingThumbnail) {
+                return;
+            }
+            this.pendingThumbnail = null;
+            if (exception == null) {
+                var image = thumbnail.toImage();
+                this.thumbnailCache.put(file, image);
+                this.imageView.setImage(image);
+            } else {
+                printFailure(exception);
+            }
+        }, Platform::runLater);
+    }
+
+    private static void printFailure(final Throwable exception) {
+        if (!(exception instanceof CancellationException)) {
+            var cause = exception instanceof CompletionException ? exception.getCause() : exception;
+            cause.printStackTrace();
+        }
+    }
+
+    /**
+     * Empties the cell, cancelling loading of its thumbnail
+     */
+    void clear() {
+        if (this.pendingThumbnail != null) {
+            this.pendingThumbnail.cancel(false);
+            this.pendingThumbnail = null;
+        }
+        this.file = null;
+        this.imageView.setImage(null);
+    }
+
+    void setSelected(final boolean selected) {
+        pseudoClassStateChanged(SELECTED_PSEUDO_CLASS, selected);
+    }
+}
@@ -0,0 +1,284 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.grid;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import javafx.geometry.Orientation;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.image.Image;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.Region;
+import pl.pitcer.ive.cache.CacheStatistics;
+import pl.pitcer.ive.cache.LruCache;
+import pl.pitcer.ive.image.BrowsableImages;
+import pl.pitcer.ive.image.loader.FileEntry;
+import pl.pitcer.ive.image.thumbnail.ThumbnailGenerator;
+
+/**
+ * Scrollable overview of thumbnails of all images. Nodes are created only for cells that are visible and
+ * are recycled while scrolling, thumbnails are loaded in the background and only the recently shown ones
+ * are kept in memory.
+ */
+public final class ThumbnailGrid extends Region implements Overviewable {
+
+    private static final String STYLE_CLASS = "thumbnail-grid";
+    private static final int BYTES_PER_PIXEL = 4;
+    private static final int NO_INDEX = -1;
+
+    private final BrowsableImages browsableImages;
+    private final ThumbnailGenerator thumbnailGenerator;
+    private final LruCache<FileEntry, Image> thumbnailCache;
+    private final int thumbnailSize;
+    private final double cellSize;
+    private final ScrollBar scrollBar;
+    private final List<ThumbnailCell> cells;
+    private final Map<KeyCode, Runnable> keyHandlers;
+    private List<FileEntry> images;
+    private GridLayout layout;
+    private int selectedIndex;
+
+    /**
+     * @param thumbnailSize maximum width and height of thumbnails
+     * @param thumbnailCacheBytes maximum estimated memory used by pixels of thumbnails kept in memory
+     */
+    public ThumbnailGrid(final BrowsableImages browsableImages, final ThumbnailGenerator thumbnailGenerator, final int thumbnailSize, final long thumbnailCacheBytes) {
+        this.browsableImages = browsableImages;
+        this.thumbnailGenerator = thumbnailGenerator;
+        this.thumbnailCache = new LruCache<>(thumbnailCacheBytes, ThumbnailGrid::estimateBytes);
+        this.thumbnailSize = thumbnailSize;
+        this.cellSize = thumbnailSize + 2 * ThumbnailCell.PADDING;
+        this.scrollBar = new ScrollBar();
+        this.cells = new ArrayList<>();
+        this.keyHandlers = createKeyHandlers();
+        this.images = List.of();
+        this.layout = new GridLayout(0, 0, this.cellSize);
+        this.selectedIndex = NO_INDEX;
+        this.scrollBar.setOrientation(Orientation.VERTICAL);
+        this.scrollBar.valueProperty().addListener(observable -> requestLayout());
+        getStyleClass().add(STYLE_CLASS);
+        getChildren().add(this.scrollBar);
+        setFocusTraversable(true);
+        setVisible(false);
+        addEventHandler(KeyEvent.KEY_PRESSED, this::handleKeyPressed);
+        addEventHandler(ScrollEvent.SCROLL, this::handleScroll);
+        addEventHandler(MouseEvent.MOUSE_CLICKED, this::handleMouseClicked);
+        addEventHandler(MouseEvent.MOUSE_PRESSED, MouseEvent::consume);
+        addEventHandler(MouseEvent.MOUSE_DRAGGED, MouseEvent::consume);
+        browsableImages.setOnImagesChanged(this::updateImages);
+    }
+
+    private static long estimateBytes(final Image image) {
+        return (long) image.getWidth() * (long) image.getHeight() * BYTES_PER_PIXEL;
+    }
+
+    private Map<KeyCode, Runnable> createKeyHandlers() {
+        return Map.ofEntries(
+            Map.entry(KeyCode.RIGHT, () -> moveSelection(0, 1)),
+            Map.entry(KeyCode.LEFT, () -> moveSelection(0, -1)),
+            Map.entry(KeyCode.DOWN, () -> moveSelection(1, 0)),
+            Map.entry(KeyCode.UP, () -> moveSelection(-1, 0)),
+            Map.entry(KeyCode.PAGE_DOWN, () -> moveSelection(getVisibleRowCount(), 0)),
+            Map.entry(KeyCode.PAGE_UP, () -> moveSelection(-getVisibleRowCount(), 0)),
+            Map.entry(KeyCode.HOME, () -> select(0)),
+            Map.entry(KeyCode.END, () -> select(this.images.size() - 1)),
+            Map.entry(KeyCode.ENTER, this::chooseSelectedImage),
+            Map.entry(KeyCode.ESCAPE, this::hideOverview)
+        );
+    }
+
+    public CacheStatistics getCacheStatistics() {
+        return this.thumbnailCache.getStatistics();
+    }
+
+    @Override
+    public boolean isOverviewShown() {
+        return isVisible();
+    }
+
+    /**
+     * Shows the overview with the current image selected, or hides it, keeping the current image
+     */
+    @Override
+    public void toggleOverview() {
+        if (isVisible()) {
+            hideOverview();
+        } else {
+            showOverview();
+        }
+    }
+
+    private void showOverview() {
+        this.images = this.browsableImages.getImages();
+        setVisible(true);
+        requestFocus();
+        requestLayout();
+        layout();
+        select(this.browsableImages.getCurrentImageIndex());
+    }
+
+    private void hideOverview() {
+        setVisible(false);
+        this.images = List.of();
+        this.cells.forEach(ThumbnailCell::clear);
+    }
+
+    private void updateImages() {
+        if (!isVisible()) {
+            return;
+        }
+        this.images = this.browsableImages.getImages();
+        this.selectedIndex = Math.min(this.selectedIndex, this.images.size() - 1);
+        requestLayout();
+    }
+
+    private void chooseSelectedImage() {
+        if (this.selectedIndex >= 0) {
+            this.browsableImages.showImageAt(this.selectedIndex);
+        }
+        hideOverview();
+    }
+
+    private void moveSelection(final int rows, final int columns) {
+        var index = this.layout.move(this.selectedIndex, rows, columns);
+        select(index);
+    }
+
+    private int getVisibleRowCount() {
+        return Math.max(1, (int) (getViewportHeight() / this.cellSize));
+    }
+
+    private void select(final int index) {
+        this.selectedIndex = index >= this.images.size() ? NO_INDEX : index;
+        if (this.selectedIndex >= 0) {
+            var scrollOffset = this.layout.getScrollOffsetRevealing(this.selectedIndex, this.scrollBar.getValue(), getViewportHeight());
+            this.scrollBar.setValue(scrollOffset);
+        }
+        requestLayout();
+    }
+
+    private void handleKeyPressed(final KeyEvent event) {
+        var handler = this.keyHandlers.get(event.getCode());
+        if (handler != null) {
+            handler.run();
+            event.consume();
+        }
+    }
+
+    private void handleScroll(final ScrollEvent event) {
+        var scrollOffset = this.scrollBar.getValue() - event.getDeltaY();
+        this.scrollBar.setValue(clamp(scrollOffset, this.scrollBar.getMax()));
+        event.consume();
+    }
+
+    private void handleMouseClicked(final MouseEvent event) {
+        event.consume();
+        if (event.getButton() != MouseButton.PRIMARY) {
+            return;
+        }
+        var index = this.layout.getIndexAt(event.getX(), event.getY() + this.scrollBar.getValue());
+        if (index < 0) {
+            return;
+        }
+        select(index);
+        if (event.getClickCount() > 1) {
+            chooseSelectedImage();
+        }
+    }
+
+    private static double clamp(final double value, final double maximum) {
+        return Math.max(0, Math.min(value, maximum));
+    }
+
+    private double getViewportHeight() {
+        return getHeight();
+    }
+
+    /**
+     * Lays out only the visible cells, taking them from the pool of cells and growing it when needed
+     */
+    @Override
+    protected void layoutChildren() {
+        var scrollBarWidth = this.scrollBar.prefWidth(-1);
+        var width = getWidth() - scrollBarWidth;
+        var height = getViewportHeight();
+        this.scrollBar.resizeRelocate(width, 0, scrollBarWidth, height);
+        this.layout = new GridLayout(this.images.size(), width, this.cellSize);
+        var maximumScrollOffset = Math.max(0, this.layout.getContentHeight() - height);
+        this.scrollBar.setMax(maximumScrollOffset);
+        this.scrollBar.setVisibleAmount(maximumScrollOffset * height / Math.max(height, this.layout.getContentHeight()));
+        this.scrollBar.setUnitIncrement(this.cellSize / 2);
+        this.scrollBar.setBlockIncrement(height);
+        var scrollOffset = clamp(this.scrollBar.getValue(), maximumScrollOffset);
+        this.scrollBar.setValue(scrollOffset);
+        if (!isVisible()) {
+            return;
+        }
+        var visibleCellCount = this.layout.getVisibleCellCount(height);
+        while (this.cells.size() < visibleCellCount) {
+            var cell = new ThumbnailCell(this.thumbnailGenerator, this.thumbnailCache, this.thumbnailSize);
+            this.cells.add(cell);
+            getChildren().add(0, cell);
+        }
+        var firstIndex = this.layout.getFirstVisibleIndex(scrollOffset);
+        for (int cellIndex = 0; cellIndex < this.cells.size(); cellIndex++) {
+            var cell = this.cells.get(cellIndex);
+            var index = firstIndex + recycledCellOffset(cellIndex, firstIndex, visibleCellCount);
+            if (cellIndex >= visibleCellCount || index >= this.images.size()) {
+                cell.clear();
+                cell.setVisible(false);
+                continue;
+            }
+            cell.setVisible(true);
+            cell.setFile(this.images.get(index));
+            cell.setSelected(index == this.selectedIndex);
+            cell.relocate(this.layout.getCellX(index), this.layout.getCellY(index) - scrollOffset);
+        }
+    }
+
+    /**
+     * Returns the offset from the first visible index of the image shown by the cell. Every cell keeps
+     * showing indexes congruent modulo the number of visible cells, so cells that stay visible while
+     * scrolling keep their images.
+     */
+    private static int recycledCellOffset(final int cellIndex, final int firstIndex, final int visibleCellCount) {
+        return Math.floorMod(cellIndex - firstIndex, visibleCellCount);
+    }
+
+    @Override
+    protected double computePrefWidth(final double height) {
+        return this.cellSize;
+    }
+
+    @Override
+    protected double computePrefHeight(final double width) {
+        return this.cellSize;
+    }
+}
@@ -0,0 +1,311 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.index;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.jetbrains.annotations.Nullable;
+import pl.pitcer.ive.image.loader.FileEntry;
+import pl.pitcer.ive.image.loader.ImageFormat;
+import pl.pitcer.ive.image.probe.ImageDimensions;
+
+/**
+ * Listing of a directory together with metadata of its images, stored in a compact binary file that is
+ * memory-mapped when read. The index remembers the modification time the directory had when it was
+ * listed, which changes whenever a file is added, removed or renamed, so checking it against the current
+ * one is enough to tell whether the listing is still valid. Files rewritten in place are not noticed.
+ *
+ * <p>The file starts with a header, followed by the UTF-8 directory path, a fixed-size record for every
+ * image and UTF-8 image names relative to the directory. A record holds the offset and length of the name,
+ * the file size and modification time, the capture date, the dimensions, the format and whether the
+ * metadata was probed at all.
+ */
+public final class DirectoryIndex {
+
+    private static final int MAGIC = 0x49564549;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int SETTINGS_OFFSET = 8;
+    private static final int IMAGE_COUNT_OFFSET = 12;
+    private static final int DIRECTORY_MODIFIED_OFFSET = 16;
+    private static final int DIRECTORY_LENGTH_OFFSET = 24;
+    private static final int NAMES_LENGTH_OFFSET = 28;
+    private static final int RECORD_SIZE = 48;
+    private static final int NAME_OFFSET = 0;
+    private static final int NAME_LENGTH_OFFSET = 4;
+    private static final int SIZE_OFFSET = 8;
+    private static final int LAST_MODIFIED_OFFSET = 16;
+    private static final int CAPTURE_DATE_OFFSET = 24;
+    private static final int WIDTH_OFFSET = 32;
+    private static final int HEIGHT_OFFSET = 36;
+    private static final int FORMAT_OFFSET = 40;
+    private static final int STATE_OFFSET = 44;
+    private static final int UNPROBED_STATE = 0;
+    private static final int PROBED_STATE = 1;
+    private static final int NO_FORMAT = -1;
+    private static final long NO_CAPTURE_DATE = Long.MIN_VALUE;
+    private static final ImageFormat[] FORMATS = ImageFormat.values();
+
+    private final Path directory;
+    private final long directoryModified;
+    private final int settings;
+    private final List<FileEntry> images;
+    private final ImageMetadata[] metadata;
+    @Nullable
+    private Map<FileEntry, Integer> positions;
+
+    /**
+     * @param directoryModified modification time of the directory in milliseconds, read before it was listed
+     * @param settings opaque value describing how the directory was listed, such as whether hidden files
+     * were included
+     * @param metadata metadata of images at the same positions, null for images not probed yet
+     */
+    public DirectoryIndex(final Path directory, final long directoryModified, final int settings, final List<FileEntry> images, final ImageMetadata[] metadata) {
+        this.directory = directory;
+        this.directoryModified = directoryModified;
+        this.settings = settings;
+        this.images = images;
+        this.metadata = metadata;
+    }
+
+    /**
+     * Reads the index of the directory, or returns null when the file does not exist, is malformed or
+     * belongs to another directory
+     */
+    @Nullable
+    public static DirectoryIndex read(final Path file, final Path directory) throws IOException {
+        try (var channel = FileChannel.open(file)) {
+            var size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                return null;
+            }
+            var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return read(buffer, directory);
+        } catch (final NoSuchFileException exception) {
+            return null;
+        }
+    }
+
+    @Nullable
+    private static DirectoryIndex read(final ByteBuffer buffer, final Path directory) {
+        if (buffer.getInt(MAGIC_OFFSET) != MAGIC || buffer.getInt(VERSION_OFFSET) != VERSION) {
+            return null;
+        }
+        var imageCount = buffer.getInt(IMAGE_COUNT_OFFSET);
+        var directoryLength = buffer.getInt(DIRECTORY_LENGTH_OFFSET);
+        var namesLength = buffer.getInt(NAMES_LENGTH_OFFSET);
+        if (imageCount < 0 || directoryLength < 0 || namesLength < 0 || HEADER_SIZE + directoryLength + (long) imageCount * RECORD_SIZE + namesLength != buffer.limit()) {
+            return null;
+        }
+        var directoryBytes = getBytes(buffer, HEADER_SIZE, directoryLength);
+        if (!new String(directoryBytes, StandardCharsets.UTF_8).equals(toKey(directory))) {
+            return null;
+        }
+        var recordsOffset = HEADER_SIZE + directoryLength;
+        var names = getBytes(buffer, recordsOffset + imageCount * RECORD_SIZE, namesLength);
+        List<FileEntry> images = new ArrayList<>(imageCount);
+        var metadata = new ImageMetadata[imageCount];
+        try {
+            for (int position = 0; position < imageCount; position++) {
+                var offset = recordsOffset + position * RECORD_SIZE;
+                var nameOffset = buffer.getInt(offset + NAME_OFFSET);
+                var nameLength = buffer.getInt(offset + NAME_LENGTH_OFFSET);
+                if (nameOffset < 0 || nameLength < 0 || nameOffset > namesLength - nameLength) {
+                    return null;
+                }
+                var name = new String(names, nameOffset, nameLength, StandardCharsets.UTF_8);
+                var lastModified = buffer.getLong(offset + LAST_MODIFIED_OFFSET);
+                var size = buffer.getLong(offset + SIZE_OFFSET);
+                var path = directory.resolve(name);
+                var fileName = path.getNameCount() == directory.getNameCount() + 1 ? name : path.getFileName().toString();
+                images.add(new FileEntry(path, fileName, lastModified, size));
+                if (buffer.getInt(offset + STATE_OFFSET) == PROBED_STATE) {
+                    metadata[position] = readMetadata(buffer, offset);
+                }
+            }
+        } catch (final IllegalArgumentException exception) {
+            return null;
+        }
+        var directoryModified = buffer.getLong(DIRECTORY_MODIFIED_OFFSET);
+        var settings = buffer.getInt(SETTINGS_OFFSET);
+        return new DirectoryIndex(directory, directoryModified, settings, images, metadata);
+    }
+
+    private static ImageMetadata readMetadata(final ByteBuffer buffer, final int offset) {
+        var formatIndex = buffer.getInt(offset + FORMAT_OFFSET);
+        var format = formatIndex >= 0 && formatIndex < FORMATS.length ? FORMATS[formatIndex] : null;
+        var width = buffer.getInt(offset + WIDTH_OFFSET);
+        var height = buffer.getInt(offset + HEIGHT_OFFSET);
+        var dimensions = width > 0 && height > 0 ? new ImageDimensions(width, height) : null;
+        var captureSecond = buffer.getLong(offset + CAPTURE_DATE_OFFSET);
+        var captureDate = captureSecond == NO_CAPTURE_DATE ? null : LocalDateTime.ofEpochSecond(captureSecond, 0, ZoneOffset.UTC);
+        return new ImageMetadata(format, dimensions, captureDate);
+    }
+
+    private static byte[] getBytes(final ByteBuffer buffer, final int offset, final int length) {
+        var bytes = new byte[length];
+        buffer.duplicate().position(offset).get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Writes the index to a temporary file first and moves it over the file, so readers never see a
+     * partially written index
+     */
+    public void write(final Path file) throws IOException {
+        var buffer = toByteBuffer();
+        var indexDirectory = file.toAbsolutePath().getParent();
+        Files.createDirectories(indexDirectory);
+        var temporaryFile = Files.createTempFile(indexDirectory, file.getFileName().toString(), ".tmp");
+        try {
+            try (var channel = FileChannel.open(temporaryFile, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    private synchronized ByteBuffer toByteBuffer() {
+        var directoryBytes = toKey(this.directory).getBytes(StandardCharsets.UTF_8);
+        var imageCount = this.images.size();
+        var names = new byte[imageCount][];
+        var namesLength = 0;
+        for (int position = 0; position < imageCount; position++) {
+            var name = this.directory.relativize(this.images.get(position).getPath()).toString();
+            names[position] = name.getBytes(StandardCharsets.UTF_8);
+            namesLength += names[position].length;
+        }
+        var recordsOffset = HEADER_SIZE + directoryBytes.length;
+        var namesOffset = recordsOffset + imageCount * RECORD_SIZE;
+        var buffer = ByteBuffer.allocate(namesOffset + namesLength);
+        buffer.putInt(MAGIC_OFFSET, MAGIC);
+        buffer.putInt(VERSION_OFFSET, VERSION);
+        buffer.putInt(SETTINGS_OFFSET, this.settings);
+        buffer.putInt(IMAGE_COUNT_OFFSET, imageCount);
+        buffer.putLong(DIRECTORY_MODIFIED_OFFSET, this.directoryModified);
+        buffer.putInt(DIRECTORY_LENGTH_OFFSET, directoryBytes.length);
+        buffer.putInt(NAMES_LENGTH_OFFSET, namesLength);
+        buffer.position(HEADER_SIZE).put(directoryBytes);
+        var nameOffset = 0;
+        for (int position = 0; position < imageCount; position++) {
+            var offset = recordsOffset + position * RECORD_SIZE;
+            var image = this.images.get(position);
+            buffer.putInt(offset + NAME_OFFSET, nameOffset);
+            buffer.putInt(offset + NAME_LENGTH_OFFSET, names[position].length);
+            buffer.putLong(offset + SIZE_OFFSET, image.getSize());
+            buffer.putLong(offset + LAST_MODIFIED_OFFSET, image.getLastModified());
+            writeMetadata(buffer, offset, this.metadata[position]);
+            buffer.position(namesOffset + nameOffset).put(names[position]);
+            nameOffset += names[position].length;
+        }
+        return buffer.rewind();
+    }
+
+    private static void writeMetadata(final ByteBuffer buffer, final int offset, @Nullable final ImageMetadata metadata) {
+        if (metadata == null) {
+            buffer.putInt(offset + STATE_OFFSET, UNPROBED_STATE);
+            return;
+        }
+        var format = metadata.getFormat();
+        var dimensions = metadata.getDimensions();
+        var captureDate = metadata.getCaptureDate();
+        buffer.putInt(offset + FORMAT_OFFSET, format == null ? NO_FORMAT : format.ordinal());
+        buffer.putInt(offset + WIDTH_OFFSET, dimensions == null ? 0 : dimensions.getWidth());
+        buffer.putInt(offset + HEIGHT_OFFSET, dimensions == null ? 0 : dimensions.getHeight());
+        buffer.putLong(offset + CAPTURE_DATE_OFFSET, captureDate == null ? NO_CAPTURE_DATE : captureDate.toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(offset + STATE_OFFSET, PROBED_STATE);
+    }
+
+    private static String toKey(final Path directory) {
+        return directory.toAbsolutePath().normalize().toString();
+    }
+
+    /**
+     * Returns whether the listing is still valid for the directory with the given modification time,
+     * listed with the given settings
+     */
+    public boolean isUpToDate(final long directoryModified, final int settings) {
+        return this.directoryModified == directoryModified && this.settings == settings;
+    }
+
+    /**
+     * Returns the listed images, in the order they were listed
+     */
+    public List<FileEntry> getImages() {
+        return this.images;
+    }
+
+    /**
+     * Returns metadata of the image, or null when it was not probed yet, or the image is not indexed or
+     * has changed since
+     */
+    @Nullable
+    public synchronized ImageMetadata getMetadata(final FileEntry image) {
+        indexPositions();
+        var position = this.positions.get(image);
+        return position == null ? null : this.metadata[position];
+    }
+
+    /**
+     * Builds the lookup of image positions used by {@link #getMetadata(FileEntry)}, unless it is built
+     * already. It takes time proportional to the number of images.
+     */
+    synchronized void indexPositions() {
+        if (this.positions != null) {
+            return;
+        }
+        this.positions = new HashMap<>(this.images.size() * 2);
+        for (int position = 0; position < this.images.size(); position++) {
+            this.positions.put(this.images.get(position), position);
+        }
+    }
+
+    synchronized void setMetadata(final int position, final ImageMetadata metadata) {
+        this.metadata[position] = metadata;
+    }
+
+    synchronized boolean isProbed(final int position) {
+        return this.metadata[position] != null;
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.index;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Consumer;
+import org.jetbrains.annotations.Nullable;
+import pl.pitcer.ive.image.loader.FileEntry;
+import pl.pitcer.ive.image.loader.ImageLoader;
+
+/**
+ * Keeps a persistent {@link DirectoryIndex} of every scanned directory, so a directory that has not
+ * changed since it was last scanned is never listed again. Indexes are updated on a background thread:
+ * a changed directory is listed as usual, its metadata is taken over from the previous index for files
+ * that did not change, and only new and changed files have their headers probed.
+ */
+public final class DirectoryIndexer {
+
+    private static final String INDEX_FILE_EXTENSION = ".index";
+    private static final int HIDDEN_SETTING = 1;
+    private static final int SNIFFING_SETTING = 2;
+    private static final int PROBES_PER_WRITE = 16384;
+    private static final long MODIFICATION_TIME_GRANULARITY_MILLIS = 2000;
+    private static final long UNKNOWN_MODIFIED = Long.MIN_VALUE;
+
+    private final Path indexDirectory;
+    private final int settings;
+    private final ExecutorService executor;
+    @Nullable
+    private volatile DirectoryIndex index;
+    @Nullable
+    private volatile DirectoryIndex lookupIndex;
+
+    /**
+     * @param indexDirectory directory index files are kept in
+     * @param includingHidden whether the image loader scans hidden files
+     * @param sniffing whether the image loader sniffs content of files
+     */
+    public DirectoryIndexer(final Path indexDirectory, final boolean includingHidden, final boolean sniffing, final ThreadFactory threadFactory) {
+        this.indexDirectory = indexDirectory;
+        this.settings = (includingHidden ? HIDDEN_SETTING : 0) | (sniffing ? SNIFFING_SETTING : 0);
+        this.executor = Executors.newSingleThreadExecutor(threadFactory);
+    }
+
+    /**
+     * Scans images of the directory of the loader like {@link ImageLoader#scanImages(Consumer)}. When the
+     * index of the directory is up to date, its images are passed to the consumer in a single batch without
+     * listing the directory. Otherwise the directory is listed and its index is updated afterwards.
+     */
+    public void scanImages(final ImageLoader imageLoader, final Consumer<List<FileEntry>> batchConsumer) {
+        var directory = imageLoader.getDirectory();
+        var indexFile = getIndexFile(directory);
+        var directoryModified = getLastModified(directory);
+        var previousIndex = readIndex(indexFile, directory);
+        if (previousIndex != null && directoryModified != UNKNOWN_MODIFIED && previousIndex.isUpToDate(directoryModified, this.settings)) {
+            this.index = previousIndex;
+            batchConsumer.accept(previousIndex.getImages());
+            this.executor.execute(() -> {
+                publishLookup(previousIndex);
+                probeMetadata(previousIndex, indexFile);
+            });
+            return;
+        }
+        List<FileEntry> images = new ArrayList<>();
+        imageLoader.scanImages(batch -> {
+            images.addAll(batch);
+            batchConsumer.accept(batch);
+        });
+        var metadata = new ImageMetadata[images.size()];
+        if (previousIndex != null) {
+            for (int position = 0; position < metadata.length; position++) {
+                metadata[position] = previousIndex.getMetadata(images.get(position));
+            }
+        }
+        var index = new DirectoryIndex(directory, getTrustedModified(directoryModified), this.settings, images, metadata);
+        this.index = index;
+        this.executor.execute(() -> {
+            publishLookup(index);
+            writeIndex(index, indexFile);
+            probeMetadata(index, indexFile);
+        });
+    }
+
+    /**
+     * Returns metadata of the image of the last scanned directory, or null when it was not probed yet,
+     * or the lookup of images of the directory is still being built in the background
+     */
+    @Nullable
+    public ImageMetadata getMetadata(final FileEntry image) {
+        var index = this.lookupIndex;
+        return index == null || index != this.index ? null : index.getMetadata(image);
+    }
+
+    /**
+     * Builds the lookup of images of the index, and makes their metadata available through
+     * {@link #getMetadata(FileEntry)}, unless another directory was scanned in the meantime
+     */
+    private void publishLookup(final DirectoryIndex index) {
+        if (this.index != index) {
+            return;
+        }
+        index.indexPositions();
+        this.lookupIndex = index;
+    }
+
+    /**
+     * Stops the background thread. Probing stops early, and the index is written before the thread exits.
+     */
+    public void shutdown() {
+        this.index = null;
+        this.lookupIndex = null;
+        this.executor.shutdown();
+    }
+
+    /**
+     * Probes headers of images without metadata, writing the index every few thousand probes and at the
+     * end. Probing stops early when another directory is scanned in the meantime.
+     */
+    private void probeMetadata(final DirectoryIndex index, final Path indexFile) {
+        var images = index.getImages();
+        var probeCount = 0;
+        for (int position = 0; position < images.size() && this.index == index; position++) {
+            if (index.isProbed(position)) {
+                continue;
+            }
+            var metadata = MetadataProbe.probe(images.get(position));
+            if (metadata != null) {
+                index.setMetadata(position, metadata);
+                probeCount++;
+                if (probeCount % PROBES_PER_WRITE == 0) {
+                    writeIndex(index, indexFile);
+                }
+            }
+        }
+        if (probeCount % PROBES_PER_WRITE != 0) {
+            writeIndex(index, indexFile);
+        }
+    }
+
+    private static void writeIndex(final DirectoryIndex index, final Path indexFile) {
+        try {
+            index.write(indexFile);
+        } catch (final IOException exception) {
+            exception.printStackTrace();
+        }
+    }
+
+    @Nullable
+    private static DirectoryIndex readIndex(final Path indexFile, final Path directory) {
+        try {
+            return DirectoryIndex.read(indexFile, directory);
+        } catch (final IOException exception) {
+            exception.printStackTrace();
+            return null;
+        }
+    }
+
+    private static long getLastModified(final Path directory) {
+        try {
+            return Files.getLastModifiedTime(directory).toMillis();
+        } catch (final IOException exception) {
+            return UNKNOWN_MODIFIED;
+        }
+    }
+
+    /**
+     * Returns the modification time unless it is so recent that files added within the same tick of a
+     * coarse filesystem clock would not change it, in which case the index is never considered up to date
+     */
+    private static long getTrustedModified(final long directoryModified) {
+        var age = System.currentTimeMillis() - directoryModified;
+        return age < MODIFICATION_TIME_GRANULARITY_MILLIS ? UNKNOWN_MODIFIED : directoryModified;
+    }
+
+    private Path getIndexFile(final Path directory) {
+        var key = directory.toAbsolutePath().normalize().toString();
+        var name = UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8)) + INDEX_FILE_EXTENSION;
+        return this.indexDirectory.resolve(name);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.index;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+import org.jetbrains.annotations.Nullable;
+import pl.pitcer.ive.image.loader.ImageFormat;
+import pl.pitcer.ive.image.probe.ImageDimensions;
+
+/**
+ * Metadata of an image read from its header. Every part is null when the header does not carry it.
+ */
+public final class ImageMetadata {
+
+    @Nullable
+    private final ImageFormat format;
+    @Nullable
+    private final ImageDimensions dimensions;
+    @Nullable
+    private final LocalDateTime captureDate;
+
+    public ImageMetadata(@Nullable final ImageFormat format, @Nullable final ImageDimensions dimensions, @Nullable final LocalDateTime captureDate) {
+        this.format = format;
+        this.dimensions = dimensions;
+        this.captureDate = captureDate;
+    }
+
+    @Nullable
+    public ImageFormat getFormat() {
+        return this.format;
+    }
+
+    @Nullable
+    public ImageDimensions getDimensions() {
+        return this.dimensions;
+    }
+
+    /**
+     * Returns the local date of the camera when the image was taken
+     */
+    @Nullable
+    public LocalDateTime getCaptureDate() {
+        return this.captureDate;
+    }
+
+    @Override
+    public boolean equals(final Object object) {
+        if (this == object) {
+            return true;
+        }
+        if (object == null || getClass() != object.getClass()) {
+            return false;
+        }
+        var metadata = (ImageMetadata) object;
+        return this.format == metadata.format && Objects.equals(this.dimensions, metadata.dimensions) && Objects.equals(this.captureDate, metadata.captureDate);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.format, this.dimensions, this.captureDate);
+    }
+
+    @Override
+    public String toString() {
+        return "ImageMetadata{format=" + this.format + ", dimensions=" + this.dimensions + ", captureDate=" + this.captureDate + '}';
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.index;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import org.jetbrains.annotations.Nullable;
+import pl.pitcer.ive.image.loader.ContentSniffer;
+import pl.pitcer.ive.image.loader.FileEntry;
+import pl.pitcer.ive.image.loader.ImageFormat;
+import pl.pitcer.ive.image.probe.CaptureDateProbe;
+import pl.pitcer.ive.image.probe.DimensionProbe;
+
+/**
+ * Class responsible for reading metadata of images from their headers, without decoding their pixels
+ */
+final class MetadataProbe {
+
+    private MetadataProbe() {
+        throw new UnsupportedOperationException("Cannot create an instance of this class");
+    }
+
+    /**
+     * Returns metadata of the image, or null when it cannot be read, so it can be probed again later. The
+     * file is opened once for all of its metadata.
+     */
+    @Nullable
+    static ImageMetadata probe(final FileEntry image) {
+        try (var channel = FileChannel.open(image.getPath())) {
+            var format = ContentSniffer.readFormat(channel);
+            if (format != ImageFormat.PNG && format != ImageFormat.JPEG) {
+                return new ImageMetadata(format, null, null);
+            }
+            var dimensions = DimensionProbe.probe(channel);
+            var captureDate = format == ImageFormat.JPEG ? CaptureDateProbe.probe(channel) : null;
+            return new ImageMetadata(format, dimensions, captureDate);
+        } catch (final IOException exception) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.loader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import org.jetbrains.annotations.Nullable;
+import pl.pitcer.ive.cache.CacheStatistics;
+import pl.pitcer.ive.cache.LruCache;
+
+/**
+ * Class responsible for recognizing the real format of files by their first bytes. Batches of files are
+ * sniffed in parallel, every worker reading into its own small direct buffer, and results are cached by
+ * file snapshots, so files unchanged since the last scan are not read again.
+ */
+public final class ContentSniffer {
+
+    private static final int MAXIMUM_CACHED_RESULTS = 256 * 1024;
+    private static final int SEQUENTIAL_BATCH_SIZE = 32;
+    private static final ThreadLocal<ByteBuffer> HEADER_BUFFERS = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(ImageFormat.SIGNATURE_LENGTH));
+
+    private final ForkJoinPool pool;
+    private final LruCache<FileEntry, Optional<ImageFormat>> formats;
+
+    public ContentSniffer(final int parallelism) {
+        this.pool = new ForkJoinPool(parallelism);
+        this.formats = new LruCache<>(MAXIMUM_CACHED_RESULTS, format -> 1);
+    }
+
+    /**
+     * Returns the real format of the file, or null when it is not an image or cannot be read
+     */
+    @Nullable
+    public ImageFormat sniff(final FileEntry file) {
+        var cachedFormat = this.formats.get(file);
+        if (cachedFormat != null) {
+            return cachedFormat.orElse(null);
+        }
+        var format = readFormat(file);
+        this.formats.put(file, Optional.ofNullable(format));
+        return format;
+    }
+
+    /**
+     * Returns the real format of the file read from its first bytes, bypassing the cache, or null when it
+     * is not an image or cannot be read
+     */
+    @Nullable
+    public static ImageFormat readFormat(final FileEntry file) {
+        try (var channel = FileChannel.open(file.getPath())) {
+            return readFormat(channel);
+        } catch (final IOException exception) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the real format of the file read from the first bytes of the channel, which is left open,
+     * or null when it is not an image
+     */
+    @Nullable
+    public static ImageFormat readFormat(final FileChannel channel) throws IOException {
+        var header = HEADER_BUFFERS.get();
+        header.clear();
+        var readCount = 0;
+        while (header.hasRemaining() && readCount >= 0) {
+            readCount = channel.read(header, header.position());
+        }
+        header.flip();
+        return ImageFormat.detect(header);
+    }
+
+    /**
+     * Returns the files whose content is an image, sniffing them in parallel and keeping their order
+     */
+    public List<FileEntry> filterImages(final List<FileEntry> files) {
+        return this.pool.invoke(new SniffTask(files));
+    }
+
+    /**
+     * Stops the worker threads. Files cannot be sniffed in parallel afterwards.
+     */
+    public void shutdown() {
+        this.pool.shutdown();
+    }
+
+    public CacheStatistics getStatistics() {
+        return this.formats.getStatistics();
+    }
+
+    private final class SniffTask extends RecursiveTask<List<FileEntry>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<FileEntry> files;
+
+        private SniffTask(final List<FileEntry> files) {
+            this.files = files;
+        }
+
+        @Override
+        protected List<FileEntry> compute() {
+            var size = this.files.size();
+            if (size <= SEQUENTIAL_BATCH_SIZE) {
+                List<FileEntry> images = new ArrayList<>(size);
+                for (final FileEntry file : this.files) {
+                    if (sniff(file) != null) {
+                        images.add(file);
+                    }
+                }
+                return images;
+            }
+            var middle = size / 2;
+            var firstHalf = new SniffTask(this.files.subList(0, middle));
+            var secondHalf = new SniffTask(this.files.subList(middle, size));
+            firstHalf.fork();
+            var secondImages = secondHalf.compute();
+            List<FileEntry> images = new ArrayList<>(firstHalf.join());
+            images.addAll(secondImages);
+            return images;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.loader;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Batch of changes observed in a watched directory
+ */
+public final class DirectoryChanges {
+
+    private static final DirectoryChanges RESCAN_REQUIRED = new DirectoryChanges(Set.of(), List.of(), true);
+
+    private final Set<Path> changedPaths;
+    private final List<FileEntry> updatedImages;
+    private final boolean rescanRequired;
+
+    private DirectoryChanges(final Set<Path> changedPaths, final List<FileEntry> updatedImages, final boolean rescanRequired) {
+        this.changedPaths = changedPaths;
+        this.updatedImages = updatedImages;
+        this.rescanRequired = rescanRequired;
+    }
+
+    /**
+     * @param changedPaths all created, deleted and modified paths
+     * @param updatedImages current snapshots of those paths that still exist and are images
+     */
+    public static DirectoryChanges of(final Collection<Path> changedPaths, final Collection<FileEntry> updatedImages) {
+        return new DirectoryChanges(Set.copyOf(changedPaths), List.copyOf(updatedImages), false);
+    }
+
+    /**
+     * Returns changes that could not be tracked, because events were lost
+     */
+    public static DirectoryChanges rescanRequired() {
+        return RESCAN_REQUIRED;
+    }
+
+    public Set<Path> getChangedPaths() {
+        return this.changedPaths;
+    }
+
+    public List<FileEntry> getUpdatedImages() {
+        return this.updatedImages;
+    }
+
+    public boolean isRescanRequired() {
+        return this.rescanRequired;
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.loader;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Class responsible for watching a directory of images and reporting its changes in batches. Events are
+ * debounced: a batch is reported once no event arrived for the quiet period, or once the oldest change in
+ * it waited for the maximum delay, so that bursts of events are applied at once.
+ */
+public final class DirectoryWatcher {
+
+    private final ImageLoader imageLoader;
+    private final ThreadFactory threadFactory;
+    private final long quietPeriodMillis;
+    private final long maximumDelayNanos;
+    private final Consumer<DirectoryChanges> changesListener;
+    @Nullable
+    private Thread thread;
+
+    public DirectoryWatcher(final ImageLoader imageLoader, final ThreadFactory threadFactory, final long quietPeriodMillis, final Consumer<DirectoryChanges> changesListener) {
+        this.imageLoader = imageLoader;
+        this.threadFactory = threadFactory;
+        this.quietPeriodMillis = quietPeriodMillis;
+        this.maximumDelayNanos = TimeUnit.MILLISECONDS.toNanos(quietPeriodMillis * 4);
+        this.changesListener = changesListener;
+    }
+
+    public void start() {
+        var thread = this.threadFactory.newThread(this::watch);
+        this.thread = thread;
+        thread.start();
+    }
+
+    /**
+     * Stops watching. Changes that were not reported yet are dropped.
+     */
+    public void stop() {
+        if (this.thread != null) {
+            this.thread.interrupt();
+            this.thread = null;
+        }
+    }
+
+    private void watch() {
+        var directory = this.imageLoader.getDirectory();
+        try (var watchService = directory.getFileSystem().newWatchService()) {
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+            watch(watchService, directory);
+        } catch (final IOException exception) {
+            exception.printStackTrace();
+        } catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void watch(final WatchService watchService, final Path directory) throws InterruptedException {
+        Set<Path> changedPaths = new LinkedHashSet<>();
+        var overflowed = false;
+        var firstChangeTime = 0L;
+        while (true) {
+            var pending = overflowed || !changedPaths.isEmpty();
+            var key = pending ? watchService.poll(this.quietPeriodMillis, TimeUnit.MILLISECONDS) : watchService.take();
+            if (key != null) {
+                if (!pending) {
+                    firstChangeTime = System.nanoTime();
+                }
+                for (final WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        overflowed = true;
+                    } else {
+                        var name = (Path) event.context();
+                        changedPaths.add(directory.resolve(name));
+                    }
+                }
+                if (!key.reset()) {
+                    return;
+                }
+            }
+            var delay = System.nanoTime() - firstChangeTime;
+            if (key == null || delay >= this.maximumDelayNanos) {
+                var changes = overflowed ? DirectoryChanges.rescanRequired() : loadChanges(changedPaths);
+                this.changesListener.accept(changes);
+                changedPaths.clear();
+                overflowed = false;
+            }
+        }
+    }
+
+    private DirectoryChanges loadChanges(final Set<Path> changedPaths) {
+        List<FileEntry> updatedImages = new ArrayList<>();
+        for (final Path path : changedPaths) {
+            var image = this.imageLoader.loadImage(path);
+            if (image != null) {
+                updatedImages.add(image);
+            }
+        }
+        return DirectoryChanges.of(changedPaths, updatedImages);
+    }
+}
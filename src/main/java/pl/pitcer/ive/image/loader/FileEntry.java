@@ -0,0 +1,115 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.loader;
+
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+
+/**
+ * Immutable snapshot of a listed file and the attributes it had when it was listed. Two entries are equal
+ * when they have the same path, modification time and size, so an entry also identifies a version of the
+ * file content.
+ */
+public final class FileEntry {
+
+    private final Path path;
+    private final String name;
+    private final long lastModified;
+    private final long size;
+    private volatile byte[] naturalSortKey;
+
+    public FileEntry(final Path path, final long lastModified, final long size) {
+        this(path, path.getFileName().toString(), lastModified, size);
+    }
+
+    /**
+     * Creates an entry of a file whose name is already known, so it is not derived from the path again
+     *
+     * @param name last element of the path
+     */
+    public FileEntry(final Path path, final String name, final long lastModified, final long size) {
+        this.path = path;
+        this.name = name;
+        this.lastModified = lastModified;
+        this.size = size;
+    }
+
+    public static FileEntry of(final Path path, final BasicFileAttributes attributes) {
+        var lastModified = attributes.lastModifiedTime().toMillis();
+        var size = attributes.size();
+        return new FileEntry(path, lastModified, size);
+    }
+
+    public Path getPath() {
+        return this.path;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public long getLastModified() {
+        return this.lastModified;
+    }
+
+    public long getSize() {
+        return this.size;
+    }
+
+    /**
+     * Returns the natural sort key of the name, built on the first call
+     */
+    byte[] getNaturalSortKey() {
+        var key = this.naturalSortKey;
+        if (key == null) {
+            key = NaturalSortKey.of(this.name);
+            this.naturalSortKey = key;
+        }
+        return key;
+    }
+
+    @Override
+    public boolean equals(final Object object) {
+        if (this == object) {
+            return true;
+        }
+        if (object == null || getClass() != object.getClass()) {
+            return false;
+        }
+        var entry = (FileEntry) object;
+        return this.lastModified == entry.lastModified && this.size == entry.size && this.path.equals(entry.path);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.path, this.lastModified, this.size);
+    }
+
+    @Override
+    public String toString() {
+        return this.path + "@" + this.lastModified + ':' + this.size;
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.loader;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Thread-safe collector passing found images to a consumer in batches. The first image is passed alone,
+ * later batches grow with the number of images found so far, but a batch is passed at least every
+ * {@value #BATCH_INTERVAL_MILLIS} milliseconds.
+ */
+final class ImageBatcher {
+
+    private static final long BATCH_INTERVAL_MILLIS = 250;
+    private static final long BATCH_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(BATCH_INTERVAL_MILLIS);
+
+    private final Consumer<List<FileEntry>> batchConsumer;
+    private List<FileEntry> batch;
+    private int imagesCount;
+    private long batchStartTime;
+
+    ImageBatcher(final Consumer<List<FileEntry>> batchConsumer) {
+        this.batchConsumer = batchConsumer;
+        this.batch = new ArrayList<>();
+        this.batchStartTime = System.nanoTime();
+    }
+
+    public synchronized void add(final FileEntry image) {
+        this.batch.add(image);
+        this.imagesCount++;
+        var batchTime = System.nanoTime() - this.batchStartTime;
+        if (this.batch.size() * 2 > this.imagesCount || batchTime >= BATCH_INTERVAL_NANOS) {
+            flush();
+        }
+    }
+
+    public synchronized void flush() {
+        if (this.batch.isEmpty()) {
+            return;
+        }
+        this.batchConsumer.accept(this.batch);
+        this.batch = new ArrayList<>();
+        this.batchStartTime = System.nanoTime();
+    }
+}
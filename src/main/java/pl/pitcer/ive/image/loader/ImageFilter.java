@@ -26,12 +26,16 @@ package pl.pitcer.ive.image.loader;
 
 import java.io.File;
 import java.io.FileFilter;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Locale;
 import java.util.Set;
+import java.util.function.BiPredicate;
 
 /**
  * Class responsible for accepting only image files
  */
-public final class ImageFilter implements FileFilter {
+public final class ImageFilter implements FileFilter, BiPredicate<Path, BasicFileAttributes> {
 
     private static final Set<String> IMAGE_FORMATS = Set.of(".png", ".jpg", ".jpeg");
 
@@ -41,6 +45,27 @@ public final class ImageFilter implements FileFilter {
             return false;
         }
         String name = file.getName();
-        return IMAGE_FORMATS.stream().anyMatch(name::endsWith);
+        return acceptName(name);
+    }
+
+    /**
+     * Accepts a file by its already read attributes, without touching the filesystem
+     */
+    @Override
+    public boolean test(final Path path, final BasicFileAttributes attributes) {
+        if (!attributes.isRegularFile()) {
+            return false;
+        }
+        var name = path.getFileName().toString();
+        return acceptName(name);
+    }
+
+    /**
+     * Accepts a file by its name alone, ignoring the case of its suffix, so that attributes are read only
+     * for files that can be images
+     */
+    public boolean acceptName(final String name) {
+        var lowerCaseName = name.toLowerCase(Locale.ROOT);
+        return IMAGE_FORMATS.stream().anyMatch(lowerCaseName::endsWith);
     }
 }
@@ -0,0 +1,80 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.loader;
+
+import java.nio.ByteBuffer;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Image format recognized by the signature at the beginning of a file
+ */
+public enum ImageFormat {
+
+    PNG(0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'),
+    JPEG(0xFF, 0xD8, 0xFF),
+    GIF('G', 'I', 'F', '8'),
+    BMP('B', 'M');
+
+    /**
+     * Number of bytes at the beginning of a file that are enough to recognize every format
+     */
+    public static final int SIGNATURE_LENGTH = 8;
+
+    private final byte[] signature;
+
+    ImageFormat(final int... signature) {
+        this.signature = new byte[signature.length];
+        for (int index = 0; index < signature.length; index++) {
+            this.signature[index] = (byte) signature[index];
+        }
+    }
+
+    /**
+     * Returns the format of a file beginning with the remaining bytes of the header, or null when it is
+     * not an image
+     */
+    @Nullable
+    public static ImageFormat detect(final ByteBuffer header) {
+        for (final ImageFormat format : values()) {
+            if (format.matches(header)) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    private boolean matches(final ByteBuffer header) {
+        if (header.remaining() < this.signature.length) {
+            return false;
+        }
+        var position = header.position();
+        for (int index = 0; index < this.signature.length; index++) {
+            if (header.get(position + index) != this.signature[index]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
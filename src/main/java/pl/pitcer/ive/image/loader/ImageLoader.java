@@ -24,38 +24,199 @@
 
 package pl.pitcer.ive.image.loader;
 
-import java.io.File;
-import java.io.FileFilter;
-import java.util.LinkedList;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.function.Consumer;
+import org.jetbrains.annotations.Nullable;
 
 /**
- * Class responsible for loading image files from working directory
+ * Class responsible for loading image files from a directory
  */
 public final class ImageLoader implements SortOrderable {
 
-    private static final FileFilter IMAGE_FILTER = new ImageFilter();
-    private static final File CURRENT_DIRECTORY = getCurrentDirectory();
+    private static final ImageFilter IMAGE_FILTER = new ImageFilter();
+    private static final int SCANNER_PARALLELISM = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
 
-    private static File getCurrentDirectory() {
-        var currentDirectoryPath = System.getProperty("user.dir");
-        return new File(currentDirectoryPath);
+    private Path directory;
+    private final int depth;
+    private final boolean includingHidden;
+    @Nullable
+    private final ContentSniffer contentSniffer;
+    private SortOrder sortOrder;
+
+    public ImageLoader(final Path directory, final SortOrder sortOrder) {
+        this(directory, sortOrder, 0, true);
     }
 
-    private SortOrder sortOrder;
+    public ImageLoader(final Path directory, final SortOrder sortOrder, final int depth, final boolean includingHidden) {
+        this(directory, sortOrder, depth, includingHidden, false);
+    }
 
-    public ImageLoader(final SortOrder sortOrder) {
+    /**
+     * @param depth how many levels of subdirectories are scanned, zero meaning only the directory itself
+     * @param includingHidden whether hidden files and directories are scanned
+     * @param sniffing whether files with image names are accepted only when their content is an image
+     */
+    public ImageLoader(final Path directory, final SortOrder sortOrder, final int depth, final boolean includingHidden, final boolean sniffing) {
+        this.directory = directory;
         this.sortOrder = sortOrder;
+        this.depth = depth;
+        this.includingHidden = includingHidden;
+        this.contentSniffer = sniffing ? new ContentSniffer(SCANNER_PARALLELISM) : null;
+    }
+
+    /**
+     * Lists image files of the directory, reading attributes of every file exactly once, and sorts them
+     */
+    public List<FileEntry> loadImages() {
+        var images = listImages();
+        return sortImages(images);
+    }
+
+    private List<FileEntry> listImages() {
+        List<FileEntry> images = new ArrayList<>();
+        scanImages(images::addAll);
+        return images;
     }
 
-    public List<File> loadImages() {
-        var files = CURRENT_DIRECTORY.listFiles(IMAGE_FILTER);
+    /**
+     * Lists image files of the directory, and of its subdirectories up to the scan depth, passing them to the
+     * consumer in unsorted batches as soon as they are found. Subdirectories are scanned in parallel, so the
+     * consumer may be called from different threads, but never concurrently. When sniffing, files of the
+     * directory are sniffed in parallel batch by batch, while files of subdirectories are sniffed by the
+     * workers scanning them.
+     */
+    public void scanImages(final Consumer<List<FileEntry>> batchConsumer) {
+        if (this.depth == 0) {
+            var batcher = new ImageBatcher(this.contentSniffer == null ? batchConsumer : images -> sniffImages(images, batchConsumer));
+            scanDirectory(batcher);
+            batcher.flush();
+        } else {
+            var batcher = new ImageBatcher(batchConsumer);
+            var scanner = new ParallelTreeScanner(IMAGE_FILTER, this.depth, this.includingHidden, SCANNER_PARALLELISM, this.contentSniffer);
+            scanner.scan(this.directory, batcher);
+            batcher.flush();
+        }
+    }
+
+    private void sniffImages(final List<FileEntry> images, final Consumer<List<FileEntry>> batchConsumer) {
+        var sniffedImages = this.contentSniffer.filterImages(images);
+        if (!sniffedImages.isEmpty()) {
+            batchConsumer.accept(sniffedImages);
+        }
+    }
+
+    private void scanDirectory(final ImageBatcher batcher) {
+        try (var directoryStream = Files.newDirectoryStream(this.directory)) {
+            for (final Path path : directoryStream) {
+                var image = loadImage(path);
+                if (image != null) {
+                    batcher.add(image);
+                }
+            }
+        } catch (final IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Returns a snapshot of the file if it is an image, or null otherwise
+     */
+    @Nullable
+    public FileEntry loadImage(final Path path) {
+        var name = path.getFileName().toString();
+        if (!IMAGE_FILTER.acceptName(name) || !this.includingHidden && isHidden(path)) {
+            return null;
+        }
+        var attributes = readAttributes(path);
+        if (attributes == null || !IMAGE_FILTER.test(path, attributes)) {
+            return null;
+        }
+        var image = FileEntry.of(path, attributes);
+        if (this.contentSniffer != null && this.contentSniffer.sniff(image) == null) {
+            return null;
+        }
+        return image;
+    }
+
+    private static boolean isHidden(final Path path) {
+        try {
+            return Files.isHidden(path);
+        } catch (final IOException exception) {
+            return true;
+        }
+    }
+
+    @Nullable
+    private static BasicFileAttributes readAttributes(final Path path) {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (final IOException exception) {
+            return null;
+        }
+    }
+
+    /**
+     * Sorts already listed images with the current sort order, without touching the filesystem. Large
+     * collections are sorted in parallel, which also builds their natural sort keys in parallel.
+     */
+    public List<FileEntry> sortImages(final Collection<FileEntry> images) {
+        var comparator = this.sortOrder.getComparator();
+        var sortedImages = images.toArray(FileEntry[]::new);
+        Arrays.parallelSort(sortedImages, comparator);
+        return new ArrayList<>(Arrays.asList(sortedImages));
+    }
+
+    /**
+     * Merges images into a list already sorted with the current sort order. Only the merged images are
+     * sorted, so the cost is linear in the size of the sorted list.
+     */
+    public List<FileEntry> mergeImages(final List<FileEntry> sortedImages, final Collection<FileEntry> images) {
         var comparator = this.sortOrder.getComparator();
-        return Stream.of(files)
-            .sorted(comparator)
-            .collect(Collectors.toCollection(LinkedList::new));
+        var sortedMergedImages = sortImages(images);
+        List<FileEntry> mergedImages = new ArrayList<>(sortedImages.size() + sortedMergedImages.size());
+        var iterator = sortedImages.iterator();
+        var mergedIterator = sortedMergedImages.iterator();
+        var image = iterator.hasNext() ? iterator.next() : null;
+        var mergedImage = mergedIterator.hasNext() ? mergedIterator.next() : null;
+        while (image != null || mergedImage != null) {
+            if (mergedImage == null || image != null && comparator.compare(image, mergedImage) <= 0) {
+                mergedImages.add(image);
+                image = iterator.hasNext() ? iterator.next() : null;
+            } else {
+                mergedImages.add(mergedImage);
+                mergedImage = mergedIterator.hasNext() ? mergedIterator.next() : null;
+            }
+        }
+        return mergedImages;
+    }
+
+    /**
+     * Stops the worker threads of the content sniffer, if any. Images cannot be scanned afterwards.
+     */
+    public void shutdown() {
+        if (this.contentSniffer != null) {
+            this.contentSniffer.shutdown();
+        }
+    }
+
+    public Path getDirectory() {
+        return this.directory;
+    }
+
+    /**
+     * Changes the directory images are loaded from. Scans and watchers started before keep using the
+     * previous directory.
+     */
+    public void setDirectory(final Path directory) {
+        this.directory = directory;
     }
 
     @Override
@@ -0,0 +1,150 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.loader;
+
+import java.text.Collator;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builds sort keys ordering file names naturally: runs of digits are compared by their numeric value, so
+ * {@code img2.png} comes before {@code img10.png}, and the remaining text is compared with the collator of
+ * the default locale. Keys compare only base letters, so names differing just in case or accents, such as
+ * {@code IMG3.png} and {@code img3.png}, have equal keys and are left for a full collation. A key is a byte
+ * array compared with {@link Arrays#compareUnsigned(byte[], byte[])}, so it is built once per name and
+ * comparing two names never has to collate them again.
+ */
+final class NaturalSortKey {
+
+    private static final byte NUMBER_TAG = 0;
+    private static final byte TEXT_TAG = 1;
+
+    private static final int TEXT_KEY_CACHE_CAPACITY = 4096;
+
+    private static final ThreadLocal<TextKeys> TEXT_KEYS = ThreadLocal.withInitial(TextKeys::new);
+
+    private byte[] bytes;
+    private int length;
+
+    private NaturalSortKey(final int capacity) {
+        this.bytes = new byte[capacity];
+    }
+
+    /**
+     * Creates a sort key of the name. Numbers go before text at the same position, and numbers equal in
+     * value, such as in {@code 01.png} and {@code 1.png}, are equal.
+     */
+    static byte[] of(final String name) {
+        var textKeys = TEXT_KEYS.get();
+        var key = new NaturalSortKey(name.length() * 8);
+        var length = name.length();
+        var start = 0;
+        while (start < length) {
+            var end = start;
+            if (Character.isDigit(name.charAt(start))) {
+                while (end < length && Character.isDigit(name.charAt(end))) {
+                    end++;
+                }
+                key.appendNumber(name, start, end);
+            } else {
+                while (end < length && !Character.isDigit(name.charAt(end))) {
+                    end++;
+                }
+                key.appendText(textKeys.get(name.substring(start, end)));
+            }
+            start = end;
+        }
+        return key.toByteArray();
+    }
+
+    private void appendNumber(final String name, final int start, final int end) {
+        var significantStart = start;
+        while (significantStart < end - 1 && Character.digit(name.charAt(significantStart), 10) == 0) {
+            significantStart++;
+        }
+        append(NUMBER_TAG);
+        appendChar((char) (end - significantStart));
+        for (int index = significantStart; index < end; index++) {
+            append((byte) Character.digit(name.charAt(index), 10));
+        }
+    }
+
+    private void appendText(final byte[] collationKey) {
+        append(TEXT_TAG);
+        ensureCapacity(collationKey.length);
+        System.arraycopy(collationKey, 0, this.bytes, this.length, collationKey.length);
+        this.length += collationKey.length;
+    }
+
+    private void appendChar(final char character) {
+        append((byte) (character >>> 8));
+        append((byte) character);
+    }
+
+    private void append(final byte value) {
+        ensureCapacity(1);
+        this.bytes[this.length++] = value;
+    }
+
+    private void ensureCapacity(final int count) {
+        if (this.length + count > this.bytes.length) {
+            this.bytes = Arrays.copyOf(this.bytes, Math.max(this.bytes.length * 2, this.length + count));
+        }
+    }
+
+    private byte[] toByteArray() {
+        return Arrays.copyOf(this.bytes, this.length);
+    }
+
+    /**
+     * Collation keys of recently seen text runs. Names in a folder mostly share prefixes and extensions,
+     * so the collator runs only for the few distinct runs. A collator is not thread safe, so every thread
+     * has its own.
+     */
+    private static final class TextKeys {
+
+        private final Collator collator = createCollator();
+        private final Map<String, byte[]> keys = new HashMap<>();
+
+        private static Collator createCollator() {
+            var collator = Collator.getInstance();
+            collator.setStrength(Collator.PRIMARY);
+            return collator;
+        }
+
+        private byte[] get(final String text) {
+            var key = this.keys.get(text);
+            if (key == null) {
+                if (this.keys.size() >= TEXT_KEY_CACHE_CAPACITY) {
+                    this.keys.clear();
+                }
+                key = this.collator.getCollationKey(text).toByteArray();
+                this.keys.put(text, key);
+            }
+            return key;
+        }
+    }
+}
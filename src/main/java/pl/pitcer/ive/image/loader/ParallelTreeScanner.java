@@ -0,0 +1,177 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.loader;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Class responsible for listing image files of a directory tree in parallel. Every directory is listed by
+ * a separate fork/join task, so idle workers steal subdirectories from busy ones. Symbolic links are
+ * followed, but every directory is entered only once, which protects from cycles. When sniffing, the
+ * content of every image file is sniffed by the worker that found it, before it is passed to the batcher.
+ */
+final class ParallelTreeScanner {
+
+    private final ImageFilter imageFilter;
+    private final int maximumDepth;
+    private final boolean includingHidden;
+    private final int parallelism;
+    @Nullable
+    private final ContentSniffer contentSniffer;
+
+    /**
+     * @param maximumDepth how many levels of subdirectories are entered, zero meaning only the root
+     * @param includingHidden whether hidden files and directories are scanned
+     * @param contentSniffer sniffer accepting files whose content is an image, or null when files are
+     * accepted by their names
+     */
+    ParallelTreeScanner(final ImageFilter imageFilter, final int maximumDepth, final boolean includingHidden, final int parallelism, @Nullable final ContentSniffer contentSniffer) {
+        this.imageFilter = imageFilter;
+        this.maximumDepth = maximumDepth;
+        this.includingHidden = includingHidden;
+        this.parallelism = parallelism;
+        this.contentSniffer = contentSniffer;
+    }
+
+    /**
+     * Passes image files of the tree to the batcher. Unreadable subdirectories are skipped, while an
+     * unreadable root directory fails the scan.
+     */
+    public void scan(final Path root, final ImageBatcher batcher) {
+        Set<Object> visitedDirectories = ConcurrentHashMap.newKeySet();
+        var rootAttributes = readAttributes(root);
+        if (rootAttributes != null) {
+            visitedDirectories.add(getDirectoryKey(root, rootAttributes));
+        }
+        var pool = new ForkJoinPool(this.parallelism);
+        try {
+            pool.invoke(new DirectoryTask(root, 0, visitedDirectories, batcher));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static Object getDirectoryKey(final Path directory, final BasicFileAttributes attributes) {
+        var fileKey = attributes.fileKey();
+        if (fileKey != null) {
+            return fileKey;
+        }
+        try {
+            return directory.toRealPath();
+        } catch (final IOException exception) {
+            return directory.toAbsolutePath().normalize();
+        }
+    }
+
+    @Nullable
+    private static BasicFileAttributes readAttributes(final Path path) {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (final IOException exception) {
+            return null;
+        }
+    }
+
+    private boolean isImage(final FileEntry file) {
+        return this.contentSniffer == null || this.contentSniffer.sniff(file) != null;
+    }
+
+    private boolean isSkipped(final Path path) {
+        if (this.includingHidden) {
+            return false;
+        }
+        try {
+            return Files.isHidden(path);
+        } catch (final IOException exception) {
+            return true;
+        }
+    }
+
+    /**
+     * Task listing a single directory and forking tasks for its subdirectories
+     */
+    private final class DirectoryTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Path directory;
+        private final int depth;
+        private final Set<Object> visitedDirectories;
+        private final ImageBatcher batcher;
+
+        private DirectoryTask(final Path directory, final int depth, final Set<Object> visitedDirectories, final ImageBatcher batcher) {
+            this.directory = directory;
+            this.depth = depth;
+            this.visitedDirectories = visitedDirectories;
+            this.batcher = batcher;
+        }
+
+        @Override
+        protected void compute() {
+            List<DirectoryTask> subdirectoryTasks = new ArrayList<>();
+            try (var directoryStream = Files.newDirectoryStream(this.directory)) {
+                for (final Path path : directoryStream) {
+                    if (isSkipped(path)) {
+                        continue;
+                    }
+                    var attributes = readAttributes(path);
+                    if (attributes == null) {
+                        continue;
+                    }
+                    if (attributes.isDirectory()) {
+                        if (this.depth < ParallelTreeScanner.this.maximumDepth && this.visitedDirectories.add(getDirectoryKey(path, attributes))) {
+                            var task = new DirectoryTask(path, this.depth + 1, this.visitedDirectories, this.batcher);
+                            task.fork();
+                            subdirectoryTasks.add(task);
+                        }
+                    } else if (ParallelTreeScanner.this.imageFilter.test(path, attributes)) {
+                        var file = FileEntry.of(path, attributes);
+                        if (isImage(file)) {
+                            this.batcher.add(file);
+                        }
+                    }
+                }
+            } catch (final IOException exception) {
+                if (this.depth == 0) {
+                    throw new UncheckedIOException(exception);
+                }
+            } finally {
+                subdirectoryTasks.forEach(ForkJoinTask::join);
+            }
+        }
+    }
+}
@@ -24,16 +24,20 @@
 
 package pl.pitcer.ive.image.loader;
 
-import java.io.File;
+import java.text.Collator;
+import java.util.Arrays;
 import java.util.Comparator;
 
 /**
- * Enum defining possible sort orders of file collections
+ * Enum defining possible sort orders of file collections. Files are compared by attributes cached in
+ * {@link FileEntry}, so sorting never touches the filesystem.
  */
 public enum SortOrder {
 
     NAME_ASCENDING("A-Z", Comparators.NAME_COMPARATOR),
     NAME_DESCENDING("Z-A", Comparators.NAME_COMPARATOR.reversed()),
+    NATURAL_ASCENDING("Natural A-Z", Comparators.NATURAL_COMPARATOR),
+    NATURAL_DESCENDING("Natural Z-A", Comparators.NATURAL_COMPARATOR.reversed()),
     MODIFICATION_TIME_ASCENDING("First Modified", Comparators.TIME_COMPARATOR),
     MODIFICATION_TIME_DESCENDING("Last Modified", Comparators.TIME_COMPARATOR.reversed()),
     SIZE_ASCENDING("Smallest", Comparators.SIZE_COMPARATOR),
@@ -41,9 +45,9 @@ public enum SortOrder {
 
     private String menuName;
 
-    private Comparator<File> comparator;
+    private Comparator<FileEntry> comparator;
 
-    SortOrder(final String menuName, final Comparator<File> comparator) {
+    SortOrder(final String menuName, final Comparator<FileEntry> comparator) {
         this.menuName = menuName;
         this.comparator = comparator;
     }
@@ -52,14 +56,17 @@ public enum SortOrder {
         return this.menuName;
     }
 
-    public Comparator<File> getComparator() {
+    public Comparator<FileEntry> getComparator() {
         return this.comparator;
     }
 
     private static final class Comparators {
 
-        private static final Comparator<File> NAME_COMPARATOR = Comparator.comparing(File::getName);
-        private static final Comparator<File> TIME_COMPARATOR = Comparator.comparingLong(File::lastModified);
-        private static final Comparator<File> SIZE_COMPARATOR = Comparator.comparingLong(File::length);
+        private static final Comparator<FileEntry> NAME_COMPARATOR = Comparator.comparing(FileEntry::getName);
+        private static final Comparator<FileEntry> NATURAL_COMPARATOR = Comparator.comparing(FileEntry::getNaturalSortKey, Arrays::compareUnsigned)
+            .thenComparing(FileEntry::getName, Collator.getInstance())
+            .thenComparing(NAME_COMPARATOR);
+        private static final Comparator<FileEntry> TIME_COMPARATOR = Comparator.comparingLong(FileEntry::getLastModified);
+        private static final Comparator<FileEntry> SIZE_COMPARATOR = Comparator.comparingLong(FileEntry::getSize);
     }
 }
@@ -0,0 +1,210 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.prefetch;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import javafx.scene.image.Image;
+import pl.pitcer.ive.image.cache.ImageCache;
+import pl.pitcer.ive.image.cursor.RandomAccessCursor;
+import pl.pitcer.ive.image.decoder.DecodedImage;
+import pl.pitcer.ive.image.decoder.ImageDecoder;
+import pl.pitcer.ive.image.loader.FileEntry;
+
+/**
+ * Class responsible for decoding images around the cursor position before they are shown.
+ * It is meant to be used from the JavaFX application thread only.
+ */
+public final class ImagePrefetcher {
+
+    private static final int NO_INDEX = -1;
+
+    private final ImageDecoder imageDecoder;
+    private final ImageCache imageCache;
+    private final int aheadCount;
+    private final int behindCount;
+    private final Map<FileEntry, Decoding> window;
+    private int previousIndex;
+    private boolean movingForward;
+
+    public ImagePrefetcher(final ImageDecoder imageDecoder, final ImageCache imageCache, final int aheadCount, final int behindCount) {
+        this.imageDecoder = imageDecoder;
+        this.imageCache = imageCache;
+        this.aheadCount = aheadCount;
+        this.behindCount = behindCount;
+        this.window = new HashMap<>();
+        this.previousIndex = NO_INDEX;
+        this.movingForward = true;
+    }
+
+    public CompletableFuture<DecodedImage> fetch(final RandomAccessCursor<FileEntry> files) {
+        return fetch(files, 0, 0);
+    }
+
+    /**
+     * Returns decoding of the image under the cursor and schedules decoding of its neighbours,
+     * all of them scaled down to the requested bounding box. Decodings that fell out of the window, or
+     * were requested at another size, are cancelled.
+     */
+    public CompletableFuture<DecodedImage> fetch(final RandomAccessCursor<FileEntry> files, final double requestedWidth, final double requestedHeight) {
+        var index = files.getIndex();
+        updateDirection(files.getSize(), index);
+        var windowFiles = getWindowFiles(files, index);
+        var iterator = this.window.entrySet().iterator();
+        while (iterator.hasNext()) {
+            var entry = iterator.next();
+            var decoding = entry.getValue();
+            if (!windowFiles.contains(entry.getKey()) || !decoding.isRequestedAt(requestedWidth, requestedHeight)) {
+                decoding.image.cancel(false);
+                iterator.remove();
+            }
+        }
+        for (final FileEntry file : windowFiles) {
+            this.window.computeIfAbsent(file, windowFile -> new Decoding(loadImage(windowFile, requestedWidth, requestedHeight), requestedWidth, requestedHeight));
+        }
+        var file = files.getCurrentValue();
+        return this.window.get(file).image;
+    }
+
+    /**
+     * Returns decoding of the given file at full resolution, outside of the prefetch window. The decoded
+     * image replaces any downsampled one in the cache.
+     */
+    public CompletableFuture<DecodedImage> fetchFullResolution(final FileEntry file) {
+        var cachedImage = this.imageCache.get(file);
+        if (cachedImage != null && isDecodedAt(cachedImage, 0, 0)) {
+            return CompletableFuture.completedFuture(cachedImage);
+        }
+        return decode(file, 0, 0);
+    }
+
+    /**
+     * Returns decoding of the preview embedded in the given file, outside of the prefetch window. It
+     * completes with null when the file has no preview.
+     */
+    public CompletableFuture<Image> fetchPreview(final FileEntry file) {
+        return this.imageDecoder.decodePreview(file.getPath());
+    }
+
+    /**
+     * Returns the cached image if it is at full resolution or was decoded for the same bounding box,
+     * otherwise schedules its decoding. The decoder clamps the box to the dimensions of each file, so
+     * images fitting in it are cached at full resolution.
+     */
+    private CompletableFuture<DecodedImage> loadImage(final FileEntry file, final double requestedWidth, final double requestedHeight) {
+        var cachedImage = this.imageCache.get(file);
+        if (cachedImage != null && isDecodedAt(cachedImage, requestedWidth, requestedHeight)) {
+            return CompletableFuture.completedFuture(cachedImage);
+        }
+        return decode(file, requestedWidth, requestedHeight);
+    }
+
+    private static boolean isDecodedAt(final DecodedImage decodedImage, final double requestedWidth, final double requestedHeight) {
+        var image = decodedImage.getImage();
+        var imageRequestedWidth = image.getRequestedWidth();
+        var imageRequestedHeight = image.getRequestedHeight();
+        if (imageRequestedWidth <= 0 && imageRequestedHeight <= 0) {
+            return true;
+        }
+        return imageRequestedWidth == requestedWidth && imageRequestedHeight == requestedHeight;
+    }
+
+    private CompletableFuture<DecodedImage> decode(final FileEntry file, final double requestedWidth, final double requestedHeight) {
+        var image = this.imageDecoder.decode(file.getPath(), requestedWidth, requestedHeight);
+        image.thenAccept(decodedImage -> this.imageCache.put(file, decodedImage));
+        return image;
+    }
+
+    /**
+     * Whether the file is in the prefetch window and its decoding has finished. A failed decoding is
+     * finished too, as waiting would not make the image decoded.
+     */
+    public boolean isDecoded(final FileEntry file) {
+        var decoding = this.window.get(file);
+        return decoding != null && decoding.image.isDone();
+    }
+
+    /**
+     * Cancels and forgets all scheduled decodings
+     */
+    public void clear() {
+        this.window.values().forEach(decoding -> decoding.image.cancel(false));
+        this.window.clear();
+        this.previousIndex = NO_INDEX;
+        this.movingForward = true;
+    }
+
+    private void updateDirection(final int size, final int index) {
+        if (index == Math.floorMod(this.previousIndex + 1, size)) {
+            this.movingForward = true;
+        } else if (index == Math.floorMod(this.previousIndex - 1, size)) {
+            this.movingForward = false;
+        }
+        this.previousIndex = index;
+    }
+
+    /**
+     * Returns files of the window ordered by priority: the current one, then the ones in the direction
+     * of movement, then the ones behind. Indices wrap around, as the cursor is cyclic.
+     */
+    private Set<FileEntry> getWindowFiles(final RandomAccessCursor<FileEntry> files, final int index) {
+        var size = files.getSize();
+        var step = this.movingForward ? 1 : -1;
+        Set<FileEntry> windowFiles = new LinkedHashSet<>();
+        windowFiles.add(files.getValue(index));
+        for (int distance = 1; distance <= this.aheadCount && windowFiles.size() < size; distance++) {
+            var aheadIndex = Math.floorMod(index + step * distance, size);
+            windowFiles.add(files.getValue(aheadIndex));
+        }
+        for (int distance = 1; distance <= this.behindCount && windowFiles.size() < size; distance++) {
+            var behindIndex = Math.floorMod(index - step * distance, size);
+            windowFiles.add(files.getValue(behindIndex));
+        }
+        return windowFiles;
+    }
+
+    /**
+     * Decoding in the window, along with the bounding box it was requested at
+     */
+    private static final class Decoding {
+
+        private final CompletableFuture<DecodedImage> image;
+        private final double requestedWidth;
+        private final double requestedHeight;
+
+        private Decoding(final CompletableFuture<DecodedImage> image, final double requestedWidth, final double requestedHeight) {
+            this.image = image;
+            this.requestedWidth = requestedWidth;
+            this.requestedHeight = requestedHeight;
+        }
+
+        private boolean isRequestedAt(final double requestedWidth, final double requestedHeight) {
+            return this.requestedWidth == requestedWidth && this.requestedHeight == requestedHeight;
+        }
+    }
+}
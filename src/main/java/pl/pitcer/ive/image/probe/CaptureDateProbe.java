@@ -0,0 +1,140 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.probe;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Class responsible for reading the date a JPEG image was taken from its EXIF metadata. The original date
+ * of the EXIF directory is preferred over the modification date of IFD0. EXIF dates have no time zone,
+ * so the date is the local date of the camera.
+ */
+public final class CaptureDateProbe {
+
+    private static final int DATE_TIME_TAG = 0x0132;
+    private static final int EXIF_IFD_POINTER_TAG = 0x8769;
+    private static final int DATE_TIME_ORIGINAL_TAG = 0x9003;
+    private static final int DATE_TIME_LENGTH = 19;
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("uuuu:MM:dd HH:mm:ss");
+
+    private CaptureDateProbe() {
+        throw new UnsupportedOperationException("Cannot create an instance of this class");
+    }
+
+    /**
+     * Returns the capture date of the given JPEG image, or null when it is not a JPEG image, has no date
+     * or its metadata is malformed
+     */
+    @Nullable
+    public static LocalDateTime probe(final Path file) throws IOException {
+        try (var channel = FileChannel.open(file)) {
+            return probe(channel);
+        }
+    }
+
+    /**
+     * Returns the capture date of the image read from the channel, which is left open
+     *
+     * @see #probe(Path)
+     */
+    @Nullable
+    public static LocalDateTime probe(final FileChannel channel) throws IOException {
+        return JpegSegments.walk(channel::read, (marker, contentPosition, contentLength) -> probeSegment(channel, marker, contentPosition, contentLength));
+    }
+
+    @Nullable
+    private static LocalDateTime probeSegment(final FileChannel channel, final int marker, final long contentPosition, final int contentLength) throws IOException {
+        if (marker != JpegSegments.APP1) {
+            return null;
+        }
+        var content = ByteBuffer.allocate(contentLength);
+        if (!JpegSegments.read(channel::read, content, contentPosition, contentLength)) {
+            return null;
+        }
+        var tiff = ExifThumbnailExtractor.toTiff(content);
+        if (tiff == null) {
+            return null;
+        }
+        try {
+            return probeTiff(tiff);
+        } catch (final IndexOutOfBoundsException exception) {
+            return null;
+        }
+    }
+
+    @Nullable
+    private static LocalDateTime probeTiff(final ByteBuffer tiff) {
+        var ifd0Offset = tiff.getInt(4);
+        var exifIfdOffset = findEntry(tiff, ifd0Offset, EXIF_IFD_POINTER_TAG);
+        if (exifIfdOffset != -1) {
+            var originalDateOffset = findEntry(tiff, tiff.getInt(exifIfdOffset + ExifThumbnailExtractor.IFD_ENTRY_VALUE_OFFSET), DATE_TIME_ORIGINAL_TAG);
+            var originalDate = readDate(tiff, originalDateOffset);
+            if (originalDate != null) {
+                return originalDate;
+            }
+        }
+        return readDate(tiff, findEntry(tiff, ifd0Offset, DATE_TIME_TAG));
+    }
+
+    /**
+     * Returns the offset of the entry with the tag in the directory, or -1 when there is none
+     */
+    private static int findEntry(final ByteBuffer tiff, final int ifdOffset, final int tag) {
+        var entryCount = tiff.getShort(ifdOffset) & 0xFFFF;
+        for (int entry = 0; entry < entryCount; entry++) {
+            var entryOffset = ifdOffset + Short.BYTES + entry * ExifThumbnailExtractor.IFD_ENTRY_SIZE;
+            if ((tiff.getShort(entryOffset) & 0xFFFF) == tag) {
+                return entryOffset;
+            }
+        }
+        return -1;
+    }
+
+    @Nullable
+    private static LocalDateTime readDate(final ByteBuffer tiff, final int entryOffset) {
+        if (entryOffset == -1) {
+            return null;
+        }
+        var dateOffset = tiff.getInt(entryOffset + ExifThumbnailExtractor.IFD_ENTRY_VALUE_OFFSET);
+        if (dateOffset < 0 || dateOffset > tiff.limit() - DATE_TIME_LENGTH) {
+            return null;
+        }
+        var dateBytes = new byte[DATE_TIME_LENGTH];
+        tiff.position(dateOffset).get(dateBytes);
+        try {
+            return LocalDateTime.parse(new String(dateBytes, StandardCharsets.US_ASCII), DATE_TIME_FORMATTER);
+        } catch (final DateTimeParseException exception) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.probe;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Class responsible for reading dimensions of PNG and JPEG images from their headers, without decoding
+ * their pixels. Only the PNG signature and IHDR chunk, or the JPEG segment headers up to the SOF segment
+ * are read, skipping over segment contents.
+ */
+public final class DimensionProbe {
+
+    private static final long PNG_SIGNATURE = 0x89504E470D0A1A0AL;
+    private static final int PNG_IHDR_TYPE = 0x49484452;
+    private static final int PNG_HEADER_SIZE = 24;
+    private static final int JPEG_SOF0 = 0xC0;
+    private static final int JPEG_SOF15 = 0xCF;
+    private static final int JPEG_DHT = 0xC4;
+    private static final int JPEG_JPG = 0xC8;
+    private static final int JPEG_DAC = 0xCC;
+    private static final int JPEG_SOF_SIZE = 5;
+
+    private DimensionProbe() {
+        throw new UnsupportedOperationException("Cannot create an instance of this class");
+    }
+
+    /**
+     * Returns dimensions of the given image, or null when it is neither a PNG nor a JPEG image, or its
+     * header is malformed
+     */
+    @Nullable
+    public static ImageDimensions probe(final Path file) throws IOException {
+        try (var channel = FileChannel.open(file)) {
+            return probe(channel);
+        }
+    }
+
+    /**
+     * Returns dimensions of the image read from the channel, which is left open
+     *
+     * @see #probe(Path)
+     */
+    @Nullable
+    public static ImageDimensions probe(final FileChannel channel) throws IOException {
+        return probe(channel::read);
+    }
+
+    /**
+     * Returns dimensions of the image held in memory, such as a preview embedded in another image
+     *
+     * @see #probe(Path)
+     */
+    @Nullable
+    public static ImageDimensions probe(final byte[] content) throws IOException {
+        return probe(JpegSegments.of(content));
+    }
+
+    @Nullable
+    private static ImageDimensions probe(final JpegSegments.Source channel) throws IOException {
+        var buffer = ByteBuffer.allocate(PNG_HEADER_SIZE);
+        if (!JpegSegments.read(channel, buffer, 0, Short.BYTES)) {
+            return null;
+        }
+        if ((buffer.getShort(0) & 0xFFFF) == JpegSegments.SOI) {
+            return JpegSegments.walk(channel, (marker, contentPosition, contentLength) -> probeJpegFrame(channel, buffer, marker, contentPosition, contentLength));
+        }
+        return probePng(channel, buffer);
+    }
+
+    @Nullable
+    private static ImageDimensions probePng(final JpegSegments.Source channel, final ByteBuffer buffer) throws IOException {
+        if (!JpegSegments.read(channel, buffer, 0, PNG_HEADER_SIZE)) {
+            return null;
+        }
+        if (buffer.getLong(0) != PNG_SIGNATURE || buffer.getInt(12) != PNG_IHDR_TYPE) {
+            return null;
+        }
+        return toDimensions(buffer.getInt(16), buffer.getInt(20));
+    }
+
+    @Nullable
+    private static ImageDimensions probeJpegFrame(final JpegSegments.Source channel, final ByteBuffer buffer, final int marker, final long contentPosition, final int contentLength) throws IOException {
+        if (!isStartOfFrame(marker) || contentLength < JPEG_SOF_SIZE || !JpegSegments.read(channel, buffer, contentPosition, JPEG_SOF_SIZE)) {
+            return null;
+        }
+        var height = buffer.getShort(1) & 0xFFFF;
+        var width = buffer.getShort(3) & 0xFFFF;
+        return toDimensions(width, height);
+    }
+
+    private static boolean isStartOfFrame(final int marker) {
+        return marker >= JPEG_SOF0 && marker <= JPEG_SOF15 && marker != JPEG_DHT && marker != JPEG_JPG && marker != JPEG_DAC;
+    }
+
+    @Nullable
+    private static ImageDimensions toDimensions(final int width, final int height) {
+        return width > 0 && height > 0 ? new ImageDimensions(width, height) : null;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.probe;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Class responsible for extracting the preview JPEG that cameras embed in the EXIF metadata of JPEG images.
+ * Only segment headers before the image data and APP1 segments are read. The preview is found through the
+ * offset and length tags of IFD1, the directory describing the thumbnail.
+ */
+public final class ExifThumbnailExtractor {
+
+    private static final byte[] EXIF_HEADER = {'E', 'x', 'i', 'f', 0, 0};
+    private static final short TIFF_LITTLE_ENDIAN = 0x4949;
+    private static final short TIFF_BIG_ENDIAN = 0x4D4D;
+    private static final int TIFF_MAGIC = 42;
+    private static final int TIFF_HEADER_SIZE = 8;
+    static final int IFD_ENTRY_SIZE = 12;
+    static final int IFD_ENTRY_VALUE_OFFSET = 8;
+    private static final int THUMBNAIL_OFFSET_TAG = 0x0201;
+    private static final int THUMBNAIL_LENGTH_TAG = 0x0202;
+
+    private ExifThumbnailExtractor() {
+        throw new UnsupportedOperationException("Cannot create an instance of this class");
+    }
+
+    /**
+     * Returns the embedded preview of the given JPEG image as JPEG data, or null when it is not a JPEG
+     * image, has no preview or its metadata is malformed
+     */
+    @Nullable
+    public static byte[] extract(final Path file) throws IOException {
+        try (var channel = FileChannel.open(file)) {
+            return JpegSegments.walk(channel::read, (marker, contentPosition, contentLength) -> extractFromSegment(channel, marker, contentPosition, contentLength));
+        }
+    }
+
+    @Nullable
+    private static byte[] extractFromSegment(final FileChannel channel, final int marker, final long contentPosition, final int contentLength) throws IOException {
+        if (marker != JpegSegments.APP1) {
+            return null;
+        }
+        var content = ByteBuffer.allocate(contentLength);
+        if (!JpegSegments.read(channel::read, content, contentPosition, contentLength)) {
+            return null;
+        }
+        return extractFromApp1(content);
+    }
+
+    /**
+     * Returns the preview found in the given APP1 segment content, or null when it is not EXIF metadata
+     * or has no preview
+     */
+    @Nullable
+    static byte[] extractFromApp1(final ByteBuffer content) {
+        var tiff = toTiff(content);
+        if (tiff == null) {
+            return null;
+        }
+        try {
+            return extractFromTiff(tiff);
+        } catch (final IndexOutOfBoundsException exception) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the TIFF structure of EXIF metadata in the given APP1 segment content, set to its byte
+     * order, or null when it is not EXIF metadata
+     */
+    @Nullable
+    static ByteBuffer toTiff(final ByteBuffer content) {
+        if (content.limit() < EXIF_HEADER.length + TIFF_HEADER_SIZE) {
+            return null;
+        }
+        for (int index = 0; index < EXIF_HEADER.length; index++) {
+            if (content.get(index) != EXIF_HEADER[index]) {
+                return null;
+            }
+        }
+        var tiff = content.position(EXIF_HEADER.length).slice();
+        var byteOrder = tiff.getShort(0);
+        if (byteOrder == TIFF_LITTLE_ENDIAN) {
+            tiff.order(ByteOrder.LITTLE_ENDIAN);
+        } else if (byteOrder != TIFF_BIG_ENDIAN) {
+            return null;
+        }
+        return tiff.getShort(2) == TIFF_MAGIC ? tiff : null;
+    }
+
+    @Nullable
+    private static byte[] extractFromTiff(final ByteBuffer tiff) {
+        var ifd0Offset = tiff.getInt(4);
+        var ifd0EntryCount = tiff.getShort(ifd0Offset) & 0xFFFF;
+        var ifd1Offset = tiff.getInt(ifd0Offset + Short.BYTES + ifd0EntryCount * IFD_ENTRY_SIZE);
+        if (ifd1Offset <= 0) {
+            return null;
+        }
+        var ifd1EntryCount = tiff.getShort(ifd1Offset) & 0xFFFF;
+        var thumbnailOffset = -1;
+        var thumbnailLength = -1;
+        for (int entry = 0; entry < ifd1EntryCount; entry++) {
+            var entryOffset = ifd1Offset + Short.BYTES + entry * IFD_ENTRY_SIZE;
+            var tag = tiff.getShort(entryOffset) & 0xFFFF;
+            if (tag == THUMBNAIL_OFFSET_TAG) {
+                thumbnailOffset = tiff.getInt(entryOffset + IFD_ENTRY_VALUE_OFFSET);
+            } else if (tag == THUMBNAIL_LENGTH_TAG) {
+                thumbnailLength = tiff.getInt(entryOffset + IFD_ENTRY_VALUE_OFFSET);
+            }
+        }
+        if (thumbnailOffset <= 0 || thumbnailLength <= Short.BYTES || thumbnailLength > tiff.limit() - thumbnailOffset) {
+            return null;
+        }
+        var thumbnail = new byte[thumbnailLength];
+        tiff.position(thumbnailOffset).get(thumbnail);
+        var soi = (thumbnail[0] & 0xFF) << 8 | thumbnail[1] & 0xFF;
+        return soi == JpegSegments.SOI ? thumbnail : null;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.probe;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Class responsible for walking JPEG segments that precede the image data, reading only their markers
+ * and lengths and skipping over their contents. Segments are read from a file channel, or from JPEG data
+ * already in memory.
+ */
+final class JpegSegments {
+
+    static final int SOI = 0xFFD8;
+    static final int APP1 = 0xE1;
+    private static final int MARKER_PREFIX = 0xFF;
+    private static final int SOS = 0xDA;
+    private static final int EOI = 0xD9;
+    private static final int TEM = 0x01;
+    private static final int RST0 = 0xD0;
+    private static final int RST7 = 0xD7;
+    private static final int MAXIMUM_SEGMENTS = 1024;
+
+    /**
+     * Handler of a segment that returns a result ending the walk, or null to continue it
+     */
+    @FunctionalInterface
+    interface SegmentHandler<T> {
+
+        @Nullable
+        T handle(int marker, long contentPosition, int contentLength) throws IOException;
+    }
+
+    /**
+     * Source of bytes read at given positions, like {@link java.nio.channels.FileChannel#read(ByteBuffer, long)}
+     */
+    @FunctionalInterface
+    interface Source {
+
+        /**
+         * Reads bytes from the given position into the buffer
+         *
+         * @return the number of bytes read, or -1 when the position is at or past the end
+         */
+        int read(ByteBuffer buffer, long position) throws IOException;
+    }
+
+    private JpegSegments() {
+        throw new UnsupportedOperationException("Cannot create an instance of this class");
+    }
+
+    /**
+     * Passes segments of the JPEG file to the handler until it returns a result, or the image data or the end
+     * of the file is reached
+     *
+     * @return the result of the handler, or null when the file is not a JPEG image, is malformed or the
+     * handler returned no result
+     */
+    @Nullable
+    static <T> T walk(final Source channel, final SegmentHandler<T> handler) throws IOException {
+        var buffer = ByteBuffer.allocate(Short.BYTES);
+        if (!read(channel, buffer, 0, Short.BYTES) || (buffer.getShort(0) & 0xFFFF) != SOI) {
+            return null;
+        }
+        long position = Short.BYTES;
+        for (int segment = 0; segment < MAXIMUM_SEGMENTS; segment++) {
+            if (!read(channel, buffer, position, Short.BYTES) || (buffer.get(0) & 0xFF) != MARKER_PREFIX) {
+                return null;
+            }
+            var marker = buffer.get(1) & 0xFF;
+            if (marker == MARKER_PREFIX) {
+                position++;
+                continue;
+            }
+            position += Short.BYTES;
+            if (marker == TEM || (marker >= RST0 && marker <= RST7)) {
+                continue;
+            }
+            if (marker == SOS || marker == EOI || !read(channel, buffer, position, Short.BYTES)) {
+                return null;
+            }
+            var length = buffer.getShort(0) & 0xFFFF;
+            if (length < Short.BYTES) {
+                return null;
+            }
+            var result = handler.handle(marker, position + Short.BYTES, length - Short.BYTES);
+            if (result != null) {
+                return result;
+            }
+            position += length;
+        }
+        return null;
+    }
+
+    /**
+     * Reads exactly the given number of bytes from the given position into the beginning of the buffer
+     *
+     * @return false when the file ends before
+     */
+    static boolean read(final Source channel, final ByteBuffer buffer, final long position, final int count) throws IOException {
+        buffer.clear().limit(count);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a source reading the given JPEG data
+     */
+    static Source of(final byte[] content) {
+        return (buffer, position) -> {
+            if (position >= content.length) {
+                return -1;
+            }
+            var count = (int) Math.min(buffer.remaining(), content.length - position);
+            buffer.put(content, (int) position, count);
+            return count;
+        };
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.slideshow;
+
+import javafx.animation.AnimationTimer;
+
+/**
+ * Slideshow switching images on pulses of the JavaFX application thread. Images are shown only once they
+ * are already decoded by the prefetcher, so a switch is just a swap of the shown image, and a late
+ * decoding is handled according to the {@link SlideshowPolicy}.
+ */
+public final class Slideshow extends AnimationTimer implements Playable {
+
+    private final SlideshowDisplay display;
+    private final SlideshowScheduler scheduler;
+    private boolean playing;
+
+    public Slideshow(final SlideshowDisplay display, final long intervalNanos, final SlideshowPolicy policy) {
+        this.display = display;
+        this.scheduler = new SlideshowScheduler(intervalNanos, policy);
+    }
+
+    @Override
+    public void start() {
+        this.scheduler.start(System.nanoTime());
+        this.playing = true;
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        this.playing = false;
+        super.stop();
+    }
+
+    @Override
+    public boolean isPlaying() {
+        return this.playing;
+    }
+
+    @Override
+    public void togglePlaying() {
+        if (this.playing) {
+            stop();
+        } else {
+            start();
+        }
+    }
+
+    @Override
+    public void handle(final long now) {
+        var tick = this.scheduler.tick(now, this.display.isNextImageReady());
+        if (tick == SlideshowScheduler.Tick.SHOW) {
+            this.display.showNextImage();
+        } else if (tick == SlideshowScheduler.Tick.SKIP) {
+            this.display.skipNextImage();
+        }
+    }
+
+    public SlideshowStatistics getStatistics() {
+        return this.scheduler.getStatistics();
+    }
+}
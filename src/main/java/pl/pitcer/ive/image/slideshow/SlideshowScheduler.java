@@ -0,0 +1,101 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.slideshow;
+
+/**
+ * Timing of a slideshow, independent of the clock driving it. Deadlines are laid on a fixed grid of
+ * intervals from the start, so jitter of single pulses does not accumulate. When the grid falls behind,
+ * after holding or a long stall, it is laid again from the current time.
+ */
+final class SlideshowScheduler {
+
+    /**
+     * What should happen on a pulse
+     */
+    enum Tick {
+        WAIT,
+        SHOW,
+        SKIP
+    }
+
+    private final long intervalNanos;
+    private final SlideshowPolicy policy;
+    private long deadline;
+    private boolean holding;
+    private long shownCount;
+    private long skippedCount;
+    private long heldCount;
+    private long totalJitterNanos;
+    private long maximumJitterNanos;
+
+    SlideshowScheduler(final long intervalNanos, final SlideshowPolicy policy) {
+        this.intervalNanos = intervalNanos;
+        this.policy = policy;
+    }
+
+    void start(final long now) {
+        this.deadline = now + this.intervalNanos;
+        this.holding = false;
+    }
+
+    Tick tick(final long now, final boolean nextImageReady) {
+        if (now < this.deadline) {
+            return Tick.WAIT;
+        }
+        if (nextImageReady) {
+            recordJitter(now - this.deadline);
+            this.shownCount++;
+            this.holding = false;
+            advanceDeadline(now);
+            return Tick.SHOW;
+        }
+        if (this.policy == SlideshowPolicy.SKIP) {
+            this.skippedCount++;
+            advanceDeadline(now);
+            return Tick.SKIP;
+        }
+        if (!this.holding) {
+            this.holding = true;
+            this.heldCount++;
+        }
+        return Tick.WAIT;
+    }
+
+    private void recordJitter(final long jitterNanos) {
+        this.totalJitterNanos += jitterNanos;
+        this.maximumJitterNanos = Math.max(this.maximumJitterNanos, jitterNanos);
+    }
+
+    private void advanceDeadline(final long now) {
+        this.deadline += this.intervalNanos;
+        if (this.deadline <= now) {
+            this.deadline = now + this.intervalNanos;
+        }
+    }
+
+    SlideshowStatistics getStatistics() {
+        return new SlideshowStatistics(this.shownCount, this.skippedCount, this.heldCount, this.totalJitterNanos, this.maximumJitterNanos);
+    }
+}
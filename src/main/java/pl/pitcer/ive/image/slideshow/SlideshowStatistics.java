@@ -0,0 +1,87 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.slideshow;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snapshot of slideshow timing counters. Jitter is the delay between the deadline of an image and the
+ * pulse it was shown on.
+ */
+public final class SlideshowStatistics {
+
+    private final long shownCount;
+    private final long skippedCount;
+    private final long heldCount;
+    private final long totalJitterNanos;
+    private final long maximumJitterNanos;
+
+    public SlideshowStatistics(final long shownCount, final long skippedCount, final long heldCount, final long totalJitterNanos, final long maximumJitterNanos) {
+        this.shownCount = shownCount;
+        this.skippedCount = skippedCount;
+        this.heldCount = heldCount;
+        this.totalJitterNanos = totalJitterNanos;
+        this.maximumJitterNanos = maximumJitterNanos;
+    }
+
+    public long getShownCount() {
+        return this.shownCount;
+    }
+
+    /**
+     * Number of images passed over because they were not decoded by their deadlines
+     */
+    public long getSkippedCount() {
+        return this.skippedCount;
+    }
+
+    /**
+     * Number of deadlines the slideshow was held past because the next image was not decoded
+     */
+    public long getHeldCount() {
+        return this.heldCount;
+    }
+
+    public double getMeanJitterMillis() {
+        return this.shownCount == 0 ? 0 : toMillis(this.totalJitterNanos) / this.shownCount;
+    }
+
+    public double getMaximumJitterMillis() {
+        return toMillis(this.maximumJitterNanos);
+    }
+
+    private static double toMillis(final long nanos) {
+        return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public String toString() {
+        return "shown=" + this.shownCount
+            + ", skipped=" + this.skippedCount
+            + ", held=" + this.heldCount
+            + ", meanJitter=" + getMeanJitterMillis() + "ms"
+            + ", maximumJitter=" + getMaximumJitterMillis() + "ms";
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.thumbnail;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import javafx.scene.image.Image;
+import org.jetbrains.annotations.Nullable;
+import pl.pitcer.ive.image.loader.FileEntry;
+import pl.pitcer.ive.image.probe.DimensionProbe;
+import pl.pitcer.ive.image.probe.ExifThumbnailExtractor;
+import pl.pitcer.ive.image.probe.ImageDimensions;
+
+/**
+ * Class responsible for providing thumbnails of image files, reading them from the store or generating
+ * and storing them outside of the JavaFX application thread. Thumbnails of JPEG images are generated from
+ * their embedded previews when they are large enough, without decoding the full images. The store is opened
+ * when the first thumbnail is requested.
+ */
+public final class ThumbnailGenerator implements Closeable {
+
+    private final Supplier<ThumbnailStore> storeOpener;
+    private final Executor executor;
+    private final int thumbnailSize;
+    private final Map<FileEntry, CompletableFuture<Thumbnail>> pendingThumbnails;
+    @Nullable
+    private ThumbnailStore store;
+    private boolean storeOpened;
+
+    /**
+     * @param storeOpener opener of the store of generated thumbnails, returning null when they are not persisted
+     * @param thumbnailSize maximum width and height of generated thumbnails
+     */
+    public ThumbnailGenerator(final Supplier<ThumbnailStore> storeOpener, final Executor executor, final int thumbnailSize) {
+        this.storeOpener = storeOpener;
+        this.executor = executor;
+        this.thumbnailSize = thumbnailSize;
+        this.pendingThumbnails = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Schedules loading of the thumbnail of the given file. Concurrent requests for the same file share
+     * one future. Cancelling it before a worker picks it up prevents the thumbnail from being generated.
+     */
+    public CompletableFuture<Thumbnail> getThumbnail(final FileEntry file) {
+        var pendingThumbnail = this.pendingThumbnails.get(file);
+        if (pendingThumbnail != null && !pendingThumbnail.isCancelled()) {
+            return pendingThumbnail;
+        }
+        var thumbnail = new CompletableFuture<Thumbnail>();
+        this.pendingThumbnails.put(file, thumbnail);
+        this.executor.execute(() -> {
+            try {
+                if (!thumbnail.isDone()) {
+                    thumbnail.complete(loadThumbnail(file));
+                }
+            } catch (final RuntimeException exception) {
+                thumbnail.completeExceptionally(exception);
+            } finally {
+                this.pendingThumbnails.remove(file, thumbnail);
+            }
+        });
+        return thumbnail;
+    }
+
+    private Thumbnail loadThumbnail(final FileEntry file) {
+        var storedThumbnail = getStoredThumbnail(file);
+        if (storedThumbnail != null) {
+            return storedThumbnail;
+        }
+        var thumbnail = generateThumbnail(file);
+        storeThumbnail(file, thumbnail);
+        return thumbnail;
+    }
+
+    @Nullable
+    private synchronized Thumbnail getStoredThumbnail(final FileEntry file) {
+        var store = getStore();
+        if (store == null) {
+            return null;
+        }
+        try {
+            return store.get(file);
+        } catch (final IOException exception) {
+            exception.printStackTrace();
+            return null;
+        }
+    }
+
+    private synchronized void storeThumbnail(final FileEntry file, final Thumbnail thumbnail) {
+        var store = getStore();
+        if (store == null) {
+            return;
+        }
+        try {
+            store.put(file, thumbnail);
+        } catch (final IOException exception) {
+            exception.printStackTrace();
+        }
+    }
+
+    @Nullable
+    private ThumbnailStore getStore() {
+        if (!this.storeOpened) {
+            this.store = this.storeOpener.get();
+            this.storeOpened = true;
+        }
+        return this.store;
+    }
+
+    /**
+     * Closes the store, if it was opened. Thumbnails generated afterwards are not stored.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        var store = this.store;
+        this.store = null;
+        this.storeOpened = true;
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    private Thumbnail generateThumbnail(final FileEntry file) {
+        var previewThumbnail = generatePreviewThumbnail(file);
+        if (previewThumbnail != null) {
+            return previewThumbnail;
+        }
+        try (var imageInputStream = Files.newInputStream(file.getPath())) {
+            var image = new Image(imageInputStream, this.thumbnailSize, this.thumbnailSize, true, true);
+            if (image.isError()) {
+                throw new CompletionException(image.getException());
+            }
+            return Thumbnail.of(image);
+        } catch (final IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    @Nullable
+    private Thumbnail generatePreviewThumbnail(final FileEntry file) {
+        byte[] previewBytes;
+        ImageDimensions previewDimensions;
+        try {
+            previewBytes = ExifThumbnailExtractor.extract(file.getPath());
+            previewDimensions = previewBytes == null ? null : DimensionProbe.probe(previewBytes);
+        } catch (final IOException exception) {
+            return null;
+        }
+        if (previewDimensions == null || Math.max(previewDimensions.getWidth(), previewDimensions.getHeight()) < this.thumbnailSize) {
+            return null;
+        }
+        var image = new Image(new ByteArrayInputStream(previewBytes), this.thumbnailSize, this.thumbnailSize, true, true);
+        return image.isError() ? null : Thumbnail.of(image);
+    }
+}
@@ -0,0 +1,311 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.thumbnail;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.jetbrains.annotations.Nullable;
+import pl.pitcer.ive.image.loader.FileEntry;
+
+/**
+ * Persistent store of thumbnails packed into fixed-size slots of a memory-mapped file. Slots are keyed by
+ * the file path and remember the modification time and size of the file, so a changed file misses its
+ * stale thumbnail. An in-memory index of slots is rebuilt from slot headers when the store is opened.
+ * When all slots are used, they are reused in round-robin order. Slots with a corrupt header are treated
+ * as empty. The file is locked exclusively while the store is open, so it is never shared by processes.
+ *
+ * <p>The file starts with a header, followed by slots. Every slot has a header with its state, the file
+ * modification time and size, the thumbnail dimensions and the UTF-8 file path, followed by ARGB pixels
+ * of a thumbnail.
+ */
+public final class ThumbnailStore implements Closeable {
+
+    private static final int MAGIC = 0x49564554;
+    private static final int VERSION = 1;
+    private static final int FILE_HEADER_SIZE = 64;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int THUMBNAIL_SIZE_OFFSET = 8;
+    private static final int SLOT_COUNT_OFFSET = 12;
+    private static final int NEXT_EVICTED_SLOT_OFFSET = 16;
+    private static final int SLOT_HEADER_SIZE = 1024;
+    private static final int STATE_OFFSET = 0;
+    private static final int LAST_MODIFIED_OFFSET = 4;
+    private static final int FILE_SIZE_OFFSET = 12;
+    private static final int WIDTH_OFFSET = 20;
+    private static final int HEIGHT_OFFSET = 24;
+    private static final int PATH_LENGTH_OFFSET = 28;
+    private static final int PATH_OFFSET = 32;
+    private static final int MAXIMUM_PATH_LENGTH = SLOT_HEADER_SIZE - PATH_OFFSET;
+    private static final int EMPTY_STATE = 0;
+    private static final int USED_STATE = 1;
+    private static final int SLOTS_PER_SEGMENT = 64;
+    private static final int BYTES_PER_PIXEL = 4;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer fileHeader;
+    private final List<MappedByteBuffer> segments;
+    private final Map<String, Integer> index;
+    private final String[] slotPaths;
+    private final int thumbnailSize;
+    private final int slotSize;
+    private final int capacity;
+    private int slotCount;
+    private int nextEvictedSlot;
+
+    private ThumbnailStore(final FileChannel channel, final MappedByteBuffer fileHeader, final int thumbnailSize, final int capacity) {
+        this.channel = channel;
+        this.fileHeader = fileHeader;
+        this.segments = new ArrayList<>();
+        this.index = new HashMap<>();
+        this.slotPaths = new String[capacity];
+        this.thumbnailSize = thumbnailSize;
+        this.slotSize = SLOT_HEADER_SIZE + thumbnailSize * thumbnailSize * BYTES_PER_PIXEL;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Opens the store, creating it when it does not exist, or when it was created with a different thumbnail
+     * size or a larger capacity
+     *
+     * @param thumbnailSize maximum width and height of stored thumbnails
+     * @param capacity maximum number of stored thumbnails
+     * @throws IOException when the store is already open, in this or another process
+     */
+    public static ThumbnailStore open(final Path file, final int thumbnailSize, final int capacity) throws IOException {
+        Files.createDirectories(file.getParent());
+        var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (!tryLock(channel)) {
+                throw new IOException("Thumbnail store is already open: " + file);
+            }
+            var fileHeader = channel.map(FileChannel.MapMode.READ_WRITE, 0, FILE_HEADER_SIZE);
+            var store = new ThumbnailStore(channel, fileHeader, thumbnailSize, capacity);
+            store.initialize();
+            return store;
+        } catch (final IOException | RuntimeException exception) {
+            channel.close();
+            throw exception;
+        }
+    }
+
+    /**
+     * Locks the whole file exclusively. The lock is released when the channel is closed.
+     */
+    private static boolean tryLock(final FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock() != null;
+        } catch (final OverlappingFileLockException exception) {
+            return false;
+        }
+    }
+
+    private void initialize() throws IOException {
+        var slotCount = this.fileHeader.getInt(SLOT_COUNT_OFFSET);
+        var valid = this.fileHeader.getInt(MAGIC_OFFSET) == MAGIC
+            && this.fileHeader.getInt(VERSION_OFFSET) == VERSION
+            && this.fileHeader.getInt(THUMBNAIL_SIZE_OFFSET) == this.thumbnailSize
+            && slotCount >= 0 && slotCount <= this.capacity;
+        if (!valid) {
+            this.channel.truncate(FILE_HEADER_SIZE);
+            this.fileHeader.putInt(MAGIC_OFFSET, MAGIC);
+            this.fileHeader.putInt(VERSION_OFFSET, VERSION);
+            this.fileHeader.putInt(THUMBNAIL_SIZE_OFFSET, this.thumbnailSize);
+            setSlotCount(0);
+            setNextEvictedSlot(0);
+            return;
+        }
+        this.slotCount = slotCount;
+        this.nextEvictedSlot = Math.floorMod(this.fileHeader.getInt(NEXT_EVICTED_SLOT_OFFSET), this.capacity);
+        for (int slot = 0; slot < slotCount; slot++) {
+            var segment = getSegment(slot);
+            var offset = getSlotOffset(slot);
+            var path = readPath(segment, offset);
+            if (path != null) {
+                var previousSlot = this.index.put(path, slot);
+                if (previousSlot != null) {
+                    this.slotPaths[previousSlot] = null;
+                }
+                this.slotPaths[slot] = path;
+            }
+        }
+    }
+
+    /**
+     * Returns the stored thumbnail of the file, or null when there is none or the file has changed since
+     */
+    @Nullable
+    public synchronized Thumbnail get(final FileEntry file) throws IOException {
+        var path = toKey(file);
+        var slot = this.index.get(path);
+        if (slot == null) {
+            return null;
+        }
+        var segment = getSegment(slot);
+        var offset = getSlotOffset(slot);
+        if (!path.equals(readPath(segment, offset))) {
+            return null;
+        }
+        var lastModified = segment.getLong(offset + LAST_MODIFIED_OFFSET);
+        var fileSize = segment.getLong(offset + FILE_SIZE_OFFSET);
+        if (lastModified != file.getLastModified() || fileSize != file.getSize()) {
+            return null;
+        }
+        var width = segment.getInt(offset + WIDTH_OFFSET);
+        var height = segment.getInt(offset + HEIGHT_OFFSET);
+        var pixels = new int[width * height];
+        slice(segment, offset + SLOT_HEADER_SIZE).asIntBuffer().get(pixels);
+        return new Thumbnail(width, height, pixels);
+    }
+
+    /**
+     * Stores the thumbnail of the file, replacing the previous one. Thumbnails larger than the thumbnail
+     * size and files with paths too long for a slot header are not stored.
+     */
+    public synchronized void put(final FileEntry file, final Thumbnail thumbnail) throws IOException {
+        var path = toKey(file);
+        var pathBytes = path.getBytes(StandardCharsets.UTF_8);
+        var width = thumbnail.getWidth();
+        var height = thumbnail.getHeight();
+        if (pathBytes.length > MAXIMUM_PATH_LENGTH || width > this.thumbnailSize || height > this.thumbnailSize) {
+            return;
+        }
+        var slot = this.index.get(path);
+        if (slot == null) {
+            slot = allocateSlot();
+        }
+        var segment = getSegment(slot);
+        var offset = getSlotOffset(slot);
+        segment.putInt(offset + STATE_OFFSET, EMPTY_STATE);
+        slice(segment, offset + SLOT_HEADER_SIZE).asIntBuffer().put(thumbnail.getPixels(), 0, width * height);
+        segment.putLong(offset + LAST_MODIFIED_OFFSET, file.getLastModified());
+        segment.putLong(offset + FILE_SIZE_OFFSET, file.getSize());
+        segment.putInt(offset + WIDTH_OFFSET, width);
+        segment.putInt(offset + HEIGHT_OFFSET, height);
+        segment.putInt(offset + PATH_LENGTH_OFFSET, pathBytes.length);
+        slice(segment, offset + PATH_OFFSET).put(pathBytes);
+        segment.putInt(offset + STATE_OFFSET, USED_STATE);
+        this.index.put(path, slot);
+        this.slotPaths[slot] = path;
+    }
+
+    public synchronized int getSize() {
+        return this.index.size();
+    }
+
+    private int allocateSlot() {
+        if (this.slotCount < this.capacity) {
+            var slot = this.slotCount;
+            setSlotCount(slot + 1);
+            return slot;
+        }
+        var slot = this.nextEvictedSlot;
+        setNextEvictedSlot((slot + 1) % this.capacity);
+        var evictedPath = this.slotPaths[slot];
+        if (evictedPath != null) {
+            this.index.remove(evictedPath);
+        }
+        return slot;
+    }
+
+    private void setSlotCount(final int slotCount) {
+        this.slotCount = slotCount;
+        this.fileHeader.putInt(SLOT_COUNT_OFFSET, slotCount);
+    }
+
+    private void setNextEvictedSlot(final int nextEvictedSlot) {
+        this.nextEvictedSlot = nextEvictedSlot;
+        this.fileHeader.putInt(NEXT_EVICTED_SLOT_OFFSET, nextEvictedSlot);
+    }
+
+    private static String toKey(final FileEntry file) {
+        return file.getPath().toAbsolutePath().toString();
+    }
+
+    /**
+     * Returns the path of the file whose thumbnail the slot holds, or null when the slot is empty or its
+     * header is corrupt
+     */
+    @Nullable
+    private String readPath(final ByteBuffer segment, final int offset) {
+        var width = segment.getInt(offset + WIDTH_OFFSET);
+        var height = segment.getInt(offset + HEIGHT_OFFSET);
+        var pathLength = segment.getInt(offset + PATH_LENGTH_OFFSET);
+        var valid = segment.getInt(offset + STATE_OFFSET) == USED_STATE
+            && width >= 0 && width <= this.thumbnailSize
+            && height >= 0 && height <= this.thumbnailSize
+            && pathLength > 0 && pathLength <= MAXIMUM_PATH_LENGTH;
+        if (!valid) {
+            return null;
+        }
+        var pathBytes = new byte[pathLength];
+        slice(segment, offset + PATH_OFFSET).get(pathBytes);
+        return new String(pathBytes, StandardCharsets.UTF_8);
+    }
+
+    private static ByteBuffer slice(final ByteBuffer segment, final int offset) {
+        return segment.duplicate().position(offset);
+    }
+
+    /**
+     * Returns the mapped segment holding the slot, mapping it and any segments before it first
+     */
+    private MappedByteBuffer getSegment(final int slot) throws IOException {
+        var segmentIndex = slot / SLOTS_PER_SEGMENT;
+        while (this.segments.size() <= segmentIndex) {
+            var position = FILE_HEADER_SIZE + (long) this.segments.size() * SLOTS_PER_SEGMENT * this.slotSize;
+            var segmentSize = (long) SLOTS_PER_SEGMENT * this.slotSize;
+            var segment = this.channel.map(FileChannel.MapMode.READ_WRITE, position, segmentSize);
+            this.segments.add(segment);
+        }
+        return this.segments.get(segmentIndex);
+    }
+
+    private int getSlotOffset(final int slot) {
+        return slot % SLOTS_PER_SEGMENT * this.slotSize;
+    }
+
+    /**
+     * Flushes the mapped file to the storage device and closes it
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        this.fileHeader.force();
+        this.segments.forEach(MappedByteBuffer::force);
+        this.channel.close();
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.tile;
+
+import java.util.Objects;
+import pl.pitcer.ive.image.loader.FileEntry;
+
+/**
+ * Square part of an image at one level of its {@link TilePyramid}
+ */
+public final class Tile {
+
+    private final FileEntry file;
+    private final int level;
+    private final int column;
+    private final int row;
+
+    public Tile(final FileEntry file, final int level, final int column, final int row) {
+        this.file = file;
+        this.level = level;
+        this.column = column;
+        this.row = row;
+    }
+
+    public FileEntry getFile() {
+        return this.file;
+    }
+
+    public int getLevel() {
+        return this.level;
+    }
+
+    public int getColumn() {
+        return this.column;
+    }
+
+    public int getRow() {
+        return this.row;
+    }
+
+    @Override
+    public boolean equals(final Object object) {
+        if (this == object) {
+            return true;
+        }
+        if (object == null || getClass() != object.getClass()) {
+            return false;
+        }
+        var tile = (Tile) object;
+        return this.level == tile.level && this.column == tile.column && this.row == tile.row && this.file.equals(tile.file);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.file, this.level, this.column, this.row);
+    }
+
+    @Override
+    public String toString() {
+        return this.file.getName() + '/' + this.level + '/' + this.column + ',' + this.row;
+    }
+}
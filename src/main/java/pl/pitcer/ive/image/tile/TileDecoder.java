@@ -0,0 +1,105 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.tile;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javax.imageio.ImageIO;
+
+/**
+ * Class responsible for decoding regions of image files at reduced resolutions outside of the JavaFX
+ * application thread. Only the requested region is kept in memory, and it is subsampled while it is
+ * decoded, so parts of images too large to be decoded whole can be shown.
+ */
+public final class TileDecoder {
+
+    private final Executor executor;
+
+    public TileDecoder(final Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Schedules decoding of the tile. Cancelling the returned future before a worker picks it up prevents
+     * the decoding from ever starting.
+     */
+    public CompletableFuture<Image> decode(final TilePyramid pyramid, final Tile tile) {
+        var file = tile.getFile().getPath();
+        var region = pyramid.getRegion(tile);
+        var subsampling = TilePyramid.getSubsampling(tile.getLevel());
+        return CompletableFuture.supplyAsync(() -> decodeNow(file, region, subsampling), this.executor);
+    }
+
+    private static Image decodeNow(final Path file, final Rectangle2D region, final int subsampling) {
+        try {
+            return decodeRegion(file, region, subsampling);
+        } catch (final IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Decodes the region of the file, taking every pixel from each square of the given number of pixels
+     */
+    public static Image decodeRegion(final Path file, final Rectangle2D region, final int subsampling) throws IOException {
+        try (var imageInputStream = ImageIO.createImageInputStream(file.toFile())) {
+            var readers = imageInputStream == null ? null : ImageIO.getImageReaders(imageInputStream);
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("No image reader for " + file);
+            }
+            var reader = readers.next();
+            try {
+                reader.setInput(imageInputStream, true, true);
+                var readParameters = reader.getDefaultReadParam();
+                var sourceRegion = new Rectangle((int) region.getMinX(), (int) region.getMinY(), (int) region.getWidth(), (int) region.getHeight());
+                readParameters.setSourceRegion(sourceRegion);
+                readParameters.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                var bufferedImage = reader.read(0, readParameters);
+                return toImage(bufferedImage);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static Image toImage(final BufferedImage bufferedImage) {
+        var width = bufferedImage.getWidth();
+        var height = bufferedImage.getHeight();
+        var pixels = bufferedImage.getRGB(0, 0, width, height, null, 0, width);
+        var image = new WritableImage(width, height);
+        var pixelWriter = image.getPixelWriter();
+        pixelWriter.setPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), pixels, 0, width);
+        return image;
+    }
+}
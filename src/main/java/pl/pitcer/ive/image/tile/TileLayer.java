@@ -0,0 +1,210 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.tile;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import javafx.application.Platform;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.image.Image;
+import org.jetbrains.annotations.Nullable;
+import pl.pitcer.ive.cache.CacheStatistics;
+import pl.pitcer.ive.cache.LruCache;
+import pl.pitcer.ive.image.loader.FileEntry;
+import pl.pitcer.ive.image.probe.ImageDimensions;
+
+/**
+ * Layer drawing sharp tiles of an image over its overview shown by the image view below. Only tiles
+ * intersecting the viewport are decoded, at the level matching the zoom, and tiles are kept in a cache
+ * bounded by memory. Tiles that are not decoded yet leave the overview visible.
+ */
+public final class TileLayer extends Canvas {
+
+    private static final int TILE_SIZE = 512;
+    private static final int BYTES_PER_PIXEL = 4;
+
+    private final TileDecoder tileDecoder;
+    private final LruCache<Tile, Image> tileCache;
+    private final Map<Tile, CompletableFuture<Image>> pendingTiles;
+    @Nullable
+    private TilePyramid pyramid;
+    private double overviewScale;
+    @Nullable
+    private Rectangle2D viewport;
+    private boolean renderScheduled;
+
+    /**
+     * @param tileCacheBytes maximum estimated memory used by pixels of cached tiles
+     */
+    public TileLayer(final TileDecoder tileDecoder, final long tileCacheBytes) {
+        this.tileDecoder = tileDecoder;
+        this.tileCache = new LruCache<>(tileCacheBytes, TileLayer::estimateBytes);
+        this.pendingTiles = new HashMap<>();
+        setMouseTransparent(true);
+        widthProperty().addListener(observable -> render());
+        heightProperty().addListener(observable -> render());
+    }
+
+    private static long estimateBytes(final Image image) {
+        return (long) image.getWidth() * (long) image.getHeight() * BYTES_PER_PIXEL;
+    }
+
+    public CacheStatistics getCacheStatistics() {
+        return this.tileCache.getStatistics();
+    }
+
+    /**
+     * Starts drawing tiles of the image when the shown overview has a lower resolution than the image
+     * itself, or stops drawing them otherwise
+     *
+     * @param dimensions full resolution dimensions of the image
+     * @param overview image shown in the image view
+     */
+    public void show(final FileEntry file, final ImageDimensions dimensions, final Image overview) {
+        if (!TilePyramid.isTilingRequired(dimensions) || overview.getWidth() >= dimensions.getWidth()) {
+            hide();
+            return;
+        }
+        this.pyramid = new TilePyramid(file, dimensions, TILE_SIZE, TilePyramid.OVERVIEW_SIZE);
+        this.overviewScale = dimensions.getWidth() / overview.getWidth();
+        render();
+    }
+
+    /**
+     * Stops drawing tiles, cancelling decoding of the pending ones
+     */
+    public void hide() {
+        this.pyramid = null;
+        cancelPendingTiles(Set.of());
+        render();
+    }
+
+    /**
+     * Draws tiles visible through the viewport of the image view
+     *
+     * @param viewport viewport of the image view, in pixels of the overview
+     */
+    public void setViewport(@Nullable final Rectangle2D viewport) {
+        this.viewport = viewport;
+        render();
+    }
+
+    private void scheduleRender() {
+        if (this.renderScheduled) {
+            return;
+        }
+        this.renderScheduled = true;
+        Platform.runLater(() -> {
+            this.renderScheduled = false;
+            render();
+        });
+    }
+
+    private void render() {
+        var width = getWidth();
+        var height = getHeight();
+        var graphicsContext = getGraphicsContext2D();
+        graphicsContext.clearRect(0, 0, width, height);
+        if (this.pyramid == null || this.viewport == null || this.viewport.getWidth() <= 0 || this.viewport.getHeight() <= 0) {
+            return;
+        }
+        var displayScale = Math.min(width / this.viewport.getWidth(), height / this.viewport.getHeight());
+        var level = this.pyramid.getLevel(this.overviewScale / displayScale);
+        if (level >= this.pyramid.getOverviewLevel()) {
+            cancelPendingTiles(Set.of());
+            return;
+        }
+        var displayedX = (width - this.viewport.getWidth() * displayScale) / 2;
+        var displayedY = (height - this.viewport.getHeight() * displayScale) / 2;
+        var sourceViewport = new Rectangle2D(this.viewport.getMinX() * this.overviewScale, this.viewport.getMinY() * this.overviewScale, this.viewport.getWidth() * this.overviewScale, this.viewport.getHeight() * this.overviewScale);
+        var scale = displayScale / this.overviewScale;
+        Set<Tile> visibleTiles = new HashSet<>();
+        graphicsContext.save();
+        graphicsContext.beginPath();
+        graphicsContext.rect(displayedX, displayedY, this.viewport.getWidth() * displayScale, this.viewport.getHeight() * displayScale);
+        graphicsContext.clip();
+        for (final Tile tile : this.pyramid.getTiles(level, sourceViewport)) {
+            visibleTiles.add(tile);
+            var tileImage = this.tileCache.get(tile);
+            if (tileImage == null) {
+                fetchTile(this.pyramid, tile);
+                continue;
+            }
+            var region = this.pyramid.getRegion(tile);
+            var x = displayedX + (region.getMinX() - sourceViewport.getMinX()) * scale;
+            var y = displayedY + (region.getMinY() - sourceViewport.getMinY()) * scale;
+            graphicsContext.drawImage(tileImage, x, y, region.getWidth() * scale, region.getHeight() * scale);
+        }
+        graphicsContext.restore();
+        cancelPendingTiles(visibleTiles);
+    }
+
+    private void fetchTile(final TilePyramid pyramid, final Tile tile) {
+        if (this.pendingTiles.containsKey(tile)) {
+            return;
+        }
+        var pendingTile = this.tileDecoder.decode(pyramid, tile);
+        this.pendingTiles.put(tile, pendingTile);
+        pendingTile.whenCompleteAsync((tileImage, exception) -> {
+            if (this.pendingTiles.get(tile) != pendingTile) {
+                return;
+            }
+            this.pendingTiles.remove(tile);
+            if (exception == null) {
+                this.tileCache.put(tile, tileImage);
+                scheduleRender();
+            } else {
+                printFailure(exception);
+            }
+        }, Platform::runLater);
+    }
+
+    private static void printFailure(final Throwable exception) {
+        if (!(exception instanceof CancellationException)) {
+            var cause = exception instanceof CompletionException ? exception.getCause() : exception;
+            cause.printStackTrace();
+        }
+    }
+
+    /**
+     * Cancels decoding of pending tiles other than the given ones, so panning quickly never queues tiles
+     * that are no longer visible
+     */
+    private void cancelPendingTiles(final Set<Tile> keptTiles) {
+        this.pendingTiles.entrySet().removeIf(entry -> {
+            if (keptTiles.contains(entry.getKey())) {
+                return false;
+            }
+            entry.getValue().cancel(false);
+            return true;
+        });
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.tile;
+
+import java.util.ArrayList;
+import java.util.List;
+import javafx.geometry.Rectangle2D;
+import pl.pitcer.ive.image.loader.FileEntry;
+import pl.pitcer.ive.image.probe.ImageDimensions;
+
+/**
+ * Geometry of an image split into square tiles at several resolution levels. Level zero is the full
+ * resolution, and every next level halves it, up to the overview level that fits in the overview size.
+ * Every tile has the same size in pixels at its own level, so it covers twice as much of the image at
+ * every next level.
+ */
+public final class TilePyramid {
+
+    /**
+     * Maximum width and height of images that are decoded whole
+     */
+    public static final int MAXIMUM_WHOLE_SIZE = 16384;
+
+    /**
+     * Maximum number of pixels of images that are decoded whole
+     */
+    public static final long MAXIMUM_WHOLE_PIXELS = 100_000_000;
+
+    /**
+     * Maximum width and height of overviews of images that are not decoded whole
+     */
+    public static final int OVERVIEW_SIZE = 4096;
+
+    private final FileEntry file;
+    private final int width;
+    private final int height;
+    private final int tileSize;
+    private final int overviewLevel;
+
+    /**
+     * @param tileSize width and height of tiles in pixels
+     * @param overviewSize maximum width and height of the overview level
+     */
+    public TilePyramid(final FileEntry file, final ImageDimensions dimensions, final int tileSize, final int overviewSize) {
+        this.file = file;
+        this.width = dimensions.getWidth();
+        this.height = dimensions.getHeight();
+        this.tileSize = tileSize;
+        this.overviewLevel = getOverviewLevel(dimensions, overviewSize);
+    }
+
+    /**
+     * Returns the finest level of an image of the given dimensions that fits in the overview size
+     */
+    public static int getOverviewLevel(final ImageDimensions dimensions, final int overviewSize) {
+        var overviewLevel = 0;
+        while (Math.max(dimensions.getWidth(), dimensions.getHeight()) >> overviewLevel > overviewSize) {
+            overviewLevel++;
+        }
+        return overviewLevel;
+    }
+
+    /**
+     * Returns whether an image of the given dimensions is too large to be decoded whole, so only its
+     * overview and tiles should be decoded
+     */
+    public static boolean isTilingRequired(final ImageDimensions dimensions) {
+        var width = dimensions.getWidth();
+        var height = dimensions.getHeight();
+        return width > MAXIMUM_WHOLE_SIZE || height > MAXIMUM_WHOLE_SIZE || (long) width * height > MAXIMUM_WHOLE_PIXELS;
+    }
+
+    public int getWidth() {
+        return this.width;
+    }
+
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * Returns the coarsest level, the finest one that fits in the overview size
+     */
+    public int getOverviewLevel() {
+        return this.overviewLevel;
+    }
+
+    /**
+     * Returns the number of full resolution pixels in one pixel of the given level
+     */
+    public static int getSubsampling(final int level) {
+        return 1 << level;
+    }
+
+    /**
+     * Returns the coarsest level that still has at least one pixel per displayed pixel
+     *
+     * @param sourcePixelsPerDisplayedPixel number of full resolution pixels shown in one displayed pixel
+     */
+    public int getLevel(final double sourcePixelsPerDisplayedPixel) {
+        var level = 0;
+        while (level < this.overviewLevel && getSubsampling(level + 1) <= sourcePixelsPerDisplayedPixel) {
+            level++;
+        }
+        return level;
+    }
+
+    /**
+     * Returns tiles of the given level intersecting the given region of the full resolution image, row by row
+     */
+    public List<Tile> getTiles(final int level, final Rectangle2D region) {
+        var span = (long) this.tileSize * getSubsampling(level);
+        var minimumColumn = (int) Math.max(0, Math.floor(region.getMinX() / span));
+        var minimumRow = (int) Math.max(0, Math.floor(region.getMinY() / span));
+        var maximumColumn = (int) Math.min(Math.ceil((double) this.width / span), Math.ceil(region.getMaxX() / span));
+        var maximumRow = (int) Math.min(Math.ceil((double) this.height / span), Math.ceil(region.getMaxY() / span));
+        List<Tile> tiles = new ArrayList<>();
+        for (int row = minimumRow; row < maximumRow; row++) {
+            for (int column = minimumColumn; column < maximumColumn; column++) {
+                tiles.add(new Tile(this.file, level, column, row));
+            }
+        }
+        return tiles;
+    }
+
+    /**
+     * Returns the region of the full resolution image covered by the tile, cut at the image edges
+     */
+    public Rectangle2D getRegion(final Tile tile) {
+        var span = (long) this.tileSize * getSubsampling(tile.getLevel());
+        var x = tile.getColumn() * span;
+        var y = tile.getRow() * span;
+        var width = Math.min(span, this.width - x);
+        var height = Math.min(span, this.height - y);
+        return new Rectangle2D(x, y, width, height);
+    }
+}
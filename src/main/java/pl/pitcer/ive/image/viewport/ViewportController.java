@@ -0,0 +1,146 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.viewport;
+
+import javafx.geometry.Rectangle2D;
+import org.jetbrains.annotations.Nullable;
+import pl.pitcer.ive.image.Viewportable;
+
+/**
+ * Class responsible for zooming and panning the viewport. Scroll and drag events only update primitive
+ * fields, without allocating anything, and the resulting viewport is set once, when the pending change is
+ * applied on the next pulse. Events are applied one after another with the same arithmetic as if every
+ * one of them set the viewport, so the final viewport does not depend on how events fall into pulses.
+ */
+public final class ViewportController {
+
+    private static final double ZOOM_SCALAR = 1.1;
+    private static final double INVERSE_ZOOM_SCALAR = 1 / ZOOM_SCALAR;
+    private static final double SHIFT_SCALAR = 0.15;
+
+    private final Viewportable viewportable;
+    private final Runnable pulseRequest;
+    @Nullable
+    private Rectangle2D baseViewport;
+    private double x;
+    private double y;
+    private double width;
+    private double height;
+    private double primaryWidth;
+    private double primaryHeight;
+    private double mouseX;
+    private double mouseY;
+
+    /**
+     * @param pulseRequest action requesting a call to {@link #applyPendingViewport()} on the next pulse
+     */
+    public ViewportController(final Viewportable viewportable, final Runnable pulseRequest) {
+        this.viewportable = viewportable;
+        this.pulseRequest = pulseRequest;
+    }
+
+    /**
+     * Zooms out by one step for a negative scroll delta, or in for a positive one, keeping the center of
+     * the viewport in place
+     */
+    public void zoom(final double scrollDelta) {
+        if (scrollDelta == 0 || !beginChange()) {
+            return;
+        }
+        var scalar = scrollDelta < 0 ? ZOOM_SCALAR : INVERSE_ZOOM_SCALAR;
+        var sign = scrollDelta < 0 ? -1 : 1;
+        var dx = Math.abs(this.width * scalar - this.width) / 2;
+        var dy = Math.abs(this.height * scalar - this.height) / 2;
+        this.x = this.x + sign * dx;
+        this.y = this.y + sign * dy;
+        this.width = this.width * scalar;
+        this.height = this.height * scalar;
+    }
+
+    /**
+     * Remembers the position where dragging starts
+     */
+    public void startDrag(final double mouseX, final double mouseY) {
+        this.mouseX = mouseX;
+        this.mouseY = mouseY;
+    }
+
+    /**
+     * Pans the viewport by the distance the mouse moved since the last position, scaled by the zoom
+     */
+    public void drag(final double mouseX, final double mouseY) {
+        if (!beginChange()) {
+            return;
+        }
+        var dx = mouseX - this.mouseX;
+        var dy = mouseY - this.mouseY;
+        var widthZoomScalar = this.width / this.primaryWidth;
+        var heightZoomScalar = this.height / this.primaryHeight;
+        this.x = this.x - SHIFT_SCALAR * widthZoomScalar * dx;
+        this.y = this.y - SHIFT_SCALAR * heightZoomScalar * dy;
+        this.mouseX = mouseX;
+        this.mouseY = mouseY;
+    }
+
+    /**
+     * Starts a pending change from the current viewport, unless one is already pending
+     *
+     * @return false when there is no viewport to change
+     */
+    private boolean beginChange() {
+        if (this.baseViewport != null) {
+            return true;
+        }
+        var viewport = this.viewportable.getViewport();
+        if (viewport == null) {
+            return false;
+        }
+        var primaryViewport = this.viewportable.getPrimaryViewport();
+        this.baseViewport = viewport;
+        this.x = viewport.getMinX();
+        this.y = viewport.getMinY();
+        this.width = viewport.getWidth();
+        this.height = viewport.getHeight();
+        this.primaryWidth = primaryViewport.getWidth();
+        this.primaryHeight = primaryViewport.getHeight();
+        this.pulseRequest.run();
+        return true;
+    }
+
+    /**
+     * Sets the viewport resulting from all events since the last pulse. The change is dropped when the
+     * viewport was replaced in the meantime, for example because another image was shown.
+     */
+    public void applyPendingViewport() {
+        var baseViewport = this.baseViewport;
+        if (baseViewport == null) {
+            return;
+        }
+        this.baseViewport = null;
+        if (this.viewportable.getViewport() == baseViewport) {
+            this.viewportable.setViewport(new Rectangle2D(this.x, this.y, this.width, this.height));
+        }
+    }
+}
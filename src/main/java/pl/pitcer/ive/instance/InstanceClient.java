@@ -0,0 +1,72 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.instance;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Client handing paths over to an already running instance of the application
+ */
+public final class InstanceClient {
+
+    private InstanceClient() {
+        throw new UnsupportedOperationException("Cannot create an instance of this class");
+    }
+
+    /**
+     * Sends absolute paths to the instance announced in the file
+     *
+     * @return whether the instance received them, false meaning that no instance is running
+     */
+    public static boolean forward(final Path file, final List<Path> paths) {
+        var instanceFile = InstanceFile.read(file);
+        if (instanceFile == null) {
+            return false;
+        }
+        try (var socket = new Socket()) {
+            var address = new InetSocketAddress(InetAddress.getLoopbackAddress(), instanceFile.getPort());
+            socket.connect(address, InstanceServer.TIMEOUT_MILLIS);
+            socket.setSoTimeout(InstanceServer.TIMEOUT_MILLIS);
+            var output = new DataOutputStream(socket.getOutputStream());
+            output.writeUTF(instanceFile.getToken());
+            output.writeInt(paths.size());
+            for (final Path path : paths) {
+                output.writeUTF(path.toString());
+            }
+            output.flush();
+            var input = new DataInputStream(socket.getInputStream());
+            return input.readBoolean();
+        } catch (final IOException exception) {
+            return false;
+        }
+    }
+}
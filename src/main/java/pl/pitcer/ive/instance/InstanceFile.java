@@ -0,0 +1,121 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.instance;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Contents of the file announcing a running instance: the loopback port it listens on and the token
+ * other launches have to present. The file is readable only by its owner, so the token keeps other users
+ * from opening files in the viewer.
+ */
+final class InstanceFile {
+
+    private static final int TOKEN_BYTES = 32;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final int port;
+    private final String token;
+
+    InstanceFile(final int port, final String token) {
+        this.port = port;
+        this.token = token;
+    }
+
+    static String generateToken() {
+        var bytes = new byte[TOKEN_BYTES];
+        RANDOM.nextBytes(bytes);
+        var token = new StringBuilder();
+        for (final byte tokenByte : bytes) {
+            token.append(String.format("%02x", tokenByte));
+        }
+        return token.toString();
+    }
+
+    /**
+     * Reads the file, returning null when it does not exist or is malformed
+     */
+    @Nullable
+    static InstanceFile read(final Path file) {
+        try {
+            var fields = Files.readString(file, StandardCharsets.UTF_8).trim().split(" ");
+            if (fields.length != 2) {
+                return null;
+            }
+            return new InstanceFile(Integer.parseInt(fields[0]), fields[1]);
+        } catch (final IOException | NumberFormatException exception) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes the file atomically, restricting its permissions before the token is written to it
+     */
+    void write(final Path file) throws IOException {
+        var directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        var temporaryFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            restrictPermissions(temporaryFile);
+            Files.writeString(temporaryFile, this.port + " " + this.token, StandardCharsets.UTF_8);
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    private static void restrictPermissions(final Path file) throws IOException {
+        try {
+            Files.setPosixFilePermissions(file, PosixFilePermissions.fromString("rw-------"));
+        } catch (final UnsupportedOperationException exception) {
+            var legacyFile = file.toFile();
+            if (!legacyFile.setReadable(false, false) || !legacyFile.setReadable(true, true)) {
+                throw new IOException("Cannot restrict permissions of " + file, exception);
+            }
+        }
+    }
+
+    int getPort() {
+        return this.port;
+    }
+
+    String getToken() {
+        return this.token;
+    }
+
+    boolean hasToken(final String token) {
+        var expected = this.token.getBytes(StandardCharsets.UTF_8);
+        var actual = token.getBytes(StandardCharsets.UTF_8);
+        return MessageDigest.isEqual(expected, actual);
+    }
+}
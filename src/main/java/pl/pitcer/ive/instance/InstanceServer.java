@@ -0,0 +1,128 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.instance;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Consumer;
+
+/**
+ * Server receiving paths from later launches of the application, listening on an ephemeral loopback
+ * port announced in the instance file. A connection is accepted only when it presents the token from
+ * that file.
+ */
+public final class InstanceServer implements Closeable {
+
+    static final int TIMEOUT_MILLIS = 2000;
+    private static final int MAXIMUM_PATH_COUNT = 1024;
+
+    private final Path file;
+    private final InstanceFile instanceFile;
+    private final ServerSocket serverSocket;
+    private final Consumer<List<Path>> pathsListener;
+
+    private InstanceServer(final Path file, final InstanceFile instanceFile, final ServerSocket serverSocket, final Consumer<List<Path>> pathsListener) {
+        this.file = file;
+        this.instanceFile = instanceFile;
+        this.serverSocket = serverSocket;
+        this.pathsListener = pathsListener;
+    }
+
+    /**
+     * Starts listening and announces this instance in the file, replacing any previous announcement
+     *
+     * @param pathsListener listener called with paths sent by every launch, on the thread of the server
+     */
+    public static InstanceServer start(final Path file, final ThreadFactory threadFactory, final Consumer<List<Path>> pathsListener) throws IOException {
+        var serverSocket = new ServerSocket(0, 0, InetAddress.getLoopbackAddress());
+        var instanceFile = new InstanceFile(serverSocket.getLocalPort(), InstanceFile.generateToken());
+        try {
+            instanceFile.write(file);
+        } catch (final IOException exception) {
+            serverSocket.close();
+            throw exception;
+        }
+        var server = new InstanceServer(file, instanceFile, serverSocket, pathsListener);
+        var thread = threadFactory.newThread(server::acceptConnections);
+        thread.start();
+        return server;
+    }
+
+    private void acceptConnections() {
+        while (!this.serverSocket.isClosed()) {
+            try (var socket = this.serverSocket.accept()) {
+                receivePaths(socket);
+            } catch (final IOException | InvalidPathException exception) {
+                if (!this.serverSocket.isClosed()) {
+                    exception.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private void receivePaths(final Socket socket) throws IOException {
+        socket.setSoTimeout(TIMEOUT_MILLIS);
+        var input = new DataInputStream(socket.getInputStream());
+        var token = input.readUTF();
+        if (!this.instanceFile.hasToken(token)) {
+            return;
+        }
+        var pathCount = input.readInt();
+        if (pathCount < 0 || pathCount > MAXIMUM_PATH_COUNT) {
+            return;
+        }
+        List<Path> paths = new ArrayList<>(pathCount);
+        for (int index = 0; index < pathCount; index++) {
+            paths.add(Path.of(input.readUTF()));
+        }
+        var output = new DataOutputStream(socket.getOutputStream());
+        output.writeBoolean(true);
+        output.flush();
+        this.pathsListener.accept(paths);
+    }
+
+    /**
+     * Stops listening and removes the announcement, unless another instance replaced it in the meantime
+     */
+    @Override
+    public void close() throws IOException {
+        this.serverSocket.close();
+        var announcedInstance = InstanceFile.read(this.file);
+        if (announcedInstance != null && announcedInstance.hasToken(this.instanceFile.getToken())) {
+            Files.deleteIfExists(this.file);
+        }
+    }
+}
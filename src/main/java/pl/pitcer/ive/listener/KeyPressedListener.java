@@ -29,7 +29,9 @@ import javafx.event.EventHandler;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
 import pl.pitcer.ive.image.ImageDisplay;
+import pl.pitcer.ive.image.grid.Overviewable;
 import pl.pitcer.ive.image.loader.Reloadable;
+import pl.pitcer.ive.image.slideshow.Playable;
 import pl.pitcer.ive.window.FullScreenable;
 
 /**
@@ -40,12 +42,16 @@ public final class KeyPressedListener implements EventHandler<KeyEvent> {
     private final ImageDisplay imageDisplay;
     private final FullScreenable windowInFullScreen;
     private final Reloadable reloadableImageView;
+    private final Overviewable overview;
+    private final Playable slideshow;
     private final Map<KeyCode, Runnable> handlers;
 
-    public KeyPressedListener(final ImageDisplay imageDisplay, final Reloadable reloadableImageView, final FullScreenable windowInFullScreen) {
+    public KeyPressedListener(final ImageDisplay imageDisplay, final Reloadable reloadableImageView, final FullScreenable windowInFullScreen, final Overviewable overview, final Playable slideshow) {
         this.imageDisplay = imageDisplay;
         this.windowInFullScreen = windowInFullScreen;
         this.reloadableImageView = reloadableImageView;
+        this.overview = overview;
+        this.slideshow = slideshow;
         this.handlers = createHandlers();
     }
 
@@ -54,7 +60,9 @@ public final class KeyPressedListener implements EventHandler<KeyEvent> {
             Map.entry(KeyCode.RIGHT, this::handleNextKey),
             Map.entry(KeyCode.LEFT, this::handlePreviousKey),
             Map.entry(KeyCode.F11, this::handleFullScreen),
-            Map.entry(KeyCode.F5, this::handleReload)
+            Map.entry(KeyCode.F5, this::handleReload),
+            Map.entry(KeyCode.G, this::handleOverview),
+            Map.entry(KeyCode.S, this::handleSlideshow)
         );
     }
 
@@ -69,10 +77,16 @@ public final class KeyPressedListener implements EventHandler<KeyEvent> {
     }
 
     private void handleNextKey() {
+        if (this.overview.isOverviewShown()) {
+            return;
+        }
         this.imageDisplay.showNextImage();
     }
 
     private void handlePreviousKey() {
+        if (this.overview.isOverviewShown()) {
+            return;
+        }
         this.imageDisplay.showPreviousImage();
     }
 
@@ -83,4 +97,12 @@ public final class KeyPressedListener implements EventHandler<KeyEvent> {
     private void handleReload() {
         this.reloadableImageView.reload();
     }
+
+    private void handleOverview() {
+        this.overview.toggleOverview();
+    }
+
+    private void handleSlideshow() {
+        this.slideshow.togglePlaying();
+    }
 }
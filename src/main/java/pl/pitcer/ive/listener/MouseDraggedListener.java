@@ -24,56 +24,27 @@
 
 package pl.pitcer.ive.listener;
 
-import javafx.beans.value.WritableObjectValue;
 import javafx.event.EventHandler;
-import javafx.geometry.Point2D;
-import javafx.geometry.Rectangle2D;
 import javafx.scene.input.MouseEvent;
-import pl.pitcer.ive.image.Viewportable;
+import pl.pitcer.ive.image.viewport.ViewportController;
 
 /**
  * Mouse dragged event listener
  */
 public class MouseDraggedListener implements EventHandler<MouseEvent> {
 
-    private static final double SHIFT_SCALAR = 0.15;
+    private final ViewportController viewportController;
 
-    private final Viewportable imageView;
-    private WritableObjectValue<Point2D> mousePosition;
-
-    public MouseDraggedListener(final Viewportable imageView, final WritableObjectValue<Point2D> mousePosition) {
-        this.imageView = imageView;
-        this.mousePosition = mousePosition;
+    public MouseDraggedListener(final ViewportController viewportController) {
+        this.viewportController = viewportController;
     }
 
     @Override
     public void handle(final MouseEvent event) {
         if (event.isPrimaryButtonDown()) {
-            var previousPosition = this.mousePosition.get();
-            var previousX = previousPosition.getX();
-            var previousY = previousPosition.getY();
             var x = event.getX();
             var y = event.getY();
-            var dx = x - previousX;
-            var dy = y - previousY;
-            var viewport = getViewport(dx, dy);
-            this.imageView.setViewport(viewport);
-            var mousePosition = new Point2D(x, y);
-            this.mousePosition.set(mousePosition);
+            this.viewportController.drag(x, y);
         }
     }
-
-    private Rectangle2D getViewport(final double dx, final double dy) {
-        var previousViewport = this.imageView.getViewport();
-        var x = previousViewport.getMinX();
-        var y = previousViewport.getMinY();
-        var width = previousViewport.getWidth();
-        var height = previousViewport.getHeight();
-        var primaryViewport = this.imageView.getPrimaryViewport();
-        var primaryWidth = primaryViewport.getWidth();
-        var primaryHeight = primaryViewport.getHeight();
-        var widthZoomScalar = width / primaryWidth;
-        var heightZoomScalar = height / primaryHeight;
-        return new Rectangle2D(x - SHIFT_SCALAR * widthZoomScalar * dx, y - SHIFT_SCALAR * heightZoomScalar * dy, width, height);
-    }
 }
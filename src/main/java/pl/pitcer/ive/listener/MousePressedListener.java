@@ -24,20 +24,19 @@
 
 package pl.pitcer.ive.listener;
 
-import javafx.beans.value.WritableObjectValue;
 import javafx.event.EventHandler;
-import javafx.geometry.Point2D;
 import javafx.scene.input.MouseEvent;
+import pl.pitcer.ive.image.viewport.ViewportController;
 
 /**
  * Mouse button pressed event listener
  */
 public class MousePressedListener implements EventHandler<MouseEvent> {
 
-    private WritableObjectValue<Point2D> mousePosition;
+    private final ViewportController viewportController;
 
-    public MousePressedListener(final WritableObjectValue<Point2D> mousePosition) {
-        this.mousePosition = mousePosition;
+    public MousePressedListener(final ViewportController viewportController) {
+        this.viewportController = viewportController;
     }
 
     @Override
@@ -45,8 +44,7 @@ public class MousePressedListener implements EventHandler<MouseEvent> {
         if (event.isPrimaryButtonDown()) {
             var x = event.getX();
             var y = event.getY();
-            var position = new Point2D(x, y);
-            this.mousePosition.set(position);
+            this.viewportController.startDrag(x, y);
         }
     }
 }
@@ -25,49 +25,23 @@
 package pl.pitcer.ive.listener;
 
 import javafx.event.EventHandler;
-import javafx.geometry.Rectangle2D;
 import javafx.scene.input.ScrollEvent;
-import pl.pitcer.ive.image.Viewportable;
+import pl.pitcer.ive.image.viewport.ViewportController;
 
 /**
  * Scroll event listener
  */
 public class ScrollListener implements EventHandler<ScrollEvent> {
 
-    private static final double ZOOM_SCALAR = 1.1;
-    private static final double INVERSE_ZOOM_SCALAR = 1 / ZOOM_SCALAR;
+    private final ViewportController viewportController;
 
-    private Viewportable imageView;
-
-    public ScrollListener(final Viewportable imageView) {
-        this.imageView = imageView;
+    public ScrollListener(final ViewportController viewportController) {
+        this.viewportController = viewportController;
     }
 
     @Override
     public void handle(final ScrollEvent event) {
-        var previousViewport = this.imageView.getViewport();
         var delta = event.getDeltaY();
-        var viewport = getViewport(previousViewport, delta);
-        this.imageView.setViewport(viewport);
-    }
-
-    private Rectangle2D getViewport(final Rectangle2D previousViewport, final double scrollDelta) {
-        if (scrollDelta < 0) {
-            return getViewport(previousViewport, ZOOM_SCALAR, -1);
-        } else if (scrollDelta == 0) {
-            return previousViewport;
-        } else {
-            return getViewport(previousViewport, INVERSE_ZOOM_SCALAR, 1);
-        }
-    }
-
-    private Rectangle2D getViewport(final Rectangle2D previousViewport, final double scalar, final int sign) {
-        var x = previousViewport.getMinX();
-        var y = previousViewport.getMinY();
-        var width = previousViewport.getWidth();
-        var height = previousViewport.getHeight();
-        var dx = Math.abs(width * scalar - width) / 2;
-        var dy = Math.abs(height * scalar - height) / 2;
-        return new Rectangle2D(x + sign * dx, y + sign * dy, width * scalar, height * scalar);
+        this.viewportController.zoom(delta);
     }
 }
@@ -39,11 +39,11 @@ import pl.pitcer.ive.image.loader.SortOrderable;
  */
 public class IveContextMenu extends ContextMenu {
 
-    private SortOrderable imageLoader;
+    private SortOrderable sortableImages;
     private Reloadable imageView;
 
-    public IveContextMenu(final SortOrderable imageLoader, final Reloadable imageView) {
-        this.imageLoader = imageLoader;
+    public IveContextMenu(final SortOrderable sortableImages, final Reloadable imageView) {
+        this.sortableImages = sortableImages;
         this.imageView = imageView;
     }
 
@@ -76,10 +76,7 @@ public class IveContextMenu extends ContextMenu {
     private MenuItem createSortOrderMenuItem(final SortOrder order) {
         var menuName = order.getMenuName();
         var menuItem = new MenuItem(menuName);
-        menuItem.setOnAction(event -> {
-            this.imageLoader.setSortOrder(order);
-            this.imageView.reload();
-        });
+        menuItem.setOnAction(event -> this.sortableImages.setSortOrder(order));
         return menuItem;
     }
 }
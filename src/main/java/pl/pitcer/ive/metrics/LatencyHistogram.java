@@ -0,0 +1,128 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of latencies safe to record from any thread without locking. Every power of two of
+ * nanoseconds is split into eight buckets, so quantiles are reported with an error of at most an eighth.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = getBucketIndex(Long.MAX_VALUE) + 1;
+    private static final double NANOS_PER_MILLISECOND = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final AtomicLongArray bucketCounts;
+    private final LongAdder count;
+    private final LongAdder totalNanos;
+    private final LongAccumulator maximumNanos;
+
+    public LatencyHistogram() {
+        this.bucketCounts = new AtomicLongArray(BUCKET_COUNT);
+        this.count = new LongAdder();
+        this.totalNanos = new LongAdder();
+        this.maximumNanos = new LongAccumulator(Math::max, 0);
+    }
+
+    /**
+     * Records a latency, negative ones being recorded as zero
+     */
+    public void record(final long nanos) {
+        var latency = Math.max(0, nanos);
+        this.bucketCounts.incrementAndGet(getBucketIndex(latency));
+        this.count.increment();
+        this.totalNanos.add(latency);
+        this.maximumNanos.accumulate(latency);
+    }
+
+    static int getBucketIndex(final long nanos) {
+        if (nanos < SUB_BUCKET_COUNT) {
+            return (int) nanos;
+        }
+        var exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(nanos);
+        var shift = exponent - SUB_BUCKET_BITS;
+        var subBucket = (int) (nanos >>> shift) - SUB_BUCKET_COUNT;
+        return (shift + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    /**
+     * Returns the largest latency falling into the bucket
+     */
+    static long getBucketUpperBound(final int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        var shift = index / SUB_BUCKET_COUNT - 1;
+        var subBucket = index % SUB_BUCKET_COUNT;
+        var lowerBound = (long) (SUB_BUCKET_COUNT + subBucket) << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    public double getMeanMillis() {
+        var count = this.count.sum();
+        return count == 0 ? 0 : this.totalNanos.sum() / NANOS_PER_MILLISECOND / count;
+    }
+
+    public double getMaximumMillis() {
+        return this.maximumNanos.get() / NANOS_PER_MILLISECOND;
+    }
+
+    /**
+     * Returns the upper bound of the bucket the quantile falls into, not exceeding the maximum
+     *
+     * @param quantile from 0 to 1
+     */
+    public double getQuantileMillis(final double quantile) {
+        var counts = new long[BUCKET_COUNT];
+        long count = 0;
+        for (int index = 0; index < BUCKET_COUNT; index++) {
+            counts[index] = this.bucketCounts.get(index);
+            count += counts[index];
+        }
+        if (count == 0) {
+            return 0;
+        }
+        var rank = Math.max(1, (long) Math.ceil(quantile * count));
+        long seenCount = 0;
+        for (int index = 0; index < BUCKET_COUNT; index++) {
+            seenCount += counts[index];
+            if (seenCount >= rank) {
+                var upperBound = Math.min(getBucketUpperBound(index), this.maximumNanos.get());
+                return upperBound / NANOS_PER_MILLISECOND;
+            }
+        }
+        return getMaximumMillis();
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.metrics;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.ReflectionException;
+
+/**
+ * Read-only MBean exposing values of a {@link MetricsRegistry}. Attributes are listed anew on every
+ * request, as histograms appear when they are first recorded.
+ */
+final class MetricsMBean implements DynamicMBean {
+
+    private final MetricsRegistry registry;
+
+    MetricsMBean(final MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object getAttribute(final String attribute) throws AttributeNotFoundException {
+        var value = this.registry.getValues().get(attribute);
+        if (value == null) {
+            throw new AttributeNotFoundException(attribute);
+        }
+        return value;
+    }
+
+    @Override
+    public AttributeList getAttributes(final String[] attributes) {
+        var values = this.registry.getValues();
+        var attributeList = new AttributeList();
+        for (final String attribute : attributes) {
+            var value = values.get(attribute);
+            if (value != null) {
+                attributeList.add(new Attribute(attribute, value));
+            }
+        }
+        return attributeList;
+    }
+
+    @Override
+    public void setAttribute(final Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Metrics are read-only: " + attribute.getName());
+    }
+
+    @Override
+    public AttributeList setAttributes(final AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(final String actionName, final Object[] params, final String[] signature) throws ReflectionException {
+        throw new ReflectionException(new NoSuchMethodException(actionName));
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        var attributes = this.registry.getValues().keySet().stream()
+            .map(name -> new MBeanAttributeInfo(name, Double.class.getName(), name, true, false, false))
+            .toArray(MBeanAttributeInfo[]::new);
+        return new MBeanInfo(getClass().getName(), "Ive metrics", attributes, null, null, null);
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoubleSupplier;
+import java.util.stream.Collectors;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Registry of named latency histograms and gauges. Histograms are created on first use, so recording
+ * from a hot path costs a map lookup and a few atomic additions.
+ */
+public final class MetricsRegistry {
+
+    private static final String OBJECT_NAME_PREFIX = "pl.pitcer.ive:type=Metrics,name=";
+
+    private final Map<String, LatencyHistogram> histograms;
+    private final Map<String, DoubleSupplier> gauges;
+    @Nullable
+    private ObjectName objectName;
+
+    public MetricsRegistry() {
+        this.histograms = new ConcurrentHashMap<>();
+        this.gauges = new ConcurrentHashMap<>();
+    }
+
+    public LatencyHistogram histogram(final String name) {
+        return this.histograms.computeIfAbsent(name, histogramName -> new LatencyHistogram());
+    }
+
+    /**
+     * Registers a gauge, whose value is read from any thread whenever the metrics are read
+     */
+    public void gauge(final String name, final DoubleSupplier value) {
+        this.gauges.put(name, value);
+    }
+
+    /**
+     * Returns current values of all metrics by name. Every histogram is flattened into its count, mean,
+     * median, 99th percentile and maximum.
+     */
+    public SortedMap<String, Double> getValues() {
+        SortedMap<String, Double> values = new TreeMap<>();
+        this.gauges.forEach((name, gauge) -> values.put(name, gauge.getAsDouble()));
+        this.histograms.forEach((name, histogram) -> {
+            values.put(name + ".count", (double) histogram.getCount());
+            values.put(name + ".meanMillis", histogram.getMeanMillis());
+            values.put(name + ".p50Millis", histogram.getQuantileMillis(0.5));
+            values.put(name + ".p99Millis", histogram.getQuantileMillis(0.99));
+            values.put(name + ".maxMillis", histogram.getMaximumMillis());
+        });
+        return values;
+    }
+
+    /**
+     * Exposes the metrics through the platform MBean server, one attribute per value
+     *
+     * @param name name distinguishing this registry from the ones of other windows
+     */
+    public synchronized void registerMBean(final String name) {
+        var server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            var objectName = new ObjectName(OBJECT_NAME_PREFIX + ObjectName.quote(name));
+            server.registerMBean(new MetricsMBean(this), objectName);
+            this.objectName = objectName;
+        } catch (final JMException exception) {
+            exception.printStackTrace();
+        }
+    }
+
+    /**
+     * Removes the metrics from the platform MBean server, if they were exposed
+     */
+    public synchronized void unregisterMBean() {
+        if (this.objectName == null) {
+            return;
+        }
+        var server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.unregisterMBean(this.objectName);
+        } catch (final JMException exception) {
+            exception.printStackTrace();
+        } finally {
+            this.objectName = null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getValues().entrySet().stream()
+            .map(entry -> entry.getKey() + '=' + entry.getValue())
+            .collect(Collectors.joining(", "));
+    }
+}
@@ -24,10 +24,23 @@
 
 package pl.pitcer.ive.window;
 
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
-import javafx.beans.property.SimpleObjectProperty;
-import javafx.geometry.Point2D;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
 import javafx.geometry.Pos;
 import javafx.geometry.Rectangle2D;
 import javafx.scene.Scene;
@@ -35,15 +48,35 @@ import javafx.scene.input.KeyCombination;
 import javafx.scene.layout.StackPane;
 import javafx.stage.Screen;
 import javafx.stage.Stage;
+import javafx.stage.WindowEvent;
+import javafx.util.Duration;
+import org.jetbrains.annotations.Nullable;
+import pl.pitcer.ive.Configuration;
 import pl.pitcer.ive.IconLoader;
+import pl.pitcer.ive.cache.CacheStatistics;
+import pl.pitcer.ive.concurrent.DaemonThreadFactory;
 import pl.pitcer.ive.image.IveImageView;
+import pl.pitcer.ive.image.cache.ImageCache;
+import pl.pitcer.ive.image.decoder.ImageDecoder;
+import pl.pitcer.ive.image.grid.ThumbnailGrid;
+import pl.pitcer.ive.image.index.DirectoryIndexer;
+import pl.pitcer.ive.image.loader.DirectoryWatcher;
 import pl.pitcer.ive.image.loader.ImageLoader;
 import pl.pitcer.ive.image.loader.SortOrder;
+import pl.pitcer.ive.image.prefetch.ImagePrefetcher;
+import pl.pitcer.ive.image.slideshow.Slideshow;
+import pl.pitcer.ive.image.thumbnail.ThumbnailGenerator;
+import pl.pitcer.ive.image.thumbnail.ThumbnailStore;
+import pl.pitcer.ive.image.tile.TileDecoder;
+import pl.pitcer.ive.image.tile.TileLayer;
+import pl.pitcer.ive.image.viewport.PulseTimer;
+import pl.pitcer.ive.image.viewport.ViewportController;
 import pl.pitcer.ive.listener.KeyPressedListener;
 import pl.pitcer.ive.listener.MouseDraggedListener;
 import pl.pitcer.ive.listener.MousePressedListener;
 import pl.pitcer.ive.listener.ScrollListener;
 import pl.pitcer.ive.menu.IveContextMenu;
+import pl.pitcer.ive.metrics.MetricsRegistry;
 
 /**
  * Wrapper for {@link Stage} class
@@ -54,6 +87,14 @@ public final class IveWindow implements Titled, FullScreenable, Resizable {
     private static final Path STYLESHEET_PATH = Path.of("styles", "stylesheet.css");
     private static final String TITLE = "Ive";
     private static final IconLoader ICON_LOADER = createIconLoader();
+    private static final double MAXIMUM_SCREEN_FRACTION = 0.9;
+    private static final int DECODER_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    private static final int PREVIEW_DECODER_THREADS = 1;
+    private static final AtomicInteger WINDOW_IDS = new AtomicInteger();
+    private static final String THUMBNAIL_STORE_FILE_NAME = "thumbnails";
+    private static final String INDEX_DIRECTORY_NAME = "indexes";
+    private static final long THUMBNAIL_CACHE_BYTES = 64 * 1024 * 1024;
+    private static final Duration OPENED_IMAGE_TIMEOUT = Duration.millis(500);
 
     private static IconLoader createIconLoader() {
         var iconSizes = Set.of("16", "24", "32", "48", "64", "128", "256", "512");
@@ -61,16 +102,129 @@ public final class IveWindow implements Titled, FullScreenable, Resizable {
     }
 
     private Stage stage;
+    private Configuration configuration;
+    private Path directory;
+    @Nullable
+    private Path openedFile;
+    private MetricsRegistry metrics;
+    private List<Supplier<CacheStatistics>> imageCachesStatistics;
+    private List<ExecutorService> executors;
+    private IveImageView imageView;
+    private ImageLoader imageLoader;
+    @Nullable
+    private DirectoryIndexer directoryIndexer;
+    @Nullable
+    private DirectoryWatcher watcher;
+    @Nullable
+    private ThumbnailGenerator thumbnailGenerator;
+    private volatile double firstPixelMillis;
 
-    public IveWindow(final Stage stage) {
+    /**
+     * @param directory directory whose images are shown
+     */
+    public IveWindow(final Stage stage, final Configuration configuration, final Path directory) {
+        this(stage, configuration, directory, null);
+    }
+
+    /**
+     * @param directory directory whose images are shown
+     * @param openedFile image of the directory shown first, before the directory is scanned
+     */
+    public IveWindow(final Stage stage, final Configuration configuration, final Path directory, @Nullable final Path openedFile) {
         this.stage = stage;
+        this.configuration = configuration;
+        this.directory = directory;
+        this.openedFile = openedFile;
+        this.metrics = new MetricsRegistry();
+        this.imageCachesStatistics = new CopyOnWriteArrayList<>();
+        this.executors = new ArrayList<>();
+        this.firstPixelMillis = Double.NaN;
+        this.metrics.gauge("heap.decodedImageBytes", this::getDecodedImageBytes);
+        this.metrics.gauge("startup.firstPixelMillis", () -> this.firstPixelMillis);
     }
 
     public void initialize() {
         setupProperties();
         var scene = createScene();
         this.stage.setScene(scene);
-        addIcons();
+        measureTimeToFirstPixel(scene);
+        publishMetrics();
+        this.stage.addEventHandler(WindowEvent.WINDOW_HIDDEN, event -> close());
+    }
+
+    /**
+     * Releases resources of the closed window: stops watching the directory, shuts down all of its
+     * worker threads, removes its metrics MBean and closes the thumbnail store
+     */
+    private void close() {
+        if (this.watcher != null) {
+            this.watcher.stop();
+            this.watcher = null;
+        }
+        if (this.directoryIndexer != null) {
+            this.directoryIndexer.shutdown();
+        }
+        this.imageLoader.shutdown();
+        this.executors.forEach(ExecutorService::shutdownNow);
+        this.executors.clear();
+        this.metrics.unregisterMBean();
+        closeThumbnailStore();
+    }
+
+    private void closeThumbnailStore() {
+        if (this.thumbnailGenerator == null) {
+            return;
+        }
+        try {
+            this.thumbnailGenerator.close();
+        } catch (final IOException exception) {
+            exception.printStackTrace();
+        }
+    }
+
+    /**
+     * Measures the time from the start of the JVM to the first pulse laying out an image in the shown
+     * window, which is rendered right after
+     */
+    private void measureTimeToFirstPixel(final Scene scene) {
+        scene.addPostLayoutPulseListener(new Runnable() {
+            @Override
+            public void run() {
+                if (!IveWindow.this.stage.isShowing() || IveWindow.this.imageView.getImage() == null) {
+                    return;
+                }
+                var startTime = ManagementFactory.getRuntimeMXBean().getStartTime();
+                IveWindow.this.firstPixelMillis = System.currentTimeMillis() - startTime;
+                Platform.runLater(() -> scene.removePostLayoutPulseListener(this));
+            }
+        });
+    }
+
+    private void publishMetrics() {
+        if (this.configuration.isExportingMetrics()) {
+            this.metrics.registerMBean("window-" + WINDOW_IDS.incrementAndGet());
+        }
+        var logPeriod = this.configuration.getMetricsLogPeriodSeconds();
+        if (logPeriod > 0) {
+            var executor = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("ive-metrics"));
+            this.executors.add(executor);
+            executor.scheduleAtFixedRate(() -> System.out.println("Metrics: " + this.metrics), logPeriod, logPeriod, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Estimated memory used by pixels of all cached decoded images, tiles and thumbnails
+     */
+    private double getDecodedImageBytes() {
+        return this.imageCachesStatistics.stream()
+            .mapToLong(statistics -> statistics.get().getWeight())
+            .sum();
+    }
+
+    private void registerCacheMetrics(final String name, final Supplier<CacheStatistics> statistics) {
+        this.imageCachesStatistics.add(statistics);
+        this.metrics.gauge("cache." + name + ".hitRate", () -> statistics.get().getHitRate());
+        this.metrics.gauge("cache." + name + ".bytes", () -> statistics.get().getWeight());
     }
 
     private void setupProperties() {
@@ -80,41 +234,181 @@ public final class IveWindow implements Titled, FullScreenable, Resizable {
     }
 
     private Scene createScene() {
-        var imageView = createImageView();
-        var pane = new StackPane(imageView);
+        var tileLayer = createTileLayer();
+        var imageView = createImageView(tileLayer);
+        this.imageView = imageView;
+        var thumbnailGrid = createThumbnailGrid(imageView);
+        var pane = new StackPane(imageView, tileLayer, thumbnailGrid);
         pane.setAlignment(Pos.CENTER);
         var scene = new Scene(pane);
         var stylesheets = scene.getStylesheets();
         var stylesheetUrl = getStylesheetUrl();
         stylesheets.add(stylesheetUrl);
-        setListeners(scene, imageView);
+        setListeners(scene, imageView, thumbnailGrid);
         return scene;
     }
 
-    private void setListeners(final Scene scene, final IveImageView imageView) {
-        var keyListener = new KeyPressedListener(imageView, imageView, this);
-        var scrollListener = new ScrollListener(imageView);
-        var mousePosition = new SimpleObjectProperty<>(Point2D.ZERO);
-        var mousePressedListener = new MousePressedListener(mousePosition);
-        var mouseDraggedListener = new MouseDraggedListener(imageView, mousePosition);
+    private void setListeners(final Scene scene, final IveImageView imageView, final ThumbnailGrid thumbnailGrid) {
+        var slideshow = createSlideshow(imageView);
+        var keyListener = new KeyPressedListener(imageView, imageView, this, thumbnailGrid, slideshow);
+        var pulseTimer = new PulseTimer();
+        var viewportController = new ViewportController(imageView, pulseTimer::start);
+        pulseTimer.setAction(viewportController::applyPendingViewport);
+        var scrollListener = new ScrollListener(viewportController);
+        var mousePressedListener = new MousePressedListener(viewportController);
+        var mouseDraggedListener = new MouseDraggedListener(viewportController);
         scene.setOnKeyPressed(keyListener);
         scene.setOnScroll(scrollListener);
         scene.setOnMousePressed(mousePressedListener);
         scene.setOnMouseDragged(mouseDraggedListener);
     }
 
-    private IveImageView createImageView() {
-        var imageLoader = new ImageLoader(SortOrder.NAME_ASCENDING);
-        var imageView = new IveImageView(imageLoader, this, this);
-        var contextMenu = new IveContextMenu(imageLoader, imageView);
+    private Slideshow createSlideshow(final IveImageView imageView) {
+        var interval = TimeUnit.MILLISECONDS.toNanos(this.configuration.getSlideshowIntervalMillis());
+        var slideshow = new Slideshow(imageView, interval, this.configuration.getSlideshowPolicy());
+        registerSlideshowMetrics(slideshow);
+        if (this.configuration.isSlideshowPlaying()) {
+            slideshow.start();
+        }
+        return slideshow;
+    }
+
+    private void registerSlideshowMetrics(final Slideshow slideshow) {
+        this.metrics.gauge("slideshow.jitter.meanMillis", () -> slideshow.getStatistics().getMeanJitterMillis());
+        this.metrics.gauge("slideshow.jitter.maxMillis", () -> slideshow.getStatistics().getMaximumJitterMillis());
+        this.metrics.gauge("slideshow.shown", () -> slideshow.getStatistics().getShownCount());
+        this.metrics.gauge("slideshow.skipped", () -> slideshow.getStatistics().getSkippedCount());
+        this.metrics.gauge("slideshow.held", () -> slideshow.getStatistics().getHeldCount());
+    }
+
+    private TileLayer createTileLayer() {
+        var executor = createWorkerPool("ive-tile-decoder", DECODER_THREADS);
+        var tileDecoder = new TileDecoder(executor);
+        var tileLayer = new TileLayer(tileDecoder, this.configuration.getTileCacheBytes());
+        registerCacheMetrics("tiles", tileLayer::getCacheStatistics);
+        tileLayer.widthProperty().bind(this.stage.widthProperty());
+        tileLayer.heightProperty().bind(this.stage.heightProperty());
+        return tileLayer;
+    }
+
+    private IveImageView createImageView(final TileLayer tileLayer) {
+        var scanDepth = this.configuration.getScanDepth();
+        var scanningHidden = this.configuration.isScanningHidden();
+        var sniffing = this.configuration.isSniffing();
+        var imageLoader = new ImageLoader(this.directory, SortOrder.NAME_ASCENDING, scanDepth, scanningHidden, sniffing);
+        this.imageLoader = imageLoader;
+        var imagePrefetcher = createImagePrefetcher();
+        var downsampling = this.configuration.isDownsampling();
+        var directoryIndexer = createDirectoryIndexer();
+        this.directoryIndexer = directoryIndexer;
+        var imageView = new IveImageView(imageLoader, directoryIndexer, imagePrefetcher, tileLayer, this, this, downsampling, this.metrics);
+        var contextMenu = new IveContextMenu(imageView, imageView);
         contextMenu.initialize();
         bindProperties(imageView);
         imageView.setOnContextMenuRequested(event -> contextMenu.show(this.stage, event.getScreenX(), event.getScreenY()));
-        imageView.loadImages();
-        imageView.showNextImage();
+        if (this.openedFile != null) {
+            imageView.showFile(this.openedFile);
+        }
+        imageView.scanImages(new DaemonThreadFactory("ive-scanner"));
+        if (this.configuration.isWatching()) {
+            if (this.configuration.getScanDepth() == 0) {
+                watchDirectory(imageLoader, imageView);
+            } else {
+                System.err.println("Live mode is disabled, as it watches only the top directory and subdirectories are scanned");
+            }
+        }
         return imageView;
     }
 
+    /**
+     * Watches the current directory of the loader. Changes reported after the loader moved to another
+     * directory are dropped.
+     */
+    private void watchDirectory(final ImageLoader imageLoader, final IveImageView imageView) {
+        var threadFactory = new DaemonThreadFactory("ive-watcher");
+        var quietPeriod = this.configuration.getWatchQuietPeriodMillis();
+        var directory = imageLoader.getDirectory();
+        var watcher = new DirectoryWatcher(imageLoader, threadFactory, quietPeriod, changes -> Platform.runLater(() -> {
+            if (directory.equals(imageLoader.getDirectory())) {
+                imageView.applyChanges(changes);
+            }
+        }));
+        watcher.start();
+        this.watcher = watcher;
+    }
+
+    /**
+     * Shows the image file, or browses the directory, in this window and brings it to front. Caches of the
+     * window are kept, so images seen before are shown without decoding them again.
+     */
+    public void open(final Path path) {
+        var directory = Files.isDirectory(path) ? path : path.getParent();
+        var file = directory.equals(path) ? null : path;
+        var directoryChanged = !directory.equals(this.imageLoader.getDirectory());
+        this.imageView.openDirectory(directory, file, new DaemonThreadFactory("ive-scanner"));
+        if (directoryChanged && this.watcher != null) {
+            this.watcher.stop();
+            watchDirectory(this.imageLoader, this.imageView);
+        }
+        this.stage.setIconified(false);
+        this.stage.toFront();
+    }
+
+    private ImagePrefetcher createImagePrefetcher() {
+        var executor = createWorkerPool("ive-decoder", DECODER_THREADS);
+        var previewExecutor = createWorkerPool("ive-preview-decoder", PREVIEW_DECODER_THREADS);
+        var imageDecoder = new ImageDecoder(executor, previewExecutor, this.configuration.isMappingFiles(), this.metrics);
+        var imageCache = new ImageCache(this.configuration.getImageCacheBytes());
+        registerCacheMetrics("images", imageCache::getStatistics);
+        var aheadCount = this.configuration.getPrefetchAhead();
+        var behindCount = this.configuration.getPrefetchBehind();
+        return new ImagePrefetcher(imageDecoder, imageCache, aheadCount, behindCount);
+    }
+
+    private ThumbnailGrid createThumbnailGrid(final IveImageView imageView) {
+        var thumbnailSize = this.configuration.getThumbnailSize();
+        var executor = createWorkerPool("ive-thumbnailer", DECODER_THREADS);
+        var thumbnailGenerator = new ThumbnailGenerator(() -> openThumbnailStore(thumbnailSize), executor, thumbnailSize);
+        this.thumbnailGenerator = thumbnailGenerator;
+        var thumbnailGrid = new ThumbnailGrid(imageView, thumbnailGenerator, thumbnailSize, THUMBNAIL_CACHE_BYTES);
+        registerCacheMetrics("thumbnails", thumbnailGrid::getCacheStatistics);
+        return thumbnailGrid;
+    }
+
+    /**
+     * Creates a pool of worker threads shut down along with the window
+     */
+    private ExecutorService createWorkerPool(final String threadName, final int threads) {
+        var threadFactory = new DaemonThreadFactory(threadName);
+        var executor = Executors.newFixedThreadPool(threads, threadFactory);
+        this.executors.add(executor);
+        return executor;
+    }
+
+    @Nullable
+    private DirectoryIndexer createDirectoryIndexer() {
+        if (!this.configuration.isIndexing() || this.configuration.getScanDepth() != 0) {
+            return null;
+        }
+        var indexDirectory = this.configuration.getCacheDirectory().resolve(INDEX_DIRECTORY_NAME);
+        var scanningHidden = this.configuration.isScanningHidden();
+        var sniffing = this.configuration.isSniffing();
+        return new DirectoryIndexer(indexDirectory, scanningHidden, sniffing, new DaemonThreadFactory("ive-indexer"));
+    }
+
+    @Nullable
+    private ThumbnailStore openThumbnailStore(final int thumbnailSize) {
+        var cacheDirectory = this.configuration.getCacheDirectory();
+        var file = cacheDirectory.resolve(THUMBNAIL_STORE_FILE_NAME);
+        var capacity = this.configuration.getThumbnailCapacity();
+        try {
+            return ThumbnailStore.open(file, thumbnailSize, capacity);
+        } catch (final IOException exception) {
+            System.err.println("Thumbnails are not stored: " + exception.getMessage());
+            return null;
+        }
+    }
+
     private void bindProperties(final IveImageView imageView) {
         var imageViewFitWidth = imageView.fitWidthProperty();
         var imageViewFitHeight = imageView.fitHeightProperty();
@@ -130,14 +424,56 @@ public final class IveWindow implements Titled, FullScreenable, Resizable {
         return stylesheetUrl.toExternalForm();
     }
 
+    /**
+     * Loads icons on a background thread, so they do not delay showing the window
+     */
     private void addIcons() {
-        var loadedIcons = ICON_LOADER.loadFromResources(IVE_ICON_PATH);
-        var stageIcons = this.stage.getIcons();
-        stageIcons.addAll(loadedIcons);
+        var threadFactory = new DaemonThreadFactory("ive-icon-loader");
+        var iconLoader = threadFactory.newThread(() -> {
+            var loadedIcons = ICON_LOADER.loadFromResources(IVE_ICON_PATH);
+            Platform.runLater(() -> this.stage.getIcons().addAll(loadedIcons));
+        });
+        iconLoader.start();
     }
 
+    /**
+     * Shows the window. When a file was opened, the window is shown once its image is set, so that the
+     * first frame already contains it, unless decoding it takes too long.
+     */
     public void show() {
+        if (this.openedFile == null || this.imageView.getImage() != null) {
+            showStage();
+            return;
+        }
+        var imageProperty = this.imageView.imageProperty();
+        var timeout = new PauseTransition(OPENED_IMAGE_TIMEOUT);
+        var imageListener = new InvalidationListener() {
+            @Override
+            public void invalidated(final Observable observable) {
+                imageProperty.removeListener(this);
+                timeout.stop();
+                showStage();
+            }
+        };
+        timeout.setOnFinished(event -> imageListener.invalidated(imageProperty));
+        imageProperty.addListener(imageListener);
+        timeout.play();
+    }
+
+    /**
+     * Shows the stage at the size already fitted to the image, if any, instead of the preferred size of
+     * the scene, which for an image already set would be its full resolution
+     */
+    private void showStage() {
+        var minimumWidth = this.stage.getMinWidth();
+        var minimumHeight = this.stage.getMinHeight();
+        if (minimumWidth > 0 && minimumHeight > 0) {
+            this.stage.setWidth(minimumWidth);
+            this.stage.setHeight(minimumHeight);
+            this.stage.centerOnScreen();
+        }
         this.stage.show();
+        addIcons();
     }
 
     @Override
@@ -163,20 +499,28 @@ public final class IveWindow implements Titled, FullScreenable, Resizable {
 
     @Override
     public void setMinimumWidth(final double width) {
-        var bounds = getScreenBounds();
-        var screenWidth = bounds.getWidth();
-        var minimumWidth = Math.min(width, screenWidth * 0.9);
+        var minimumWidth = Math.min(width, getMaximumWidth());
         this.stage.setMinWidth(minimumWidth);
     }
 
     @Override
     public void setMinimumHeight(final double height) {
-        var bounds = getScreenBounds();
-        var screenHeight = bounds.getHeight();
-        var minimumHeight = Math.min(height, screenHeight * 0.9);
+        var minimumHeight = Math.min(height, getMaximumHeight());
         this.stage.setMinHeight(minimumHeight);
     }
 
+    @Override
+    public double getMaximumWidth() {
+        var bounds = getScreenBounds();
+        return bounds.getWidth() * MAXIMUM_SCREEN_FRACTION;
+    }
+
+    @Override
+    public double getMaximumHeight() {
+        var bounds = getScreenBounds();
+        return bounds.getHeight() * MAXIMUM_SCREEN_FRACTION;
+    }
+
     private Rectangle2D getScreenBounds() {
         var screen = Screen.getPrimary();
         return screen.getBounds();
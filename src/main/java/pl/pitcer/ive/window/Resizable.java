@@ -33,5 +33,15 @@ public interface Resizable {
 
     void setMinimumHeight(double height);
 
+    /**
+     * Returns the largest width the minimum width is clamped to
+     */
+    double getMaximumWidth();
+
+    /**
+     * Returns the largest height the minimum height is clamped to
+     */
+    double getMaximumHeight();
+
     void center();
 }
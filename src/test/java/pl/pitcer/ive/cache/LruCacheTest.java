@@ -0,0 +1,75 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.cache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class LruCacheTest {
+
+    private final LruCache<String, String> cache = new LruCache<>(10, String::length);
+
+    @Test
+    public void testMissingValue() {
+        Assertions.assertNull(this.cache.get("key"));
+        Assertions.assertEquals(1, this.cache.getStatistics().getMissCount());
+    }
+
+    @Test
+    public void testStoredValue() {
+        this.cache.put("key", "value");
+        Assertions.assertEquals("value", this.cache.get("key"));
+        Assertions.assertEquals(1, this.cache.getStatistics().getHitCount());
+        Assertions.assertEquals(5, this.cache.getStatistics().getWeight());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedValueIsEvicted() {
+        this.cache.put("first", "1234");
+        this.cache.put("second", "1234");
+        this.cache.get("first");
+        this.cache.put("third", "1234");
+        Assertions.assertNotNull(this.cache.get("first"));
+        Assertions.assertNull(this.cache.get("second"));
+        Assertions.assertNotNull(this.cache.get("third"));
+        Assertions.assertEquals(1, this.cache.getStatistics().getEvictionCount());
+    }
+
+    @Test
+    public void testReplacedValueIsReweighed() {
+        this.cache.put("key", "123456");
+        this.cache.put("key", "12");
+        Assertions.assertEquals(2, this.cache.getStatistics().getWeight());
+        Assertions.assertEquals(1, this.cache.getStatistics().getSize());
+    }
+
+    @Test
+    public void testValueHeavierThanMaximumIsNotStored() {
+        this.cache.put("small", "1234");
+        this.cache.put("large", "12345678901");
+        Assertions.assertNull(this.cache.get("large"));
+        Assertions.assertNotNull(this.cache.get("small"));
+    }
+}
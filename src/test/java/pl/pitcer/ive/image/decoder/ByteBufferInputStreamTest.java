@@ -0,0 +1,62 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.decoder;
+
+import java.nio.ByteBuffer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ByteBufferInputStreamTest {
+
+    private final ByteBufferInputStream inputStream = new ByteBufferInputStream(ByteBuffer.wrap(new byte[]{1, 2, (byte) 0xFF, 4, 5}));
+
+    @Test
+    public void testReadsRemainingBytes() {
+        var bytes = new byte[4];
+        Assertions.assertEquals(1, this.inputStream.read());
+        Assertions.assertEquals(4, this.inputStream.read(bytes, 0, bytes.length));
+        Assertions.assertArrayEquals(new byte[]{2, (byte) 0xFF, 4, 5}, bytes);
+        Assertions.assertEquals(-1, this.inputStream.read());
+        Assertions.assertEquals(-1, this.inputStream.read(bytes, 0, 4));
+        Assertions.assertEquals(0, this.inputStream.read(bytes, 0, 0));
+    }
+
+    @Test
+    public void testUnsignedByte() {
+        this.inputStream.skip(2);
+        Assertions.assertEquals(0xFF, this.inputStream.read());
+    }
+
+    @Test
+    public void testSkipMarkAndReset() {
+        Assertions.assertEquals(2, this.inputStream.skip(2));
+        this.inputStream.mark(0);
+        Assertions.assertEquals(3, this.inputStream.skip(10));
+        Assertions.assertEquals(0, this.inputStream.available());
+        this.inputStream.reset();
+        Assertions.assertEquals(3, this.inputStream.available());
+        Assertions.assertEquals(0xFF, this.inputStream.read());
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.decoder;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pl.pitcer.ive.image.probe.ImageDimensions;
+
+public class ImageDecoderTest {
+
+    @Test
+    public void testImageFittingInBoxIsNotDownsampled() {
+        var dimensions = new ImageDimensions(800, 600);
+        Assertions.assertFalse(ImageDecoder.isDownsamplingRequired(dimensions, 1920, 1080));
+        Assertions.assertFalse(ImageDecoder.isDownsamplingRequired(dimensions, 800, 600));
+    }
+
+    @Test
+    public void testImageLargerThanBoxIsDownsampled() {
+        Assertions.assertTrue(ImageDecoder.isDownsamplingRequired(new ImageDimensions(4000, 600), 1920, 1080));
+        Assertions.assertTrue(ImageDecoder.isDownsamplingRequired(new ImageDimensions(800, 3000), 1920, 1080));
+        Assertions.assertTrue(ImageDecoder.isDownsamplingRequired(new ImageDimensions(4000, 600), 1920, 0));
+    }
+
+    @Test
+    public void testUnknownOrUnboundedImageIsNotDownsampled() {
+        Assertions.assertFalse(ImageDecoder.isDownsamplingRequired(null, 1920, 1080));
+        Assertions.assertFalse(ImageDecoder.isDownsamplingRequired(new ImageDimensions(4000, 3000), 0, 0));
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.grid;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class GridLayoutTest {
+
+    private final GridLayout layout = new GridLayout(100_000, 450, 100);
+
+    @Test
+    public void testDimensions() {
+        Assertions.assertEquals(4, this.layout.getColumnCount());
+        Assertions.assertEquals(25_000, this.layout.getRowCount());
+        Assertions.assertEquals(2_500_000, this.layout.getContentHeight());
+    }
+
+    @Test
+    public void testVisibleCells() {
+        Assertions.assertEquals(0, this.layout.getFirstVisibleIndex(0));
+        Assertions.assertEquals(40, this.layout.getFirstVisibleIndex(1050));
+        Assertions.assertEquals(16, this.layout.getVisibleCellCount(250));
+        Assertions.assertEquals(12, this.layout.getVisibleCellCount(200));
+    }
+
+    @Test
+    public void testCellPosition() {
+        Assertions.assertEquals(100, this.layout.getCellX(5));
+        Assertions.assertEquals(100, this.layout.getCellY(5));
+        Assertions.assertEquals(5, this.layout.getIndexAt(150, 199));
+        Assertions.assertEquals(-1, this.layout.getIndexAt(420, 0));
+        Assertions.assertEquals(-1, new GridLayout(5, 450, 100).getIndexAt(150, 150));
+    }
+
+    @Test
+    public void testScrollOffsetRevealingCell() {
+        Assertions.assertEquals(300, this.layout.getScrollOffsetRevealing(12, 500, 250));
+        Assertions.assertEquals(650, this.layout.getScrollOffsetRevealing(32, 300, 250));
+        Assertions.assertEquals(300, this.layout.getScrollOffsetRevealing(12, 300, 250));
+    }
+
+    @Test
+    public void testMoveStaysWithinGrid() {
+        var smallLayout = new GridLayout(10, 450, 100);
+        Assertions.assertEquals(5, smallLayout.move(1, 1, 0));
+        Assertions.assertEquals(0, smallLayout.move(1, -1, 0));
+        Assertions.assertEquals(9, smallLayout.move(8, 1, 0));
+        Assertions.assertEquals(2, smallLayout.move(1, 0, 1));
+        Assertions.assertEquals(-1, new GridLayout(0, 450, 100).move(0, 1, 0));
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.index;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pl.pitcer.ive.image.loader.FileEntry;
+import pl.pitcer.ive.image.loader.ImageFormat;
+import pl.pitcer.ive.image.probe.ImageDimensions;
+
+public class DirectoryIndexTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testIndexSurvivesWriting() throws IOException {
+        var images = List.of(createEntry("a.jpg", 1), createEntry("b image.png", 2), createEntry("c.gif", 3));
+        var jpegMetadata = new ImageMetadata(ImageFormat.JPEG, new ImageDimensions(4000, 3000), LocalDateTime.of(2019, 7, 14, 18, 30, 5));
+        var gifMetadata = new ImageMetadata(ImageFormat.GIF, null, null);
+        var index = new DirectoryIndex(this.directory, 1234, 3, images, new ImageMetadata[]{jpegMetadata, null, gifMetadata});
+        var file = this.directory.resolve("index");
+        index.write(file);
+        var readIndex = DirectoryIndex.read(file, this.directory);
+        Assertions.assertNotNull(readIndex);
+        Assertions.assertEquals(images, readIndex.getImages());
+        Assertions.assertTrue(readIndex.isUpToDate(1234, 3));
+        Assertions.assertFalse(readIndex.isUpToDate(1235, 3));
+        Assertions.assertFalse(readIndex.isUpToDate(1234, 1));
+        Assertions.assertEquals(jpegMetadata, readIndex.getMetadata(images.get(0)));
+        Assertions.assertNull(readIndex.getMetadata(images.get(1)));
+        Assertions.assertEquals(gifMetadata, readIndex.getMetadata(images.get(2)));
+        Assertions.assertNull(readIndex.getMetadata(createEntry("a.jpg", 5)));
+    }
+
+    @Test
+    public void testIndexOfOtherDirectoryIsRejected() throws IOException {
+        var file = this.directory.resolve("index");
+        new DirectoryIndex(this.directory, 0, 0, List.of(createEntry("a.jpg", 1)), new ImageMetadata[1]).write(file);
+        Assertions.assertNull(DirectoryIndex.read(file, this.directory.resolve("other")));
+    }
+
+    @Test
+    public void testMalformedIndexIsRejected() throws IOException {
+        var file = this.directory.resolve("index");
+        Assertions.assertNull(DirectoryIndex.read(file, this.directory));
+        new DirectoryIndex(this.directory, 0, 0, List.of(createEntry("a.jpg", 1)), new ImageMetadata[1]).write(file);
+        var content = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(content, content.length - 1));
+        Assertions.assertNull(DirectoryIndex.read(file, this.directory));
+        content[12] = 0x7F;
+        Files.write(file, content);
+        Assertions.assertNull(DirectoryIndex.read(file, this.directory));
+        Files.write(file, "not an index at all, just some text".getBytes());
+        Assertions.assertNull(DirectoryIndex.read(file, this.directory));
+    }
+
+    private FileEntry createEntry(final String name, final long size) {
+        return new FileEntry(this.directory.resolve(name), size * 1000, size);
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.index;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pl.pitcer.ive.image.loader.FileEntry;
+import pl.pitcer.ive.image.loader.ImageFormat;
+import pl.pitcer.ive.image.loader.ImageLoader;
+import pl.pitcer.ive.image.loader.SortOrder;
+import pl.pitcer.ive.image.probe.ImageDimensions;
+
+public class DirectoryIndexerTest {
+
+    private static final long DIRECTORY_MODIFIED = 1_500_000_000_000L;
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    @TempDir
+    Path directory;
+
+    private Path images;
+    private Path indexes;
+
+    @BeforeEach
+    public void createImages() throws IOException {
+        this.images = Files.createDirectory(this.directory.resolve("images"));
+        this.indexes = this.directory.resolve("indexes");
+        var header = ByteBuffer.allocate(33)
+            .putLong(0x89504E470D0A1A0AL)
+            .putInt(13)
+            .putInt(0x49484452)
+            .putInt(640)
+            .putInt(480);
+        Files.write(this.images.resolve("a.png"), header.array());
+        Files.write(this.images.resolve("b.png"), header.array());
+        Files.setLastModifiedTime(this.images, FileTime.fromMillis(DIRECTORY_MODIFIED));
+    }
+
+    @Test
+    public void testUnchangedDirectoryIsReadFromIndex() throws Exception {
+        var imageLoader = new ImageLoader(this.images, SortOrder.NAME_ASCENDING);
+        var directoryIndexer = new DirectoryIndexer(this.indexes, true, false, Executors.defaultThreadFactory());
+        Assertions.assertEquals(List.of("a.png", "b.png"), scan(directoryIndexer, imageLoader));
+        awaitProbedIndex(2);
+        Files.write(this.images.resolve("c.png"), new byte[1]);
+        Files.setLastModifiedTime(this.images, FileTime.fromMillis(DIRECTORY_MODIFIED));
+        var otherIndexer = new DirectoryIndexer(this.indexes, true, false, Executors.defaultThreadFactory());
+        Assertions.assertEquals(List.of("a.png", "b.png"), scan(otherIndexer, imageLoader));
+        var image = imageLoader.loadImage(this.images.resolve("a.png"));
+        var metadata = awaitMetadata(otherIndexer, image);
+        Assertions.assertEquals(new ImageMetadata(ImageFormat.PNG, new ImageDimensions(640, 480), null), metadata);
+    }
+
+    @Test
+    public void testMetadataIsNotLookedUpBeforeLookupIsBuilt() throws Exception {
+        var imageLoader = new ImageLoader(this.images, SortOrder.NAME_ASCENDING);
+        scan(new DirectoryIndexer(this.indexes, true, false, Executors.defaultThreadFactory()), imageLoader);
+        awaitProbedIndex(2);
+        var started = new CountDownLatch(1);
+        var otherIndexer = new DirectoryIndexer(this.indexes, true, false, runnable -> new Thread(() -> {
+            try {
+                started.await();
+                runnable.run();
+            } catch (final InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        scan(otherIndexer, imageLoader);
+        var image = imageLoader.loadImage(this.images.resolve("a.png"));
+        Assertions.assertNull(otherIndexer.getMetadata(image));
+        started.countDown();
+        Assertions.assertNotNull(awaitMetadata(otherIndexer, image));
+    }
+
+    @Test
+    public void testChangedDirectoryIsListedAgain() throws Exception {
+        var imageLoader = new ImageLoader(this.images, SortOrder.NAME_ASCENDING);
+        var directoryIndexer = new DirectoryIndexer(this.indexes, true, false, Executors.defaultThreadFactory());
+        scan(directoryIndexer, imageLoader);
+        awaitProbedIndex(2);
+        Files.write(this.images.resolve("c.png"), new byte[1]);
+        Files.setLastModifiedTime(this.images, FileTime.fromMillis(DIRECTORY_MODIFIED + 1000));
+        Assertions.assertEquals(List.of("a.png", "b.png", "c.png"), scan(directoryIndexer, imageLoader));
+        var index = awaitProbedIndex(3);
+        var image = imageLoader.loadImage(this.images.resolve("c.png"));
+        Assertions.assertEquals(new ImageMetadata(null, null, null), index.getMetadata(image));
+    }
+
+    @Test
+    public void testIndexOfOtherSettingsIsNotUsed() throws Exception {
+        var imageLoader = new ImageLoader(this.images, SortOrder.NAME_ASCENDING);
+        scan(new DirectoryIndexer(this.indexes, true, false, Executors.defaultThreadFactory()), imageLoader);
+        awaitProbedIndex(2);
+        Files.write(this.images.resolve("c.png"), new byte[1]);
+        Files.setLastModifiedTime(this.images, FileTime.fromMillis(DIRECTORY_MODIFIED));
+        var otherIndexer = new DirectoryIndexer(this.indexes, false, false, Executors.defaultThreadFactory());
+        Assertions.assertEquals(List.of("a.png", "b.png", "c.png"), scan(otherIndexer, imageLoader));
+        awaitProbedIndex(3);
+    }
+
+    private static List<String> scan(final DirectoryIndexer directoryIndexer, final ImageLoader imageLoader) {
+        List<FileEntry> images = new ArrayList<>();
+        directoryIndexer.scanImages(imageLoader, images::addAll);
+        return imageLoader.sortImages(images).stream()
+            .map(FileEntry::getName)
+            .collect(Collectors.toUnmodifiableList());
+    }
+
+    private static ImageMetadata awaitMetadata(final DirectoryIndexer directoryIndexer, final FileEntry image) throws InterruptedException {
+        var deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (System.currentTimeMillis() < deadline) {
+            var metadata = directoryIndexer.getMetadata(image);
+            if (metadata != null) {
+                return metadata;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Metadata was not looked up in time");
+    }
+
+    /**
+     * Waits until the index file holds the given number of images, all of them probed
+     */
+    private DirectoryIndex awaitProbedIndex(final int imageCount) throws IOException, InterruptedException {
+        var deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (System.currentTimeMillis() < deadline) {
+            var index = readIndex();
+            if (index != null && index.getImages().size() == imageCount && index.getImages().stream().allMatch(image -> index.getMetadata(image) != null)) {
+                return index;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Index was not written in time");
+    }
+
+    private DirectoryIndex readIndex() throws IOException {
+        if (!Files.isDirectory(this.indexes)) {
+            return null;
+        }
+        try (var files = Files.list(this.indexes)) {
+            var file = files.filter(path -> path.toString().endsWith(".index")).findFirst();
+            return file.isPresent() ? DirectoryIndex.read(file.get(), this.images) : null;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.loader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ContentSnifferTest {
+
+    private static final byte[] PNG_HEADER = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 0, 0};
+    private static final byte[] GIF_HEADER = {'G', 'I', 'F', '8', '9', 'a'};
+
+    @TempDir
+    Path directory;
+
+    private final ContentSniffer contentSniffer = new ContentSniffer(4);
+
+    @Test
+    public void testFormatIsRecognizedByContent() throws IOException {
+        Assertions.assertEquals(ImageFormat.PNG, this.contentSniffer.sniff(createFile("image.png", PNG_HEADER)));
+        Assertions.assertEquals(ImageFormat.GIF, this.contentSniffer.sniff(createFile("mislabelled.jpg", GIF_HEADER)));
+        Assertions.assertNull(this.contentSniffer.sniff(createFile("broken.jpg", "text".getBytes())));
+        Assertions.assertNull(this.contentSniffer.sniff(createFile("empty.png", new byte[0])));
+        Assertions.assertNull(this.contentSniffer.sniff(new FileEntry(this.directory.resolve("missing.png"), 0, 0)));
+    }
+
+    @Test
+    public void testResultIsCachedBySnapshot() throws IOException {
+        var file = createFile("image.png", PNG_HEADER);
+        Assertions.assertEquals(ImageFormat.PNG, this.contentSniffer.sniff(file));
+        Files.write(file.getPath(), GIF_HEADER);
+        Assertions.assertEquals(ImageFormat.PNG, this.contentSniffer.sniff(file));
+        Assertions.assertEquals(1, this.contentSniffer.getStatistics().getHitCount());
+        var changedFile = new FileEntry(file.getPath(), file.getLastModified() + 1, GIF_HEADER.length);
+        Assertions.assertEquals(ImageFormat.GIF, this.contentSniffer.sniff(changedFile));
+    }
+
+    @Test
+    public void testBatchIsFilteredInOrder() throws IOException {
+        List<FileEntry> files = new ArrayList<>();
+        List<FileEntry> expectedImages = new ArrayList<>();
+        for (int index = 0; index < 100; index++) {
+            var image = index % 3 != 0;
+            var file = createFile(index + ".png", image ? PNG_HEADER : new byte[8]);
+            files.add(file);
+            if (image) {
+                expectedImages.add(file);
+            }
+        }
+        Assertions.assertEquals(expectedImages, this.contentSniffer.filterImages(files));
+    }
+
+    private FileEntry createFile(final String name, final byte[] content) throws IOException {
+        var path = Files.write(this.directory.resolve(name), content);
+        return new FileEntry(path, 0, content.length);
+    }
+}
@@ -62,6 +62,13 @@ public class ImageFilterTest {
         Assertions.assertFalse(result);
     }
 
+    @Test
+    public void testUpperCaseSuffix() {
+        var imageFilter = new ImageFilter();
+        Assertions.assertTrue(imageFilter.acceptName("IMG_0001.JPG"));
+        Assertions.assertFalse(imageFilter.acceptName("IMG_0001.TXT"));
+    }
+
     @Test
     public void testExistedPngImageFile() {
         File imageFile = Resources.getResource("image/image.png");
@@ -0,0 +1,198 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.loader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ImageLoaderTest {
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    public void createFiles() throws IOException {
+        createFile("b.png", 3, 1000);
+        createFile("a.jpg", 1, 3000);
+        createFile("c.jpeg", 2, 2000);
+        createFile("d.txt", 4, 4000);
+        Files.createDirectory(this.directory.resolve("e.png"));
+    }
+
+    private void createFile(final String name, final int size, final long lastModified) throws IOException {
+        var path = this.directory.resolve(name);
+        Files.createDirectories(path.getParent());
+        var file = Files.write(path, new byte[size]);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(lastModified));
+    }
+
+    @Test
+    public void testOnlyImageFilesAreLoaded() {
+        var imageLoader = new ImageLoader(this.directory, SortOrder.NAME_ASCENDING);
+        var images = imageLoader.loadImages();
+        Assertions.assertEquals(List.of("a.jpg", "b.png", "c.jpeg"), getNames(images));
+    }
+
+    @Test
+    public void testAttributesAreSnapshotted() {
+        var imageLoader = new ImageLoader(this.directory, SortOrder.NAME_ASCENDING);
+        var image = imageLoader.loadImages().get(0);
+        Assertions.assertEquals(1, image.getSize());
+        Assertions.assertEquals(3000, image.getLastModified());
+    }
+
+    @Test
+    public void testImagesAreResortedWithoutFilesystem() throws IOException {
+        var imageLoader = new ImageLoader(this.directory, SortOrder.NAME_ASCENDING);
+        var images = imageLoader.loadImages();
+        for (final FileEntry image : images) {
+            Files.delete(image.getPath());
+        }
+        imageLoader.setSortOrder(SortOrder.SIZE_DESCENDING);
+        Assertions.assertEquals(List.of("b.png", "c.jpeg", "a.jpg"), getNames(imageLoader.sortImages(images)));
+        imageLoader.setSortOrder(SortOrder.MODIFICATION_TIME_ASCENDING);
+        Assertions.assertEquals(List.of("b.png", "c.jpeg", "a.jpg"), getNames(imageLoader.sortImages(images)));
+    }
+
+    @Test
+    public void testImagesAreMergedIntoSortedImages() {
+        var imageLoader = new ImageLoader(this.directory, SortOrder.NAME_ASCENDING);
+        var images = imageLoader.loadImages();
+        var mergedImages = List.of(createEntry("z.png"), createEntry("0.png"), createEntry("bb.png"));
+        var result = imageLoader.mergeImages(images, mergedImages);
+        Assertions.assertEquals(List.of("0.png", "a.jpg", "b.png", "bb.png", "c.jpeg", "z.png"), getNames(result));
+    }
+
+    @Test
+    public void testImagesAreSortedNaturally() {
+        var imageLoader = new ImageLoader(this.directory, SortOrder.NATURAL_ASCENDING);
+        var images = List.of(createEntry("img10.png"), createEntry("IMG3.png"), createEntry("img2.png"), createEntry("img02.png"), createEntry("img1.png"));
+        var sortedImages = imageLoader.sortImages(images);
+        Assertions.assertEquals(List.of("img1.png", "img02.png", "img2.png", "IMG3.png", "img10.png"), getNames(sortedImages));
+        var mergedImages = List.of(createEntry("img9.png"), createEntry("img100.png"), createEntry("a.png"));
+        var result = imageLoader.mergeImages(sortedImages, mergedImages);
+        Assertions.assertEquals(List.of("a.png", "img1.png", "img02.png", "img2.png", "IMG3.png", "img9.png", "img10.png", "img100.png"), getNames(result));
+        imageLoader.setSortOrder(SortOrder.NATURAL_DESCENDING);
+        Assertions.assertEquals(List.of("img10.png", "IMG3.png", "img2.png", "img02.png", "img1.png"), getNames(imageLoader.sortImages(images)));
+    }
+
+    @Test
+    public void testScannedImagesArePassedInGrowingBatches() {
+        var imageLoader = new ImageLoader(this.directory, SortOrder.NAME_ASCENDING);
+        List<List<FileEntry>> batches = new ArrayList<>();
+        imageLoader.scanImages(batches::add);
+        Assertions.assertEquals(List.of(1, 2), batches.stream().map(List::size).collect(Collectors.toUnmodifiableList()));
+        var images = batches.stream()
+            .flatMap(List::stream)
+            .collect(Collectors.toUnmodifiableList());
+        Assertions.assertEquals(List.of("a.jpg", "b.png", "c.jpeg"), getNames(imageLoader.sortImages(images)));
+    }
+
+    @Test
+    public void testSubdirectoriesAreScannedUpToDepth() throws IOException {
+        createFile("first/f.png", 1, 0);
+        createFile("first/second/s.png", 1, 0);
+        createFile("first/second/third/t.png", 1, 0);
+        var imageLoader = new ImageLoader(this.directory, SortOrder.NAME_ASCENDING, 2, true);
+        var images = imageLoader.loadImages();
+        Assertions.assertEquals(List.of("a.jpg", "b.png", "c.jpeg", "f.png", "s.png"), getNames(images));
+    }
+
+    @Test
+    public void testHiddenFilesAreSkipped() throws IOException {
+        createFile(".hidden.png", 1, 0);
+        createFile(".hidden/h.png", 1, 0);
+        var imageLoader = new ImageLoader(this.directory, SortOrder.NAME_ASCENDING, 1, false);
+        var images = imageLoader.loadImages();
+        Assertions.assertEquals(List.of("a.jpg", "b.png", "c.jpeg"), getNames(images));
+    }
+
+    @Test
+    public void testSymbolicLinkCycleIsScannedOnce() throws IOException {
+        createFile("first/f.png", 1, 0);
+        var linked = createSymbolicLink(this.directory.resolve("first/cycle"), this.directory);
+        Assumptions.assumeTrue(linked, "Symbolic links are not supported");
+        var imageLoader = new ImageLoader(this.directory, SortOrder.NAME_ASCENDING, Integer.MAX_VALUE, true);
+        var images = imageLoader.loadImages();
+        Assertions.assertEquals(List.of("a.jpg", "b.png", "c.jpeg", "f.png"), getNames(images));
+    }
+
+    @Test
+    public void testLoadImageRejectsNonImages() {
+        var imageLoader = new ImageLoader(this.directory, SortOrder.NAME_ASCENDING);
+        Assertions.assertNotNull(imageLoader.loadImage(this.directory.resolve("b.png")));
+        Assertions.assertNull(imageLoader.loadImage(this.directory.resolve("d.txt")));
+        Assertions.assertNull(imageLoader.loadImage(this.directory.resolve("e.png")));
+        Assertions.assertNull(imageLoader.loadImage(this.directory.resolve("missing.png")));
+    }
+
+    @Test
+    public void testSniffingAcceptsOnlyImageContent() throws IOException {
+        Files.write(this.directory.resolve("f.PNG"), new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'});
+        Files.write(this.directory.resolve("g.png"), new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0});
+        var imageLoader = new ImageLoader(this.directory, SortOrder.NAME_ASCENDING, 0, true, true);
+        Assertions.assertEquals(List.of("f.PNG", "g.png"), getNames(imageLoader.loadImages()));
+        Assertions.assertNull(imageLoader.loadImage(this.directory.resolve("b.png")));
+        Assertions.assertNotNull(imageLoader.loadImage(this.directory.resolve("g.png")));
+    }
+
+    @Test
+    public void testSniffingAcceptsOnlyImageContentOfSubdirectories() throws IOException {
+        Files.createDirectories(this.directory.resolve("first"));
+        Files.write(this.directory.resolve("first/f.png"), new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'});
+        createFile("first/s.png", 1, 0);
+        var imageLoader = new ImageLoader(this.directory, SortOrder.NAME_ASCENDING, 1, true, true);
+        Assertions.assertEquals(List.of("f.png"), getNames(imageLoader.loadImages()));
+    }
+
+    private static boolean createSymbolicLink(final Path link, final Path target) {
+        try {
+            Files.createSymbolicLink(link, target);
+            return true;
+        } catch (final UnsupportedOperationException | IOException exception) {
+            return false;
+        }
+    }
+
+    private FileEntry createEntry(final String name) {
+        return new FileEntry(this.directory.resolve(name), 0, 0);
+    }
+
+    private static List<String> getNames(final List<FileEntry> images) {
+        return images.stream()
+            .map(FileEntry::getName)
+            .collect(Collectors.toUnmodifiableList());
+    }
+}
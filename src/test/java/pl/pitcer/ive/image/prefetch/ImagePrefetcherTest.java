@@ -0,0 +1,137 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.prefetch;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pl.pitcer.ive.image.cache.ImageCache;
+import pl.pitcer.ive.image.cursor.array.ArrayCursor;
+import pl.pitcer.ive.image.decoder.ImageDecoder;
+import pl.pitcer.ive.image.loader.FileEntry;
+import pl.pitcer.ive.metrics.MetricsRegistry;
+
+public class ImagePrefetcherTest {
+
+    private static final List<FileEntry> FILES = List.of(
+        createEntry("0.png"), createEntry("1.png"), createEntry("2.png"), createEntry("3.png"), createEntry("4.png"), createEntry("5.png")
+    );
+
+    private final List<Runnable> scheduledDecodings = new ArrayList<>();
+    private final List<Runnable> scheduledPreviewDecodings = new ArrayList<>();
+    private final Executor executor = this.scheduledDecodings::add;
+    private final ImageDecoder decoder = new ImageDecoder(this.executor, this.scheduledPreviewDecodings::add, false, new MetricsRegistry());
+    private final ImagePrefetcher prefetcher = new ImagePrefetcher(this.decoder, new ImageCache(0), 2, 1);
+
+    @TempDir
+    Path directory;
+
+    private static FileEntry createEntry(final String name) {
+        return new FileEntry(Path.of(name), 0, 0);
+    }
+
+    @Test
+    public void testFetchSchedulesCurrentAndNeighbours() {
+        this.prefetcher.fetch(new ArrayCursor<>(FILES, 0));
+        Assertions.assertEquals(4, this.scheduledDecodings.size());
+    }
+
+    @Test
+    public void testNeighbourIsReusedAfterMovingForward() {
+        this.prefetcher.fetch(new ArrayCursor<>(FILES, 0));
+        var previousCount = this.scheduledDecodings.size();
+        var next = this.prefetcher.fetch(new ArrayCursor<>(FILES, 1));
+        Assertions.assertFalse(next.isCancelled());
+        Assertions.assertEquals(previousCount + 1, this.scheduledDecodings.size());
+    }
+
+    @Test
+    public void testWrapAroundNeighbourIsPrefetched() {
+        this.prefetcher.fetch(new ArrayCursor<>(FILES, 0));
+        var previousCount = this.scheduledDecodings.size();
+        this.prefetcher.fetch(new ArrayCursor<>(FILES, 5));
+        Assertions.assertEquals(previousCount + 2, this.scheduledDecodings.size());
+    }
+
+    @Test
+    public void testDecodingOutsideOfWindowIsCancelled() {
+        var first = this.prefetcher.fetch(new ArrayCursor<>(FILES, 0));
+        this.prefetcher.fetch(new ArrayCursor<>(FILES, 1));
+        this.prefetcher.fetch(new ArrayCursor<>(FILES, 2));
+        Assertions.assertTrue(first.isCancelled());
+    }
+
+    @Test
+    public void testDecodingBehindIsKeptWhenMovingBackward() {
+        var behind = this.prefetcher.fetch(new ArrayCursor<>(FILES, 3));
+        var ahead = this.prefetcher.fetch(new ArrayCursor<>(FILES, 4));
+        this.prefetcher.fetch(new ArrayCursor<>(FILES, 3));
+        Assertions.assertFalse(behind.isCancelled());
+        Assertions.assertFalse(ahead.isCancelled());
+    }
+
+    @Test
+    public void testDecodingAtAnotherSizeIsCancelled() {
+        var small = this.prefetcher.fetch(new ArrayCursor<>(FILES, 0), 800, 600);
+        var previousCount = this.scheduledDecodings.size();
+        var large = this.prefetcher.fetch(new ArrayCursor<>(FILES, 0), 1920, 1080);
+        Assertions.assertTrue(small.isCancelled());
+        Assertions.assertFalse(large.isCancelled());
+        Assertions.assertEquals(2 * previousCount, this.scheduledDecodings.size());
+    }
+
+    @Test
+    public void testPreviewIsDecodedBeforeQueuedDecodings() throws IOException {
+        var file = new FileEntry(Files.write(this.directory.resolve("0.png"), new byte[]{0}), 0, 0);
+        var image = this.prefetcher.fetch(new ArrayCursor<>(List.of(file), 0));
+        var preview = this.prefetcher.fetchPreview(file);
+        this.scheduledPreviewDecodings.forEach(Runnable::run);
+        Assertions.assertTrue(preview.isDone());
+        Assertions.assertFalse(preview.isCompletedExceptionally());
+        Assertions.assertFalse(image.isDone());
+    }
+
+    @Test
+    public void testOnlyFinishedDecodingInWindowIsDecoded() {
+        this.prefetcher.fetch(new ArrayCursor<>(FILES, 0));
+        Assertions.assertFalse(this.prefetcher.isDecoded(FILES.get(1)));
+        this.scheduledDecodings.forEach(Runnable::run);
+        Assertions.assertTrue(this.prefetcher.isDecoded(FILES.get(1)));
+        Assertions.assertFalse(this.prefetcher.isDecoded(FILES.get(4)));
+    }
+
+    @Test
+    public void testWindowLargerThanFilesSchedulesEachFileOnce() {
+        var prefetcher = new ImagePrefetcher(this.decoder, new ImageCache(0), 10, 10);
+        prefetcher.fetch(new ArrayCursor<>(FILES, 0));
+        Assertions.assertEquals(FILES.size(), this.scheduledDecodings.size());
+    }
+}
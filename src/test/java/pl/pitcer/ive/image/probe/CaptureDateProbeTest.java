@@ -0,0 +1,108 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.probe;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class CaptureDateProbeTest {
+
+    private static final byte[] ORIGINAL_DATE = "2019:07:14 18:30:05\0".getBytes();
+    private static final byte[] MODIFICATION_DATE = "2020:01:02 03:04:05\0".getBytes();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testOriginalDateIsPreferred() throws IOException {
+        var file = writeJpeg(createExif(ByteOrder.LITTLE_ENDIAN, true));
+        Assertions.assertEquals(LocalDateTime.of(2019, 7, 14, 18, 30, 5), CaptureDateProbe.probe(file));
+        var otherFile = writeJpeg(createExif(ByteOrder.BIG_ENDIAN, true));
+        Assertions.assertEquals(LocalDateTime.of(2019, 7, 14, 18, 30, 5), CaptureDateProbe.probe(otherFile));
+    }
+
+    @Test
+    public void testModificationDateWithoutExifDirectory() throws IOException {
+        var file = writeJpeg(createExif(ByteOrder.LITTLE_ENDIAN, false));
+        Assertions.assertEquals(LocalDateTime.of(2020, 1, 2, 3, 4, 5), CaptureDateProbe.probe(file));
+    }
+
+    @Test
+    public void testImagesWithoutDate() throws IOException {
+        Assertions.assertNull(CaptureDateProbe.probe(writeJpeg("http://ns.adobe.com/xap/1.0/\0".getBytes())));
+        Assertions.assertNull(CaptureDateProbe.probe(Files.write(this.directory.resolve("image.png"), new byte[]{(byte) 0x89, 'P', 'N', 'G'})));
+    }
+
+    /**
+     * Creates EXIF metadata with the modification date in IFD0, followed by the EXIF directory with the
+     * original date when requested
+     */
+    private static byte[] createExif(final ByteOrder byteOrder, final boolean withExifDirectory) {
+        var tiff = ByteBuffer.allocate(100)
+            .order(byteOrder)
+            .putShort(byteOrder == ByteOrder.LITTLE_ENDIAN ? (short) 0x4949 : (short) 0x4D4D)
+            .putShort((short) 42)
+            .putInt(8)
+            .putShort((short) 2)
+            .putShort((short) 0x0132).putShort((short) 2).putInt(20).putInt(38)
+            .putShort((short) (withExifDirectory ? 0x8769 : 0x0131)).putShort((short) 4).putInt(1).putInt(58)
+            .putInt(0)
+            .put(MODIFICATION_DATE)
+            .putShort((short) 1)
+            .putShort((short) 0x9003).putShort((short) 2).putInt(20).putInt(76)
+            .putInt(0)
+            .put(ORIGINAL_DATE);
+        var content = new ByteArrayOutputStream();
+        content.writeBytes(new byte[]{'E', 'x', 'i', 'f', 0, 0});
+        content.writeBytes(tiff.array());
+        return content.toByteArray();
+    }
+
+    private Path writeJpeg(final byte[] app1Content) throws IOException {
+        var content = new ByteArrayOutputStream();
+        content.writeBytes(new byte[]{(byte) 0xFF, (byte) 0xD8});
+        writeSegment(content, 0xE1, app1Content);
+        writeSegment(content, 0xC0, new byte[]{8, 0, 16, 0, 16, 3});
+        writeSegment(content, 0xDA, new byte[8]);
+        return Files.write(this.directory.resolve("image.jpg"), content.toByteArray());
+    }
+
+    private static void writeSegment(final ByteArrayOutputStream content, final int marker, final byte[] data) {
+        var length = data.length + 2;
+        content.write(0xFF);
+        content.write(marker);
+        content.write(length >> 8 & 0xFF);
+        content.write(length & 0xFF);
+        content.writeBytes(data);
+    }
+}
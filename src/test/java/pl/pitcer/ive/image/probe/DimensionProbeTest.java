@@ -0,0 +1,105 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.probe;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class DimensionProbeTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testPngDimensions() throws IOException {
+        var header = ByteBuffer.allocate(33)
+            .putLong(0x89504E470D0A1A0AL)
+            .putInt(13)
+            .putInt(0x49484452)
+            .putInt(4000)
+            .putInt(3000);
+        var file = write("image.png", header.array());
+        Assertions.assertEquals(new ImageDimensions(4000, 3000), DimensionProbe.probe(file));
+    }
+
+    @Test
+    public void testJpegDimensionsAfterSkippedSegments() throws IOException {
+        var content = new ByteArrayOutputStream();
+        content.write(new byte[]{(byte) 0xFF, (byte) 0xD8});
+        writeSegment(content, 0xE1, new byte[60_000]);
+        writeSegment(content, 0xDB, new byte[64]);
+        content.write(new byte[]{(byte) 0xFF, (byte) 0xFF});
+        writeSegment(content, 0xC2, new byte[]{8, 0x0B, (byte) 0xB8, 0x0F, (byte) 0xA0, 3});
+        var file = write("image.jpg", content.toByteArray());
+        Assertions.assertEquals(new ImageDimensions(4000, 3000), DimensionProbe.probe(file));
+    }
+
+    @Test
+    public void testJpegDimensionsInMemory() throws IOException {
+        var content = new ByteArrayOutputStream();
+        content.write(new byte[]{(byte) 0xFF, (byte) 0xD8});
+        writeSegment(content, 0xDB, new byte[64]);
+        writeSegment(content, 0xC0, new byte[]{8, 0x00, (byte) 0xF0, 0x01, 0x40, 3});
+        Assertions.assertEquals(new ImageDimensions(320, 240), DimensionProbe.probe(content.toByteArray()));
+        Assertions.assertNull(DimensionProbe.probe(new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF}));
+    }
+
+    @Test
+    public void testJpegWithoutFrameBeforeScan() throws IOException {
+        var content = new ByteArrayOutputStream();
+        content.write(new byte[]{(byte) 0xFF, (byte) 0xD8});
+        writeSegment(content, 0xC4, new byte[16]);
+        writeSegment(content, 0xDA, new byte[8]);
+        var file = write("image.jpg", content.toByteArray());
+        Assertions.assertNull(DimensionProbe.probe(file));
+    }
+
+    @Test
+    public void testTruncatedAndUnknownFiles() throws IOException {
+        Assertions.assertNull(DimensionProbe.probe(write("empty.png", new byte[0])));
+        Assertions.assertNull(DimensionProbe.probe(write("truncated.png", new byte[]{(byte) 0x89, 0x50, 0x4E, 0x47})));
+        Assertions.assertNull(DimensionProbe.probe(write("truncated.jpg", new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE1, 0x10})));
+        Assertions.assertNull(DimensionProbe.probe(write("text.png", "not an image at all".getBytes())));
+    }
+
+    private static void writeSegment(final ByteArrayOutputStream content, final int marker, final byte[] data) {
+        var length = data.length + 2;
+        content.write(0xFF);
+        content.write(marker);
+        content.write(length >> 8 & 0xFF);
+        content.write(length & 0xFF);
+        content.writeBytes(data);
+    }
+
+    private Path write(final String name, final byte[] content) throws IOException {
+        return Files.write(this.directory.resolve(name), content);
+    }
+}
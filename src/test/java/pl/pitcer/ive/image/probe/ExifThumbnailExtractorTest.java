@@ -0,0 +1,119 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.probe;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ExifThumbnailExtractorTest {
+
+    private static final byte[] THUMBNAIL = {(byte) 0xFF, (byte) 0xD8, 1, 2, 3, (byte) 0xFF, (byte) 0xD9};
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testLittleEndianThumbnail() throws IOException {
+        var file = writeJpeg(createExif(ByteOrder.LITTLE_ENDIAN, 44, THUMBNAIL.length));
+        Assertions.assertArrayEquals(THUMBNAIL, ExifThumbnailExtractor.extract(file));
+    }
+
+    @Test
+    public void testBigEndianThumbnail() throws IOException {
+        var file = writeJpeg(createExif(ByteOrder.BIG_ENDIAN, 44, THUMBNAIL.length));
+        Assertions.assertArrayEquals(THUMBNAIL, ExifThumbnailExtractor.extract(file));
+    }
+
+    @Test
+    public void testThumbnailOutsideOfSegment() throws IOException {
+        var file = writeJpeg(createExif(ByteOrder.LITTLE_ENDIAN, 44, 1000));
+        Assertions.assertNull(ExifThumbnailExtractor.extract(file));
+        var otherFile = writeJpeg(createExif(ByteOrder.LITTLE_ENDIAN, -5, THUMBNAIL.length));
+        Assertions.assertNull(ExifThumbnailExtractor.extract(otherFile));
+    }
+
+    @Test
+    public void testImagesWithoutThumbnail() throws IOException {
+        var tiffWithoutIfd1 = ByteBuffer.allocate(14)
+            .order(ByteOrder.LITTLE_ENDIAN)
+            .putShort((short) 0x4949)
+            .putShort((short) 42)
+            .putInt(8)
+            .putShort((short) 0)
+            .putInt(0);
+        Assertions.assertNull(ExifThumbnailExtractor.extract(writeJpeg(withExifHeader(tiffWithoutIfd1.array()))));
+        Assertions.assertNull(ExifThumbnailExtractor.extract(writeJpeg("http://ns.adobe.com/xap/1.0/\0".getBytes())));
+        Assertions.assertNull(ExifThumbnailExtractor.extract(Files.write(this.directory.resolve("image.png"), new byte[]{(byte) 0x89, 'P', 'N', 'G'})));
+    }
+
+    private static byte[] createExif(final ByteOrder byteOrder, final int thumbnailOffset, final int thumbnailLength) {
+        var tiff = ByteBuffer.allocate(44 + THUMBNAIL.length)
+            .order(byteOrder)
+            .putShort(byteOrder == ByteOrder.LITTLE_ENDIAN ? (short) 0x4949 : (short) 0x4D4D)
+            .putShort((short) 42)
+            .putInt(8)
+            .putShort((short) 0)
+            .putInt(14)
+            .putShort((short) 2)
+            .putShort((short) 0x0201).putShort((short) 4).putInt(1).putInt(thumbnailOffset)
+            .putShort((short) 0x0202).putShort((short) 4).putInt(1).putInt(thumbnailLength)
+            .putInt(0)
+            .put(THUMBNAIL);
+        return withExifHeader(tiff.array());
+    }
+
+    private static byte[] withExifHeader(final byte[] tiff) {
+        var content = new ByteArrayOutputStream();
+        content.writeBytes(new byte[]{'E', 'x', 'i', 'f', 0, 0});
+        content.writeBytes(tiff);
+        return content.toByteArray();
+    }
+
+    private Path writeJpeg(final byte[] app1Content) throws IOException {
+        var content = new ByteArrayOutputStream();
+        content.writeBytes(new byte[]{(byte) 0xFF, (byte) 0xD8});
+        writeSegment(content, 0xE0, "JFIF\0".getBytes());
+        writeSegment(content, 0xE1, app1Content);
+        writeSegment(content, 0xC0, new byte[]{8, 0, 16, 0, 16, 3});
+        writeSegment(content, 0xDA, new byte[8]);
+        return Files.write(this.directory.resolve("image.jpg"), content.toByteArray());
+    }
+
+    private static void writeSegment(final ByteArrayOutputStream content, final int marker, final byte[] data) {
+        var length = data.length + 2;
+        content.write(0xFF);
+        content.write(marker);
+        content.write(length >> 8 & 0xFF);
+        content.write(length & 0xFF);
+        content.writeBytes(data);
+    }
+}
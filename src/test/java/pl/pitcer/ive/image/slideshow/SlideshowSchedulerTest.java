@@ -0,0 +1,85 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.slideshow;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SlideshowSchedulerTest {
+
+    private static final long MILLISECOND = 1_000_000;
+    private static final long INTERVAL = 1000 * MILLISECOND;
+
+    @Test
+    public void testImageIsShownAtDeadline() {
+        var scheduler = new SlideshowScheduler(INTERVAL, SlideshowPolicy.HOLD);
+        scheduler.start(0);
+        Assertions.assertEquals(SlideshowScheduler.Tick.WAIT, scheduler.tick(999 * MILLISECOND, true));
+        Assertions.assertEquals(SlideshowScheduler.Tick.SHOW, scheduler.tick(1016 * MILLISECOND, true));
+        Assertions.assertEquals(SlideshowScheduler.Tick.WAIT, scheduler.tick(1999 * MILLISECOND, true));
+        Assertions.assertEquals(SlideshowScheduler.Tick.SHOW, scheduler.tick(2000 * MILLISECOND, true));
+        var statistics = scheduler.getStatistics();
+        Assertions.assertEquals(2, statistics.getShownCount());
+        Assertions.assertEquals(8, statistics.getMeanJitterMillis(), 1e-9);
+        Assertions.assertEquals(16, statistics.getMaximumJitterMillis(), 1e-9);
+    }
+
+    @Test
+    public void testHoldDelaysScheduleUntilImageIsReady() {
+        var scheduler = new SlideshowScheduler(INTERVAL, SlideshowPolicy.HOLD);
+        scheduler.start(0);
+        Assertions.assertEquals(SlideshowScheduler.Tick.WAIT, scheduler.tick(1000 * MILLISECOND, false));
+        Assertions.assertEquals(SlideshowScheduler.Tick.WAIT, scheduler.tick(2500 * MILLISECOND, false));
+        Assertions.assertEquals(SlideshowScheduler.Tick.SHOW, scheduler.tick(3000 * MILLISECOND, true));
+        Assertions.assertEquals(SlideshowScheduler.Tick.WAIT, scheduler.tick(3999 * MILLISECOND, true));
+        Assertions.assertEquals(SlideshowScheduler.Tick.SHOW, scheduler.tick(4000 * MILLISECOND, true));
+        var statistics = scheduler.getStatistics();
+        Assertions.assertEquals(1, statistics.getHeldCount());
+        Assertions.assertEquals(0, statistics.getSkippedCount());
+        Assertions.assertEquals(2000, statistics.getMaximumJitterMillis(), 1e-9);
+    }
+
+    @Test
+    public void testSkipKeepsSchedule() {
+        var scheduler = new SlideshowScheduler(INTERVAL, SlideshowPolicy.SKIP);
+        scheduler.start(0);
+        Assertions.assertEquals(SlideshowScheduler.Tick.SKIP, scheduler.tick(1000 * MILLISECOND, false));
+        Assertions.assertEquals(SlideshowScheduler.Tick.WAIT, scheduler.tick(1500 * MILLISECOND, true));
+        Assertions.assertEquals(SlideshowScheduler.Tick.SHOW, scheduler.tick(2000 * MILLISECOND, true));
+        var statistics = scheduler.getStatistics();
+        Assertions.assertEquals(1, statistics.getSkippedCount());
+        Assertions.assertEquals(1, statistics.getShownCount());
+        Assertions.assertEquals(0, statistics.getHeldCount());
+    }
+
+    @Test
+    public void testRestartLaysScheduleFromStartTime() {
+        var scheduler = new SlideshowScheduler(INTERVAL, SlideshowPolicy.HOLD);
+        scheduler.start(0);
+        scheduler.start(5000 * MILLISECOND);
+        Assertions.assertEquals(SlideshowScheduler.Tick.WAIT, scheduler.tick(5999 * MILLISECOND, true));
+        Assertions.assertEquals(SlideshowScheduler.Tick.SHOW, scheduler.tick(6000 * MILLISECOND, true));
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.thumbnail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pl.pitcer.ive.image.loader.FileEntry;
+
+public class ThumbnailStoreTest {
+
+    private static final int THUMBNAIL_SIZE = 4;
+    private static final long FIRST_SLOT_PATH_LENGTH_POSITION = 64 + 28;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testStoredThumbnail() throws IOException {
+        try (var store = openStore(10)) {
+            var file = createFile("image.png", 1);
+            Assertions.assertNull(store.get(file));
+            store.put(file, createThumbnail(3, 2, 7));
+            assertThumbnail(3, 2, 7, store.get(file));
+        }
+    }
+
+    @Test
+    public void testThumbnailSurvivesReopening() throws IOException {
+        var file = createFile("image.png", 1);
+        try (var store = openStore(10)) {
+            store.put(file, createThumbnail(4, 4, 3));
+        }
+        try (var store = openStore(10)) {
+            Assertions.assertEquals(1, store.getSize());
+            assertThumbnail(4, 4, 3, store.get(file));
+        }
+    }
+
+    @Test
+    public void testChangedFileMissesThumbnail() throws IOException {
+        try (var store = openStore(10)) {
+            store.put(createFile("image.png", 1), createThumbnail(2, 2, 1));
+            Assertions.assertNull(store.get(createFile("image.png", 2)));
+            store.put(createFile("image.png", 2), createThumbnail(2, 2, 5));
+            assertThumbnail(2, 2, 5, store.get(createFile("image.png", 2)));
+            Assertions.assertEquals(1, store.getSize());
+        }
+    }
+
+    @Test
+    public void testSlotsAreReusedWhenFull() throws IOException {
+        try (var store = openStore(2)) {
+            store.put(createFile("first.png", 1), createThumbnail(1, 1, 1));
+            store.put(createFile("second.png", 1), createThumbnail(1, 1, 2));
+            store.put(createFile("third.png", 1), createThumbnail(1, 1, 3));
+            Assertions.assertNull(store.get(createFile("first.png", 1)));
+            assertThumbnail(1, 1, 2, store.get(createFile("second.png", 1)));
+            assertThumbnail(1, 1, 3, store.get(createFile("third.png", 1)));
+        }
+    }
+
+    @Test
+    public void testSlotsSpanSeveralSegments() throws IOException {
+        try (var store = openStore(200)) {
+            for (int i = 0; i < 150; i++) {
+                store.put(createFile(i + ".png", 1), createThumbnail(1, 1, i));
+            }
+        }
+        try (var store = openStore(200)) {
+            Assertions.assertEquals(150, store.getSize());
+            assertThumbnail(1, 1, 149, store.get(createFile("149.png", 1)));
+        }
+    }
+
+    @Test
+    public void testDifferentThumbnailSizeResetsStore() throws IOException {
+        var file = createFile("image.png", 1);
+        try (var store = openStore(10)) {
+            store.put(file, createThumbnail(1, 1, 1));
+        }
+        try (var store = ThumbnailStore.open(this.directory.resolve("thumbnails"), THUMBNAIL_SIZE * 2, 10)) {
+            Assertions.assertEquals(0, store.getSize());
+            Assertions.assertNull(store.get(file));
+        }
+    }
+
+    @Test
+    public void testThumbnailLargerThanSlotIsNotStored() throws IOException {
+        try (var store = openStore(10)) {
+            var file = createFile("image.png", 1);
+            store.put(file, createThumbnail(THUMBNAIL_SIZE + 1, 1, 1));
+            Assertions.assertNull(store.get(file));
+        }
+    }
+
+    @Test
+    public void testStoreIsNotSharedWhileOpen() throws IOException {
+        try (var store = openStore(10)) {
+            Assertions.assertThrows(IOException.class, () -> openStore(10));
+            var file = createFile("image.png", 1);
+            store.put(file, createThumbnail(1, 1, 1));
+            assertThumbnail(1, 1, 1, store.get(file));
+        }
+        try (var store = openStore(10)) {
+            Assertions.assertEquals(1, store.getSize());
+        }
+    }
+
+    @Test
+    public void testCorruptSlotIsTreatedAsEmpty() throws IOException {
+        var file = createFile("image.png", 1);
+        try (var store = openStore(10)) {
+            store.put(createFile("first.png", 1), createThumbnail(1, 1, 1));
+            store.put(file, createThumbnail(2, 2, 2));
+        }
+        try (var channel = FileChannel.open(this.directory.resolve("thumbnails"), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).putInt(0, -1), FIRST_SLOT_PATH_LENGTH_POSITION);
+        }
+        try (var store = openStore(10)) {
+            Assertions.assertEquals(1, store.getSize());
+            Assertions.assertNull(store.get(createFile("first.png", 1)));
+            assertThumbnail(2, 2, 2, store.get(file));
+        }
+    }
+
+    private ThumbnailStore openStore(final int capacity) throws IOException {
+        return ThumbnailStore.open(this.directory.resolve("thumbnails"), THUMBNAIL_SIZE, capacity);
+    }
+
+    private FileEntry createFile(final String name, final long lastModified) {
+        return new FileEntry(this.directory.resolve(name), lastModified, 100);
+    }
+
+    private static Thumbnail createThumbnail(final int width, final int height, final int color) {
+        var pixels = new int[width * height];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = color + i;
+        }
+        return new Thumbnail(width, height, pixels);
+    }
+
+    private static void assertThumbnail(final int width, final int height, final int color, final Thumbnail thumbnail) {
+        Assertions.assertNotNull(thumbnail);
+        Assertions.assertEquals(width, thumbnail.getWidth());
+        Assertions.assertEquals(height, thumbnail.getHeight());
+        Assertions.assertArrayEquals(createThumbnail(width, height, color).getPixels(), thumbnail.getPixels());
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.tile;
+
+import java.nio.file.Path;
+import javafx.geometry.Rectangle2D;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pl.pitcer.ive.image.loader.FileEntry;
+import pl.pitcer.ive.image.probe.ImageDimensions;
+
+public class TilePyramidTest {
+
+    private final FileEntry file = new FileEntry(Path.of("panorama.jpg"), 0, 0);
+    private final TilePyramid pyramid = new TilePyramid(this.file, new ImageDimensions(50_000, 20_000), 512, 4096);
+
+    @Test
+    public void testTilingIsRequiredOnlyForLargeImages() {
+        Assertions.assertFalse(TilePyramid.isTilingRequired(new ImageDimensions(6000, 4000)));
+        Assertions.assertTrue(TilePyramid.isTilingRequired(new ImageDimensions(20_000, 100)));
+        Assertions.assertTrue(TilePyramid.isTilingRequired(new ImageDimensions(12_000, 12_000)));
+    }
+
+    @Test
+    public void testOverviewLevelFitsInOverviewSize() {
+        Assertions.assertEquals(4, this.pyramid.getOverviewLevel());
+        Assertions.assertEquals(0, TilePyramid.getOverviewLevel(new ImageDimensions(4096, 100), 4096));
+    }
+
+    @Test
+    public void testLevelHasAtLeastOnePixelPerDisplayedPixel() {
+        Assertions.assertEquals(0, this.pyramid.getLevel(0.5));
+        Assertions.assertEquals(0, this.pyramid.getLevel(1.9));
+        Assertions.assertEquals(1, this.pyramid.getLevel(2));
+        Assertions.assertEquals(2, this.pyramid.getLevel(7.5));
+        Assertions.assertEquals(4, this.pyramid.getLevel(1000));
+    }
+
+    @Test
+    public void testTilesIntersectingRegion() {
+        var tiles = this.pyramid.getTiles(1, new Rectangle2D(1000, 100, 1100, 100));
+        Assertions.assertEquals(3, tiles.size());
+        Assertions.assertEquals(new Tile(this.file, 1, 0, 0), tiles.get(0));
+        Assertions.assertEquals(new Tile(this.file, 1, 2, 0), tiles.get(2));
+    }
+
+    @Test
+    public void testTilesAreCutAtImageEdges() {
+        var tiles = this.pyramid.getTiles(0, new Rectangle2D(49_900, 19_990, 1000, 1000));
+        Assertions.assertEquals(1, tiles.size());
+        var region = this.pyramid.getRegion(tiles.get(0));
+        Assertions.assertEquals(new Rectangle2D(97 * 512, 39 * 512, 50_000 - 97 * 512, 20_000 - 39 * 512), region);
+        Assertions.assertTrue(this.pyramid.getTiles(0, new Rectangle2D(-500, -500, 100, 100)).isEmpty());
+    }
+}
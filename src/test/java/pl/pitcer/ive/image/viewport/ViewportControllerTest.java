@@ -0,0 +1,150 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.image.viewport;
+
+import java.util.Random;
+import javafx.geometry.Rectangle2D;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pl.pitcer.ive.image.Viewportable;
+
+public class ViewportControllerTest {
+
+    private static final Rectangle2D PRIMARY_VIEWPORT = new Rectangle2D(0, 0, 4000, 3000);
+
+    private final TestViewportable viewportable = new TestViewportable();
+    private int pulseRequestCount;
+    private final ViewportController viewportController = new ViewportController(this.viewportable, () -> this.pulseRequestCount++);
+
+    @Test
+    public void testViewportIsSetOncePerPulse() {
+        this.viewportable.viewport = PRIMARY_VIEWPORT;
+        for (int event = 0; event < 100; event++) {
+            this.viewportController.zoom(1);
+        }
+        Assertions.assertEquals(1, this.pulseRequestCount);
+        Assertions.assertEquals(0, this.viewportable.setCount);
+        this.viewportController.applyPendingViewport();
+        this.viewportController.applyPendingViewport();
+        Assertions.assertEquals(1, this.viewportable.setCount);
+    }
+
+    @Test
+    public void testFinalViewportMatchesEventByEventViewport() {
+        var random = new Random(42);
+        var expectedViewport = PRIMARY_VIEWPORT;
+        this.viewportable.viewport = PRIMARY_VIEWPORT;
+        double mouseX = 0;
+        double mouseY = 0;
+        this.viewportController.startDrag(mouseX, mouseY);
+        for (int event = 0; event < 10_000; event++) {
+            if (random.nextBoolean()) {
+                var delta = random.nextInt(3) - 1;
+                expectedViewport = zoom(expectedViewport, delta);
+                this.viewportController.zoom(delta);
+            } else {
+                var x = mouseX + random.nextInt(21) - 10;
+                var y = mouseY + random.nextInt(21) - 10;
+                expectedViewport = drag(expectedViewport, x - mouseX, y - mouseY);
+                this.viewportController.drag(x, y);
+                mouseX = x;
+                mouseY = y;
+            }
+            if (random.nextInt(20) == 0) {
+                this.viewportController.applyPendingViewport();
+            }
+        }
+        this.viewportController.applyPendingViewport();
+        Assertions.assertEquals(expectedViewport, this.viewportable.viewport);
+    }
+
+    @Test
+    public void testChangeIsDroppedWhenViewportIsReplaced() {
+        this.viewportable.viewport = PRIMARY_VIEWPORT;
+        this.viewportController.zoom(1);
+        var replacedViewport = new Rectangle2D(0, 0, 10, 10);
+        this.viewportable.viewport = replacedViewport;
+        this.viewportController.applyPendingViewport();
+        Assertions.assertSame(replacedViewport, this.viewportable.viewport);
+    }
+
+    @Test
+    public void testEventsWithoutViewportAreIgnored() {
+        this.viewportController.zoom(1);
+        this.viewportController.drag(10, 10);
+        this.viewportController.applyPendingViewport();
+        Assertions.assertEquals(0, this.pulseRequestCount);
+        Assertions.assertNull(this.viewportable.viewport);
+    }
+
+    /**
+     * Zooms the same way the scroll listener did before viewport changes were coalesced
+     */
+    private static Rectangle2D zoom(final Rectangle2D previousViewport, final double scrollDelta) {
+        if (scrollDelta == 0) {
+            return previousViewport;
+        }
+        var scalar = scrollDelta < 0 ? 1.1 : 1 / 1.1;
+        var sign = scrollDelta < 0 ? -1 : 1;
+        var width = previousViewport.getWidth();
+        var height = previousViewport.getHeight();
+        var dx = Math.abs(width * scalar - width) / 2;
+        var dy = Math.abs(height * scalar - height) / 2;
+        return new Rectangle2D(previousViewport.getMinX() + sign * dx, previousViewport.getMinY() + sign * dy, width * scalar, height * scalar);
+    }
+
+    /**
+     * Pans the same way the mouse dragged listener did before viewport changes were coalesced
+     */
+    private static Rectangle2D drag(final Rectangle2D previousViewport, final double dx, final double dy) {
+        var width = previousViewport.getWidth();
+        var height = previousViewport.getHeight();
+        var widthZoomScalar = width / PRIMARY_VIEWPORT.getWidth();
+        var heightZoomScalar = height / PRIMARY_VIEWPORT.getHeight();
+        return new Rectangle2D(previousViewport.getMinX() - 0.15 * widthZoomScalar * dx, previousViewport.getMinY() - 0.15 * heightZoomScalar * dy, width, height);
+    }
+
+    private static final class TestViewportable implements Viewportable {
+
+        private Rectangle2D viewport;
+        private int setCount;
+
+        @Override
+        public Rectangle2D getPrimaryViewport() {
+            return PRIMARY_VIEWPORT;
+        }
+
+        @Override
+        public Rectangle2D getViewport() {
+            return this.viewport;
+        }
+
+        @Override
+        public void setViewport(final Rectangle2D viewport) {
+            this.viewport = viewport;
+            this.setCount++;
+        }
+    }
+}
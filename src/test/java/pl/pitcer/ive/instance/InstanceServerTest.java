@@ -0,0 +1,99 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.instance;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pl.pitcer.ive.concurrent.DaemonThreadFactory;
+
+public class InstanceServerTest {
+
+    private static final DaemonThreadFactory THREAD_FACTORY = new DaemonThreadFactory("ive-instance-server-test");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testPathsAreForwardedToRunningInstance() throws Exception {
+        var file = this.directory.resolve("instance");
+        var receivedPaths = new CompletableFuture<List<Path>>();
+        var server = InstanceServer.start(file, THREAD_FACTORY, receivedPaths::complete);
+        try {
+            var paths = List.of(Path.of("/photos/image 1.jpg"), Path.of("/photos/new\nline.png"));
+            Assertions.assertTrue(InstanceClient.forward(file, paths));
+            Assertions.assertEquals(paths, receivedPaths.get(5, TimeUnit.SECONDS));
+        } finally {
+            server.close();
+        }
+        Assertions.assertFalse(Files.exists(file));
+    }
+
+    @Test
+    public void testInstanceFileIsReadableOnlyByOwner() throws Exception {
+        var file = this.directory.resolve("instance");
+        var server = InstanceServer.start(file, THREAD_FACTORY, paths -> {});
+        try {
+            var permissions = Files.getPosixFilePermissions(file);
+            Assertions.assertEquals(Set.of(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE), permissions);
+        } finally {
+            server.close();
+        }
+    }
+
+    @Test
+    public void testWrongTokenIsRejected() throws Exception {
+        var file = this.directory.resolve("instance");
+        var receivedPaths = new CompletableFuture<List<Path>>();
+        var server = InstanceServer.start(file, THREAD_FACTORY, receivedPaths::complete);
+        try {
+            var instanceFile = InstanceFile.read(file);
+            var forgedFile = this.directory.resolve("forged");
+            new InstanceFile(instanceFile.getPort(), InstanceFile.generateToken()).write(forgedFile);
+            Assertions.assertFalse(InstanceClient.forward(forgedFile, List.of(Path.of("/photos/image.jpg"))));
+            Assertions.assertFalse(receivedPaths.isDone());
+        } finally {
+            server.close();
+        }
+    }
+
+    @Test
+    public void testNothingIsForwardedWithoutRunningInstance() throws Exception {
+        var file = this.directory.resolve("instance");
+        Assertions.assertFalse(InstanceClient.forward(file, List.of(Path.of("/photos/image.jpg"))));
+        var server = InstanceServer.start(file, THREAD_FACTORY, paths -> {});
+        var staleFile = this.directory.resolve("stale");
+        Files.copy(file, staleFile);
+        server.close();
+        Assertions.assertFalse(InstanceClient.forward(staleFile, List.of(Path.of("/photos/image.jpg"))));
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.metrics;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testBucketsCoverLatencies() {
+        var random = new Random(42);
+        for (int sample = 0; sample < 100_000; sample++) {
+            var nanos = random.nextLong() >>> 1 + random.nextInt(Long.SIZE - 1);
+            var index = LatencyHistogram.getBucketIndex(nanos);
+            var upperBound = LatencyHistogram.getBucketUpperBound(index);
+            Assertions.assertTrue(upperBound >= nanos);
+            Assertions.assertTrue(upperBound - nanos <= nanos / 8, () -> "Bucket of " + nanos + " ends at " + upperBound);
+            if (index > 0) {
+                Assertions.assertTrue(LatencyHistogram.getBucketUpperBound(index - 1) < nanos);
+            }
+        }
+        Assertions.assertEquals(Long.MAX_VALUE, LatencyHistogram.getBucketUpperBound(LatencyHistogram.getBucketIndex(Long.MAX_VALUE)));
+    }
+
+    @Test
+    public void testQuantiles() {
+        var histogram = new LatencyHistogram();
+        for (int millis = 1; millis <= 100; millis++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+        Assertions.assertEquals(100, histogram.getCount());
+        Assertions.assertEquals(50.5, histogram.getMeanMillis(), 1e-9);
+        Assertions.assertEquals(100, histogram.getMaximumMillis(), 1e-9);
+        Assertions.assertEquals(50, histogram.getQuantileMillis(0.5), 50.0 / 8);
+        Assertions.assertEquals(99, histogram.getQuantileMillis(0.99), 99.0 / 8);
+        Assertions.assertEquals(100, histogram.getQuantileMillis(1), 1e-9);
+    }
+
+    @Test
+    public void testEmptyHistogram() {
+        var histogram = new LatencyHistogram();
+        Assertions.assertEquals(0, histogram.getCount());
+        Assertions.assertEquals(0, histogram.getMeanMillis());
+        Assertions.assertEquals(0, histogram.getQuantileMillis(0.99));
+    }
+}
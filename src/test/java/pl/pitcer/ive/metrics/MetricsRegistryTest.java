@@ -0,0 +1,79 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Piotr Dobiech
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package pl.pitcer.ive.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import javax.management.ObjectName;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class MetricsRegistryTest {
+
+    @Test
+    public void testValuesIncludeGaugesAndHistograms() {
+        var registry = new MetricsRegistry();
+        registry.gauge("cache.hitRate", () -> 0.75);
+        registry.histogram("decode.png.small").record(TimeUnit.MILLISECONDS.toNanos(4));
+        var values = registry.getValues();
+        Assertions.assertEquals(0.75, values.get("cache.hitRate"));
+        Assertions.assertEquals(1, values.get("decode.png.small.count"));
+        Assertions.assertEquals(4, values.get("decode.png.small.maxMillis"));
+    }
+
+    @Test
+    public void testHistogramIsCreatedOnce() {
+        var registry = new MetricsRegistry();
+        Assertions.assertSame(registry.histogram("scan"), registry.histogram("scan"));
+    }
+
+    @Test
+    public void testMBeanReadsValues() throws Exception {
+        var registry = new MetricsRegistry();
+        registry.gauge("scan.files", () -> 12);
+        var mBean = new MetricsMBean(registry);
+        Assertions.assertEquals(12.0, mBean.getAttribute("scan.files"));
+        Assertions.assertEquals(1, mBean.getMBeanInfo().getAttributes().length);
+    }
+
+    @Test
+    public void testMBeansOfRegistriesAreRegisteredSeparately() throws Exception {
+        var server = ManagementFactory.getPlatformMBeanServer();
+        var firstRegistry = new MetricsRegistry();
+        var secondRegistry = new MetricsRegistry();
+        firstRegistry.gauge("scan.files", () -> 1);
+        secondRegistry.gauge("scan.files", () -> 2);
+        firstRegistry.registerMBean("first");
+        secondRegistry.registerMBean("second");
+        var firstName = new ObjectName("pl.pitcer.ive:type=Metrics,name=\"first\"");
+        var secondName = new ObjectName("pl.pitcer.ive:type=Metrics,name=\"second\"");
+        Assertions.assertEquals(1.0, server.getAttribute(firstName, "scan.files"));
+        Assertions.assertEquals(2.0, server.getAttribute(secondName, "scan.files"));
+        firstRegistry.unregisterMBean();
+        secondRegistry.unregisterMBean();
+        Assertions.assertFalse(server.isRegistered(firstName));
+        Assertions.assertFalse(server.isRegistered(secondName));
+    }
+}